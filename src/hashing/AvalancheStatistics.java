@@ -0,0 +1,259 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The avalanche behavior of a {@link Scrambler}, measured by flipping, in turn, each bit of many inputs:
+ * <ul>
+ * <li>the strict avalanche criterion (SAC) matrix: the probability that each output bit flips
+ * when each input bit flips, ideally 1/2 for all 32x32 pairs,
+ * <li>the bias of each output bit: how far from 1/2 the probability that it is set is, and
+ * <li>optionally, the bit independence criterion (BIC): the correlation between the flips of each
+ * pair of output bits, caused by flipping the same input bit, ideally 0.
+ * </ul>
+ *
+ * <p>The inputs are {@code k * 0x9E3779B9}, for every {@code k < 2^inputBits}, so that they spread over
+ * the whole input space, and cover all of it for 32 bits. They are split in chunks that are counted
+ * in parallel, each with its own counters, which are merged at the end. Within a chunk, the counters
+ * of the 32 output bits are packed four to an {@code int}, in byte lanes, so that counting the flips of
+ * an input bit takes eight masked additions (without any branches), rather than 32.
+ */
+public class AvalancheStatistics {
+    private static final int GOLDEN = 0x9E3779B9;
+    //the byte-lane counters are flushed every LANE_CAPACITY inputs, before they overflow
+    private static final int LANE_CAPACITY = 255;
+    private static final int LANE_MASK = 0x01010101;
+    private static final int CHUNKS_PER_THREAD = 16;
+    //the flips of output bits j and j + r (mod 32) are counted for each r in [1, PAIR_DISTANCES]
+    private static final int PAIR_DISTANCES = 16;
+
+    private final long inputs;
+    //flips[i][j]: the inputs for which output bit j flipped when input bit i flipped
+    private final long[][] flips = new long[32][32];
+    //ones[j]: the inputs for which output bit j was set
+    private final long[] ones = new long[32];
+    //jointFlips[i][r - 1][j]: the inputs for which both output bits j and j + r flipped when input bit i flipped
+    private final long[][][] jointFlips;
+
+    private AvalancheStatistics(long inputs, boolean independence) {
+        this.inputs = inputs;
+        this.jointFlips = independence ? new long[32][PAIR_DISTANCES][32] : null;
+    }
+
+    /**
+     * Measures the avalanche behavior of a scrambler.
+     *
+     * @param scrambler the scrambler to measure
+     * @param inputBits the logarithm of the number of inputs, from 1 to 32
+     * @param independence whether to also measure the bit independence criterion, which takes
+     * several times longer
+     * @param parallelism the number of threads to count the inputs in
+     */
+    public static AvalancheStatistics measure(final Scrambler scrambler, int inputBits, final boolean independence,
+            int parallelism) throws InterruptedException, ExecutionException {
+        Preconditions.checkArgument(inputBits >= 1 && inputBits <= 32, "Input bits must be in [1, 32]");
+        Preconditions.checkArgument(parallelism >= 1, "Parallelism must be positive");
+        long inputs = 1L << inputBits;
+        AvalancheStatistics statistics = new AvalancheStatistics(inputs, independence);
+        long chunks = Math.min(inputs, parallelism * CHUNKS_PER_THREAD);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<AvalancheStatistics>> results = Lists.newArrayList();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                final long from = inputs * chunk / chunks;
+                final long to = inputs * (chunk + 1) / chunks;
+                results.add(executor.submit(new Callable<AvalancheStatistics>() {
+                    public AvalancheStatistics call() {
+                        return count(scrambler, from, to, independence);
+                    }
+                }));
+            }
+            for (Future<AvalancheStatistics> result : results) {
+                statistics.merge(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return statistics;
+    }
+
+    private static AvalancheStatistics count(Scrambler scrambler, long from, long to, boolean independence) {
+        AvalancheStatistics counts = new AvalancheStatistics(to - from, independence);
+        int[] oneLanes = new int[8];
+        int[][] flipLanes = new int[32][8];
+        int[][][] jointLanes = independence ? new int[32][PAIR_DISTANCES][8] : null;
+        int pending = 0;
+        for (long k = from; k < to; k++) {
+            int x = (int)k * GOLDEN;
+            int h = scrambler.scramble(x);
+            add(oneLanes, h);
+            for (int i = 0; i < 32; i++) {
+                int d = h ^ scrambler.scramble(x ^ (1 << i));
+                add(flipLanes[i], d);
+                if (independence) {
+                    for (int r = 1; r <= PAIR_DISTANCES; r++) {
+                        add(jointLanes[i][r - 1], d & Integer.rotateRight(d, r));
+                    }
+                }
+            }
+            if (++pending == LANE_CAPACITY || k == to - 1) {
+                flush(oneLanes, counts.ones);
+                for (int i = 0; i < 32; i++) {
+                    flush(flipLanes[i], counts.flips[i]);
+                    if (independence) {
+                        for (int r = 0; r < PAIR_DISTANCES; r++) {
+                            flush(jointLanes[i][r], counts.jointFlips[i][r]);
+                        }
+                    }
+                }
+                pending = 0;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Adds 1 to the counters of the set bits of the given value: lane {@code b} of {@code lanes[k]}
+     * counts bit {@code 8 * b + k}.
+     */
+    private static void add(int[] lanes, int bits) {
+        lanes[0] += bits & LANE_MASK;
+        lanes[1] += (bits >>> 1) & LANE_MASK;
+        lanes[2] += (bits >>> 2) & LANE_MASK;
+        lanes[3] += (bits >>> 3) & LANE_MASK;
+        lanes[4] += (bits >>> 4) & LANE_MASK;
+        lanes[5] += (bits >>> 5) & LANE_MASK;
+        lanes[6] += (bits >>> 6) & LANE_MASK;
+        lanes[7] += (bits >>> 7) & LANE_MASK;
+    }
+
+    private static void flush(int[] lanes, long[] counts) {
+        for (int k = 0; k < 8; k++) {
+            for (int b = 0; b < 4; b++) {
+                counts[8 * b + k] += (lanes[k] >>> (8 * b)) & 0xFF;
+            }
+            lanes[k] = 0;
+        }
+    }
+
+    private void merge(AvalancheStatistics counts) {
+        for (int j = 0; j < 32; j++) {
+            ones[j] += counts.ones[j];
+        }
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                flips[i][j] += counts.flips[i][j];
+                if (jointFlips != null) {
+                    for (int r = 0; r < PAIR_DISTANCES; r++) {
+                        jointFlips[i][r][j] += counts.jointFlips[i][r][j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of inputs measured.
+     */
+    public long getInputCount() {
+        return inputs;
+    }
+
+    /**
+     * Returns the probability that the given output bit flips when the given input bit flips.
+     */
+    public double getFlipProbability(int inputBit, int outputBit) {
+        return (double)flips[inputBit][outputBit] / inputs;
+    }
+
+    /**
+     * Returns the largest distance from 1/2 of any flip probability of the SAC matrix.
+     */
+    public double getMaxAvalancheBias() {
+        double max = 0.0;
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                max = Math.max(max, Math.abs(getFlipProbability(i, j) - 0.5));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the average distance from 1/2 of the flip probabilities of the SAC matrix.
+     */
+    public double getAverageAvalancheBias() {
+        double sum = 0.0;
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                sum += Math.abs(getFlipProbability(i, j) - 0.5);
+            }
+        }
+        return sum / (32 * 32);
+    }
+
+    /**
+     * Returns the distance from 1/2 of the probability that the given output bit is set.
+     */
+    public double getOutputBias(int outputBit) {
+        return Math.abs((double)ones[outputBit] / inputs - 0.5);
+    }
+
+    /**
+     * Returns the largest bias of any output bit.
+     */
+    public double getMaxOutputBias() {
+        double max = 0.0;
+        for (int j = 0; j < 32; j++) {
+            max = Math.max(max, getOutputBias(j));
+        }
+        return max;
+    }
+
+    /**
+     * Returns the (Pearson) correlation between the flips of two distinct output bits, when the given
+     * input bit flips. If either output bit flips always or never, which no correlation can be computed
+     * for, this returns {@code 1}, counting that as a complete dependence.
+     *
+     * @throws IllegalStateException if the bit independence criterion was not measured
+     */
+    public double getIndependenceCorrelation(int inputBit, int outputBit1, int outputBit2) {
+        Preconditions.checkState(jointFlips != null, "Bit independence was not measured");
+        Preconditions.checkArgument(outputBit1 != outputBit2, "Output bits must be distinct");
+        int r = (outputBit2 - outputBit1) & 31;
+        long joint = r <= PAIR_DISTANCES
+                ? jointFlips[inputBit][r - 1][outputBit1]
+                : jointFlips[inputBit][32 - r - 1][outputBit2];
+        double p1 = getFlipProbability(inputBit, outputBit1);
+        double p2 = getFlipProbability(inputBit, outputBit2);
+        double variance = p1 * (1 - p1) * p2 * (1 - p2);
+        if (variance == 0.0) {
+            return 1.0;
+        }
+        return ((double)joint / inputs - p1 * p2) / Math.sqrt(variance);
+    }
+
+    /**
+     * Returns the largest absolute correlation between the flips of any two output bits, for any input bit.
+     *
+     * @throws IllegalStateException if the bit independence criterion was not measured
+     */
+    public double getMaxIndependenceCorrelation() {
+        double max = 0.0;
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                for (int k = j + 1; k < 32; k++) {
+                    max = Math.max(max, Math.abs(getIndependenceCorrelation(i, j, k)));
+                }
+            }
+        }
+        return max;
+    }
+}
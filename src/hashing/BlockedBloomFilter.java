@@ -0,0 +1,176 @@
+package hashing;
+
+/**
+ * A cache-line-blocked Bloom filter. The bits are split in blocks of 512 bits (64 bytes, typically
+ * a cache line), and all bits of an element are set in a single block, so that each {@code put}
+ * and {@code mightContain} touches a single cache line, at the cost of a somewhat higher false
+ * positive rate than {@link FakeBloomFilter}.
+ *
+ * <p>All hashes are computed over the whole filter; the first hash selects the block (via its
+ * high-end bits) and every hash selects a bit inside that block (via its low-end 9 bits).
+ * Operations allocate nothing, thus this is not thread-safe.
+ */
+public class BlockedBloomFilter implements BloomFilter {
+    private static final int BLOCK_BITS = 512;
+    private static final int WORDS_PER_BLOCK = BLOCK_BITS / Long.SIZE;
+
+    private final long[] words;
+    private final int bitsCount;
+    private final MultiHasher multiHasher;
+    private final int hashesCount;
+    private final int[] hashes;
+    private final HashCursor hashCursor;
+    private int insertions;
+
+    private BlockedBloomFilter(int blocks, MultiHasherProducer multihasherProducer, int hashesCount) {
+        this.words = new long[blocks * WORDS_PER_BLOCK];
+        this.bitsCount = blocks * BLOCK_BITS;
+        this.multiHasher = multihasherProducer.produce(hashesCount);
+        this.hashesCount = hashesCount;
+        this.hashes = new int[hashesCount];
+        this.hashCursor = multiHasher instanceof LazyMultiHasher
+                ? ((LazyMultiHasher)multiHasher).newHashCursor(bitsCount)
+                : null;
+    }
+
+    private static int blocksFor(int capacity, int bitsPerElement) {
+        return (int)Math.max(1, (FakeBloomFilter.bitsFor(capacity, bitsPerElement) + BLOCK_BITS - 1L) / BLOCK_BITS);
+    }
+
+    /**
+     * Creates a blocked Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the "optimal" number of hashes
+     * per insertion. The allocated bits will at least be {@code capacity * bitsPerElement},
+     * rounded up to a multiple of 512.
+     *
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @return a new blocked Bloom filter
+     */
+    public static BlockedBloomFilter createWithCapacity(int capacity, int bitsPerElement,
+            MultiHasherProducer multihasherProducer) {
+        int blocks = blocksFor(capacity, bitsPerElement);
+        return new BlockedBloomFilter(blocks, multihasherProducer,
+                FakeBloomFilter.optimalHashesCount(blocks * BLOCK_BITS, capacity));
+    }
+
+    /**
+     * Creates a blocked Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the specified number of hashes
+     * per insertion. The allocated bits will at least be {@code capacity * bitsPerElement},
+     * rounded up to a multiple of 512.
+     *
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @param hashesCount the number of hashes per insertion
+     * @return a new blocked Bloom filter
+     */
+    public static BlockedBloomFilter createWithCapacity(int capacity, int bitsPerElement,
+            MultiHasherProducer multihasherProducer, int hashesCount) {
+        return new BlockedBloomFilter(blocksFor(capacity, bitsPerElement), multihasherProducer, hashesCount);
+    }
+
+    public int getHashesCount() {
+        return hashesCount;
+    }
+
+    /**
+     * Returns the {@code MultiHasher} object used by this Bloom filter.
+     */
+    public MultiHasher getMultiHasher() {
+        return multiHasher;
+    }
+
+    private static int blockOf(int firstHash) {
+        return (firstHash / BLOCK_BITS) * WORDS_PER_BLOCK;
+    }
+
+    private static int wordOf(int block, int hash) {
+        return block + ((hash >>> 6) & (WORDS_PER_BLOCK - 1));
+    }
+
+    public void put(Object o) {
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            int hash = hashCursor.next();
+            int block = blockOf(hash);
+            words[wordOf(block, hash)] |= 1L << hash;
+            for (int i = 1; i < hashesCount; i++) {
+                hash = hashCursor.next();
+                words[wordOf(block, hash)] |= 1L << hash;
+            }
+        } else {
+            multiHasher.multihash(hashCode, hashes, bitsCount);
+            int block = blockOf(hashes[0]);
+            for (int hash : hashes) {
+                words[wordOf(block, hash)] |= 1L << hash;
+            }
+        }
+        insertions++;
+    }
+
+    public boolean mightContain(Object o) {
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            int hash = hashCursor.next();
+            int block = blockOf(hash);
+            for (int i = 1; (words[wordOf(block, hash)] & (1L << hash)) != 0; i++) {
+                if (i == hashesCount) {
+                    return true;
+                }
+                hash = hashCursor.next();
+            }
+            return false;
+        }
+        multiHasher.multihash(hashCode, hashes, bitsCount);
+        int block = blockOf(hashes[0]);
+        for (int hash : hashes) {
+            if ((words[wordOf(block, hash)] & (1L << hash)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} The number of insertions per block is approximated by a Poisson distribution.
+     */
+    public double computeExpectedFalsePositiveRate() {
+        double perBlock = (double)insertions * BLOCK_BITS / bitsCount;
+        int limit = (int)(perBlock + 10 * Math.sqrt(perBlock) + 10);
+        double rate = 0.0;
+        double poisson = Math.exp(-perBlock);
+        for (int i = 0; i <= limit; i++) {
+            rate += poisson * Math.pow(1 - Math.exp(-hashesCount * (double)i / BLOCK_BITS), hashesCount);
+            poisson *= perBlock / (i + 1);
+        }
+        return rate;
+    }
+
+    /**
+     * {@inheritDoc} This averages the false positive rate of each block, given its own ratio of 1s.
+     */
+    public double computeFalsePositiveRate() {
+        double rate = 0.0;
+        for (int block = 0; block < words.length; block += WORDS_PER_BLOCK) {
+            int ones = 0;
+            for (int i = block; i < block + WORDS_PER_BLOCK; i++) {
+                ones += Long.bitCount(words[i]);
+            }
+            rate += Math.pow((double)ones / BLOCK_BITS, hashesCount);
+        }
+        return rate / (words.length / WORDS_PER_BLOCK);
+    }
+}
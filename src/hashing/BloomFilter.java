@@ -0,0 +1,54 @@
+package hashing;
+
+/**
+ * A Bloom filter, i.e. a probabilistic set that might yield false positives,
+ * but never yields false negatives.
+ */
+public interface BloomFilter {
+    /**
+     * Puts an element in this Bloom filter.
+     */
+    void put(Object o);
+
+    /**
+     * Returns whether it is possible that this Bloom filter contains the specified element
+     * (might yield false positives, but never yields false negatives).
+     */
+    boolean mightContain(Object o);
+
+    /**
+     * Puts an element with the specified {@code hashCode()} in this Bloom filter. Bloom filters only
+     * hash the {@code hashCode()} of their elements, so this is the same as {@link #put(Object)} for
+     * such an element, without creating one.
+     */
+    void putHash(int hashCode);
+
+    /**
+     * Returns whether it is possible that this Bloom filter contains an element with the specified
+     * {@code hashCode()}, as {@link #mightContain(Object)} does for such an element.
+     */
+    boolean mightContainHash(int hashCode);
+
+    /**
+     * Returns the number of hashes per insertion.
+     */
+    int getHashesCount();
+
+    /**
+     * Returns the <em>expected</em> estimate of false positive ratio, assuming that the hash functions
+     * used are <em>independent</em> and have a <em>uniform distribution</em>, given only the
+     * size of this Bloom filter and the number of insertions performed so far.
+     *
+     * @return the expected false positive rate, from {@code 0.0} to {@code 1.0}
+     */
+    double computeExpectedFalsePositiveRate();
+
+    /**
+     * Returns an estimate of false positive ratio of this Bloom filter, assuming that the hash functions
+     * used are <em>independent</em> and have a <em>uniform distribution</em>. This estimate considers
+     * the actual ratio of 1s in this Bloom filter.
+     *
+     * @return the expected false positive rate, from {@code 0.0} to {@code 1.0}
+     */
+    double computeFalsePositiveRate();
+}
@@ -0,0 +1,34 @@
+package hashing;
+
+/**
+ * Various {@link BloomFilterFactory} implementations.
+ */
+public enum BloomFilterFactories implements BloomFilterFactory {
+    /**
+     * Creates {@link FakeBloomFilter}s, which spread the bits of each element over the whole filter.
+     */
+    PLAIN() {
+        public BloomFilter create(int capacity, int bitsPerElement, MultiHasherProducer multihasherProducer) {
+            return FakeBloomFilter.createWithCapacity(capacity, bitsPerElement, multihasherProducer);
+        }
+    },
+
+    /**
+     * Creates {@link BlockedBloomFilter}s, which confine the bits of each element in a single cache line.
+     */
+    BLOCKED() {
+        public BloomFilter create(int capacity, int bitsPerElement, MultiHasherProducer multihasherProducer) {
+            return BlockedBloomFilter.createWithCapacity(capacity, bitsPerElement, multihasherProducer);
+        }
+    },
+
+    /**
+     * Creates {@link ConcurrentBloomFilter}s, which can be shared between threads.
+     */
+    CONCURRENT() {
+        public BloomFilter create(int capacity, int bitsPerElement, MultiHasherProducer multihasherProducer) {
+            return ConcurrentBloomFilter.createWithCapacity(capacity, bitsPerElement, multihasherProducer);
+        }
+    }
+    ;
+}
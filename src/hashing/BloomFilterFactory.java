@@ -0,0 +1,13 @@
+package hashing;
+
+/**
+ * A factory of {@link BloomFilter} objects.
+ */
+public interface BloomFilterFactory {
+    /**
+     * Creates a Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the "optimal" number of hashes per insertion.
+     */
+    BloomFilter create(int capacity, int bitsPerElement, MultiHasherProducer multihasherProducer);
+}
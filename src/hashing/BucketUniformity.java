@@ -0,0 +1,226 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * How uniformly a {@link Scrambler} spreads the hash codes of a {@link Dataset} over the buckets
+ * of power-of-two tables, tested with Pearson's chi-square statistic. The bucket of a scrambled hash
+ * code is selected either by its low bits (as {@code FakeChainHashtable} does) or by its high bits
+ * (as multiplicative hashing does), and the occupancy of both, for several table sizes, is counted
+ * in a single pass over the keys.
+ *
+ * <p>The keys are split in one contiguous range per thread, each counted (in batches of hash codes,
+ * without boxing them) into its own {@code int} histograms, which are merged at the end. Each thread
+ * thus needs {@code 2 * 4 * 2^bucketBits} bytes per table size.
+ */
+public class BucketUniformity {
+    /**
+     * The bits of a scrambled hash code that select its bucket.
+     */
+    public enum Bits {
+        /** The {@code bucketBits} lowest bits, i.e. {@code h & (2^bucketBits - 1)} */
+        LOW,
+        /** The {@code bucketBits} highest bits, i.e. {@code h >>> (32 - bucketBits)} */
+        HIGH
+    }
+
+    private static final int BATCH_SIZE = 4096;
+
+    private final long keys;
+    private final int[] bucketBits;
+    //counts[m][bits.ordinal()][bucket]: the keys in each bucket of a table of 2^bucketBits[m] buckets
+    private final long[][][] counts;
+
+    private BucketUniformity(long keys, int[] bucketBits) {
+        this.keys = keys;
+        this.bucketBits = bucketBits.clone();
+        this.counts = new long[bucketBits.length][Bits.values().length][];
+        for (int m = 0; m < bucketBits.length; m++) {
+            for (Bits bits : Bits.values()) {
+                counts[m][bits.ordinal()] = new long[1 << bucketBits[m]];
+            }
+        }
+    }
+
+    /**
+     * Measures the uniformity of a scrambler over the first keys of a dataset.
+     *
+     * @param scrambler the scrambler to measure
+     * @param dataset the dataset whose keys are hashed
+     * @param keys the number of keys, i.e. indexes {@code [0, keys)} of the dataset
+     * @param bucketBits the logarithms of the table sizes to count, each from 1 to 30
+     * @param parallelism the number of threads to count the keys in
+     */
+    public static BucketUniformity measure(final Scrambler scrambler, Dataset dataset, int keys,
+            final int[] bucketBits, int parallelism) throws InterruptedException, ExecutionException {
+        Preconditions.checkArgument(keys > 0, "Keys must be positive");
+        Preconditions.checkArgument(bucketBits.length > 0, "No bucket bits");
+        for (int bits : bucketBits) {
+            Preconditions.checkArgument(bits >= 1 && bits <= 30, "Bucket bits must be in [1, 30]");
+        }
+        Preconditions.checkArgument(parallelism >= 1, "Parallelism must be positive");
+        final IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        BucketUniformity uniformity = new BucketUniformity(keys, bucketBits);
+        int chunks = Math.min(keys, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<int[][][]>> results = Lists.newArrayList();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                final int from = (int)(keys * chunk / chunks);
+                final int to = (int)(keys * (chunk + 1) / chunks);
+                results.add(executor.submit(new Callable<int[][][]>() {
+                    public int[][][] call() {
+                        return count(scrambler, hashCodes, from, to, bucketBits);
+                    }
+                }));
+            }
+            for (Future<int[][][]> result : results) {
+                uniformity.merge(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return uniformity;
+    }
+
+    private static int[][][] count(Scrambler scrambler, IntDataset hashCodes, int from, int to, int[] bucketBits) {
+        int tables = bucketBits.length;
+        int[][] low = new int[tables][];
+        int[][] high = new int[tables][];
+        int[] masks = new int[tables];
+        int[] shifts = new int[tables];
+        for (int m = 0; m < tables; m++) {
+            low[m] = new int[1 << bucketBits[m]];
+            high[m] = new int[1 << bucketBits[m]];
+            masks[m] = (1 << bucketBits[m]) - 1;
+            shifts[m] = 32 - bucketBits[m];
+        }
+        int[] batch = new int[Math.min(BATCH_SIZE, to - from)];
+        for (int start = from; start < to; start += batch.length) {
+            if (to - start < batch.length) {
+                batch = new int[to - start];
+            }
+            hashCodes.fill(start, batch);
+            for (int hashCode : batch) {
+                int h = scrambler.scramble(hashCode);
+                for (int m = 0; m < tables; m++) {
+                    low[m][h & masks[m]]++;
+                    high[m][h >>> shifts[m]]++;
+                }
+            }
+        }
+        return new int[][][] { low, high };
+    }
+
+    private void merge(int[][][] partial) {
+        for (Bits bits : Bits.values()) {
+            for (int m = 0; m < bucketBits.length; m++) {
+                long[] total = counts[m][bits.ordinal()];
+                int[] part = partial[bits.ordinal()][m];
+                for (int bucket = 0; bucket < total.length; bucket++) {
+                    total[bucket] += part[bucket];
+                }
+            }
+        }
+    }
+
+    private long[] counts(int bucketBits, Bits bits) {
+        for (int m = 0; m < this.bucketBits.length; m++) {
+            if (this.bucketBits[m] == bucketBits) {
+                return counts[m][bits.ordinal()];
+            }
+        }
+        throw new IllegalArgumentException("Bucket bits were not measured: " + bucketBits);
+    }
+
+    /**
+     * Returns the number of keys measured.
+     */
+    public long getKeyCount() {
+        return keys;
+    }
+
+    /**
+     * Returns the number of keys in the given bucket of the table of {@code 2^bucketBits} buckets.
+     */
+    public long getBucketCount(int bucketBits, Bits bits, int bucket) {
+        return counts(bucketBits, bits)[bucket];
+    }
+
+    /**
+     * Returns the degrees of freedom of the chi-square statistic of a table, i.e. its buckets minus one.
+     */
+    public long getDegreesOfFreedom(int bucketBits) {
+        return (1L << bucketBits) - 1;
+    }
+
+    /**
+     * Returns Pearson's chi-square statistic of the occupancy of a table, the sum over its buckets
+     * of {@code (count - expected)^2 / expected}, where {@code expected} is the number of keys over
+     * the number of buckets. Its expected value is about the degrees of freedom for a uniform scrambler.
+     */
+    public double getChiSquare(int bucketBits, Bits bits) {
+        long[] counts = counts(bucketBits, bits);
+        double expected = (double)keys / counts.length;
+        double chiSquare = 0.0;
+        for (long count : counts) {
+            double diff = count - expected;
+            chiSquare += diff * diff;
+        }
+        return chiSquare / expected;
+    }
+
+    /**
+     * Returns the chi-square statistic of a table in standard deviations from its expected value,
+     * {@code (chiSquare - df) / sqrt(2 * df)}: far above 0 for clustered buckets, and far below 0
+     * for buckets that are suspiciously more even than random.
+     */
+    public double getZScore(int bucketBits, Bits bits) {
+        long df = getDegreesOfFreedom(bucketBits);
+        return (getChiSquare(bucketBits, bits) - df) / Math.sqrt(2.0 * df);
+    }
+
+    /**
+     * Returns the p-value of the chi-square statistic of a table: the probability that a uniform
+     * random assignment of the keys to buckets would be at least as uneven. Values close to 0 reject
+     * the uniformity of the scrambler.
+     */
+    public double getPValue(int bucketBits, Bits bits) {
+        return chiSquareUpperTail(getChiSquare(bucketBits, bits), getDegreesOfFreedom(bucketBits));
+    }
+
+    /**
+     * Returns the probability that a chi-square variable with the given degrees of freedom is at
+     * least {@code x}, by the Wilson-Hilferty approximation: {@code (x / df)^(1/3)} is approximately
+     * normal, with mean {@code 1 - 2 / (9 df)} and variance {@code 2 / (9 df)}. It is only rough for
+     * 1 degree of freedom (2 buckets), within 0.005 from 3 (4 buckets) and within 1e-4 from 100.
+     */
+    static double chiSquareUpperTail(double x, long df) {
+        if (x <= 0.0) {
+            return 1.0;
+        }
+        double variance = 2.0 / (9.0 * df);
+        double z = (Math.cbrt(x / df) - (1.0 - variance)) / Math.sqrt(variance);
+        return 0.5 * erfc(z / Math.sqrt(2.0));
+    }
+
+    /**
+     * The complementary error function, with a fractional error below 1.2e-7 everywhere
+     * (Numerical Recipes, {@code erfcc}).
+     */
+    private static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1.0 / (1.0 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0.0 ? r : 2.0 - r;
+    }
+}
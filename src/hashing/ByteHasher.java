@@ -0,0 +1,21 @@
+package hashing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A hash function over sequences of bytes, such as keys read off the wire, which need not be
+ * materialized as objects (e.g. {@code String}s) just to be hashed.
+ */
+public interface ByteHasher {
+    /**
+     * Hashes {@code length} bytes of the array, starting at {@code offset}. Functions with
+     * 32-bit results return them in the low-end bits.
+     */
+    long hash(byte[] bytes, int offset, int length);
+
+    /**
+     * Hashes {@code length} bytes of the buffer, starting at (absolute) index {@code offset},
+     * regardless of the byte order and without changing the position of the buffer.
+     */
+    long hash(ByteBuffer buffer, int offset, int length);
+}
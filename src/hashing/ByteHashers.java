@@ -0,0 +1,327 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Various {@link ByteHasher} implementations. All read the bytes in little-endian order, as their
+ * reference implementations do on common hardware, and use a seed of zero.
+ */
+public enum ByteHashers implements ByteHasher {
+    /**
+     * Taken from <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">MurmurHash3</a>
+     * ({@code MurmurHash3_x86_32}), a 32-bit hash.
+     */
+    MURMUR3_32() {
+        long hash(ByteAccess access, Object input, int offset, int length) {
+            return murmur3_32(access, input, offset, length, 0) & 0xFFFFFFFFL;
+        }
+    },
+
+    /**
+     * Taken from <a href="https://github.com/Cyan4973/xxHash">xxHash</a> ({@code XXH32}), a 32-bit hash.
+     */
+    XXHASH32() {
+        long hash(ByteAccess access, Object input, int offset, int length) {
+            return xxHash32(access, input, offset, length, 0) & 0xFFFFFFFFL;
+        }
+    },
+
+    /**
+     * Taken from <a href="https://github.com/Cyan4973/xxHash">xxHash</a> ({@code XXH64}).
+     */
+    XXHASH64() {
+        long hash(ByteAccess access, Object input, int offset, int length) {
+            return xxHash64(access, input, offset, length, 0);
+        }
+    },
+
+    /**
+     * Taken from <a href="https://github.com/wangyi-fudan/wyhash">wyhash</a> (final version 4, with
+     * the default secret).
+     */
+    WYHASH() {
+        long hash(ByteAccess access, Object input, int offset, int length) {
+            return wyhash(access, input, offset, length, 0);
+        }
+    }
+    ;
+
+    public long hash(byte[] bytes, int offset, int length) {
+        return hash(ByteAccess.ARRAY, bytes, offset, length);
+    }
+
+    public long hash(ByteBuffer buffer, int offset, int length) {
+        Preconditions.checkArgument(length >= 0, "Length must be non-negative");
+        Preconditions.checkPositionIndexes(offset, offset + length, buffer.limit());
+        if (buffer.hasArray()) {
+            return hash(ByteAccess.ARRAY, buffer.array(), buffer.arrayOffset() + offset, length);
+        }
+        return hash(ByteAccess.BUFFER, buffer, offset, length);
+    }
+
+    abstract long hash(ByteAccess access, Object input, int offset, int length);
+
+    /**
+     * Reads little-endian values from a byte array or a {@code ByteBuffer}, so that each hash function
+     * is written once for both. (A call site sees at most these two implementations, so it is inlined.)
+     */
+    static abstract class ByteAccess {
+        static final ByteAccess ARRAY = new ByteAccess() {
+            int getUnsignedByte(Object input, int index) {
+                return ((byte[])input)[index] & 0xFF;
+            }
+
+            int getInt(Object input, int index) {
+                byte[] bytes = (byte[])input;
+                return (bytes[index] & 0xFF)
+                        | (bytes[index + 1] & 0xFF) << 8
+                        | (bytes[index + 2] & 0xFF) << 16
+                        | bytes[index + 3] << 24;
+            }
+
+            long getLong(Object input, int index) {
+                return (getInt(input, index) & 0xFFFFFFFFL) | (long)getInt(input, index + 4) << 32;
+            }
+        };
+
+        static final ByteAccess BUFFER = new ByteAccess() {
+            int getUnsignedByte(Object input, int index) {
+                return ((ByteBuffer)input).get(index) & 0xFF;
+            }
+
+            int getInt(Object input, int index) {
+                ByteBuffer buffer = (ByteBuffer)input;
+                int value = buffer.getInt(index);
+                return buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+            }
+
+            long getLong(Object input, int index) {
+                ByteBuffer buffer = (ByteBuffer)input;
+                long value = buffer.getLong(index);
+                return buffer.order() == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+            }
+        };
+
+        abstract int getUnsignedByte(Object input, int index);
+
+        abstract int getInt(Object input, int index);
+
+        abstract long getLong(Object input, int index);
+    }
+
+    @SuppressWarnings("fallthrough")
+    static int murmur3_32(ByteAccess access, Object input, int offset, int length, int seed) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        int h = seed;
+        int end = offset + (length & ~3);
+        for (int i = offset; i < end; i += 4) {
+            int k = access.getInt(input, i);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        int k = 0;
+        switch (length & 3) {
+            case 3:
+                k ^= access.getUnsignedByte(input, end + 2) << 16;
+                //fall through
+            case 2:
+                k ^= access.getUnsignedByte(input, end + 1) << 8;
+                //fall through
+            case 1:
+                k ^= access.getUnsignedByte(input, end);
+                k *= c1;
+                k = Integer.rotateLeft(k, 15);
+                k *= c2;
+                h ^= k;
+        }
+        h ^= length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static final int XXH32_PRIME1 = 0x9E3779B1;
+    private static final int XXH32_PRIME2 = 0x85EBCA77;
+    private static final int XXH32_PRIME3 = 0xC2B2AE3D;
+    private static final int XXH32_PRIME4 = 0x27D4EB2F;
+    private static final int XXH32_PRIME5 = 0x165667B1;
+
+    private static int xxHash32Round(int acc, int lane) {
+        return Integer.rotateLeft(acc + lane * XXH32_PRIME2, 13) * XXH32_PRIME1;
+    }
+
+    static int xxHash32(ByteAccess access, Object input, int offset, int length, int seed) {
+        int i = offset;
+        int end = offset + length;
+        int h;
+        if (length >= 16) {
+            int v1 = seed + XXH32_PRIME1 + XXH32_PRIME2;
+            int v2 = seed + XXH32_PRIME2;
+            int v3 = seed;
+            int v4 = seed - XXH32_PRIME1;
+            for (; i <= end - 16; i += 16) {
+                v1 = xxHash32Round(v1, access.getInt(input, i));
+                v2 = xxHash32Round(v2, access.getInt(input, i + 4));
+                v3 = xxHash32Round(v3, access.getInt(input, i + 8));
+                v4 = xxHash32Round(v4, access.getInt(input, i + 12));
+            }
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7)
+                    + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h = seed + XXH32_PRIME5;
+        }
+        h += length;
+        for (; i <= end - 4; i += 4) {
+            h += access.getInt(input, i) * XXH32_PRIME3;
+            h = Integer.rotateLeft(h, 17) * XXH32_PRIME4;
+        }
+        for (; i < end; i++) {
+            h += access.getUnsignedByte(input, i) * XXH32_PRIME5;
+            h = Integer.rotateLeft(h, 11) * XXH32_PRIME1;
+        }
+        h ^= h >>> 15;
+        h *= XXH32_PRIME2;
+        h ^= h >>> 13;
+        h *= XXH32_PRIME3;
+        return h ^ (h >>> 16);
+    }
+
+    private static final long XXH64_PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long XXH64_PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long XXH64_PRIME3 = 0x165667B19E3779F9L;
+    private static final long XXH64_PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long XXH64_PRIME5 = 0x27D4EB2F165667C5L;
+
+    private static long xxHash64Round(long acc, long lane) {
+        return Long.rotateLeft(acc + lane * XXH64_PRIME2, 31) * XXH64_PRIME1;
+    }
+
+    private static long xxHash64Merge(long h, long v) {
+        return (h ^ xxHash64Round(0, v)) * XXH64_PRIME1 + XXH64_PRIME4;
+    }
+
+    static long xxHash64(ByteAccess access, Object input, int offset, int length, long seed) {
+        int i = offset;
+        int end = offset + length;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + XXH64_PRIME1 + XXH64_PRIME2;
+            long v2 = seed + XXH64_PRIME2;
+            long v3 = seed;
+            long v4 = seed - XXH64_PRIME1;
+            for (; i <= end - 32; i += 32) {
+                v1 = xxHash64Round(v1, access.getLong(input, i));
+                v2 = xxHash64Round(v2, access.getLong(input, i + 8));
+                v3 = xxHash64Round(v3, access.getLong(input, i + 16));
+                v4 = xxHash64Round(v4, access.getLong(input, i + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = xxHash64Merge(h, v1);
+            h = xxHash64Merge(h, v2);
+            h = xxHash64Merge(h, v3);
+            h = xxHash64Merge(h, v4);
+        } else {
+            h = seed + XXH64_PRIME5;
+        }
+        h += length;
+        for (; i <= end - 8; i += 8) {
+            h ^= xxHash64Round(0, access.getLong(input, i));
+            h = Long.rotateLeft(h, 27) * XXH64_PRIME1 + XXH64_PRIME4;
+        }
+        if (i <= end - 4) {
+            h ^= (access.getInt(input, i) & 0xFFFFFFFFL) * XXH64_PRIME1;
+            h = Long.rotateLeft(h, 23) * XXH64_PRIME2 + XXH64_PRIME3;
+            i += 4;
+        }
+        for (; i < end; i++) {
+            h ^= access.getUnsignedByte(input, i) * XXH64_PRIME5;
+            h = Long.rotateLeft(h, 11) * XXH64_PRIME1;
+        }
+        return LongScramblers.XXHASH64_AVALANCHE.scramble(h);
+    }
+
+    private static final long WY_SECRET0 = 0x2d358dccaa6c78a5L;
+    private static final long WY_SECRET1 = 0x8bb84b93962eacc9L;
+    private static final long WY_SECRET2 = 0x4b33a62ed433d4a3L;
+    private static final long WY_SECRET3 = 0x4d5a2da51de1aa47L;
+
+    /**
+     * Returns the high-end 64 bits of the unsigned 128-bit product of the arguments.
+     */
+    private static long unsignedMultiplyHigh(long a, long b) {
+        long aLow = a & 0xFFFFFFFFL;
+        long aHigh = a >>> 32;
+        long bLow = b & 0xFFFFFFFFL;
+        long bHigh = b >>> 32;
+        long lowHigh = aLow * bHigh;
+        long highLow = aHigh * bLow;
+        long cross = ((aLow * bLow) >>> 32) + (highLow & 0xFFFFFFFFL) + lowHigh;
+        return aHigh * bHigh + (highLow >>> 32) + (cross >>> 32);
+    }
+
+    /**
+     * Multiplies the arguments into 128 bits, and folds the two halves by xor.
+     */
+    private static long wymix(long a, long b) {
+        return (a * b) ^ unsignedMultiplyHigh(a, b);
+    }
+
+    static long wyhash(ByteAccess access, Object input, int offset, int length, long seed) {
+        seed ^= wymix(seed ^ WY_SECRET0, WY_SECRET1);
+        long a;
+        long b;
+        if (length <= 16) {
+            if (length >= 4) {
+                int shift = (length >>> 3) << 2;
+                a = ((access.getInt(input, offset) & 0xFFFFFFFFL) << 32)
+                        | (access.getInt(input, offset + shift) & 0xFFFFFFFFL);
+                b = ((access.getInt(input, offset + length - 4) & 0xFFFFFFFFL) << 32)
+                        | (access.getInt(input, offset + length - 4 - shift) & 0xFFFFFFFFL);
+            } else if (length > 0) {
+                a = ((long)access.getUnsignedByte(input, offset) << 16)
+                        | (access.getUnsignedByte(input, offset + (length >>> 1)) << 8)
+                        | access.getUnsignedByte(input, offset + length - 1);
+                b = 0;
+            } else {
+                a = b = 0;
+            }
+        } else {
+            int i = offset;
+            int remaining = length;
+            if (remaining > 48) {
+                long seed1 = seed;
+                long seed2 = seed;
+                do {
+                    seed = wymix(access.getLong(input, i) ^ WY_SECRET1, access.getLong(input, i + 8) ^ seed);
+                    seed1 = wymix(access.getLong(input, i + 16) ^ WY_SECRET2, access.getLong(input, i + 24) ^ seed1);
+                    seed2 = wymix(access.getLong(input, i + 32) ^ WY_SECRET3, access.getLong(input, i + 40) ^ seed2);
+                    i += 48;
+                    remaining -= 48;
+                } while (remaining > 48);
+                seed ^= seed1 ^ seed2;
+            }
+            while (remaining > 16) {
+                seed = wymix(access.getLong(input, i) ^ WY_SECRET1, access.getLong(input, i + 8) ^ seed);
+                i += 16;
+                remaining -= 16;
+            }
+            a = access.getLong(input, i + remaining - 16);
+            b = access.getLong(input, i + remaining - 8);
+        }
+        a ^= WY_SECRET1;
+        b ^= seed;
+        long low = a * b;
+        long high = unsignedMultiplyHigh(a, b);
+        return wymix(low ^ WY_SECRET0 ^ length, high ^ WY_SECRET1);
+    }
+}
@@ -0,0 +1,73 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A key made of a slice of a byte array, whose {@code hashCode()} is computed by a {@link ByteHasher}
+ * directly over the bytes (folding 64-bit hashes to 32 bits), so that such keys can be used in any
+ * structure of this package without being materialized as {@code String}s. Like {@code String},
+ * it computes its hash lazily, once.
+ */
+public final class ByteKey {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final ByteHasher hasher;
+    private int hash;
+
+    /**
+     * Creates a key over {@code length} bytes of the array, starting at {@code offset}. The
+     * bytes are not copied, so they should not be modified while the key is in use.
+     */
+    public ByteKey(byte[] bytes, int offset, int length, ByteHasher hasher) {
+        Preconditions.checkArgument(length >= 0, "Length must be non-negative");
+        Preconditions.checkPositionIndexes(offset, offset + length, bytes.length);
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.hasher = hasher;
+    }
+
+    /**
+     * Returns the full 64-bit hash of the key (32-bit hashers leave the high-end bits zero).
+     */
+    public long hash64() {
+        return hasher.hash(bytes, offset, length);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            long h64 = hash64();
+            h = (int)(h64 ^ (h64 >>> 32));
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Returns whether the other object is a {@code ByteKey} with the same bytes and hasher (keys
+     * with different hashers have different hash codes, so they cannot be equal).
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof ByteKey)) return false;
+        ByteKey other = (ByteKey)o;
+        if (other.length != length || !other.hasher.equals(hasher)) return false;
+        for (int i = 0; i < length; i++) {
+            if (bytes[offset + i] != other.bytes[other.offset + i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char)(bytes[offset + i] & 0xFF));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * A hashtable with chaining, mapping {@code int} keys to {@code int} values. Chains are linked
+ * through indexes in primitive node arrays (no node objects are allocated), buckets are selected
+ * by scrambling each key via a {@code Scrambler} and keeping as many as required low-end bits,
+ * and the (power of two) bucket table doubles whenever the size exceeds the configured load factor.
+ */
+public class ChainedIntMap implements IntMap {
+    private static final int NONE = -1;
+
+    private final Scrambler scrambler;
+    private final double loadFactor;
+    private int[] heads;
+    private int[] next;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private int allocatedNodes;
+    private int freeNodes = NONE;
+
+    /**
+     * Constructs a ChainedIntMap with the given initial (power of two) table size,
+     * {@code Scrambler} function and load factor.
+     *
+     * @param tableSize the initial (power of two) number of buckets
+     * @param scrambler the scrambler function to use, to scramble keys before selecting a bucket
+     * @param loadFactor the maximum average chain length (including empty chains) before the
+     * table is resized
+     */
+    public ChainedIntMap(int tableSize, Scrambler scrambler, double loadFactor) {
+        Preconditions.checkArgument(tableSize > 0 && (tableSize & (tableSize - 1)) == 0,
+                "Table size must be a power of two");
+        Preconditions.checkArgument(loadFactor > 0.0, "Load factor must be positive");
+        this.scrambler = scrambler;
+        this.loadFactor = loadFactor;
+        this.heads = newBuckets(tableSize);
+        this.mask = tableSize - 1;
+        this.threshold = (int)(tableSize * loadFactor);
+
+        int nodes = Math.max(1, threshold);
+        this.next = new int[nodes];
+        this.keys = new int[nodes];
+        this.values = new int[nodes];
+    }
+
+    private static int[] newBuckets(int tableSize) {
+        int[] buckets = new int[tableSize];
+        Arrays.fill(buckets, NONE);
+        return buckets;
+    }
+
+    private int bucketOf(int key) {
+        return scrambler.scramble(key) & mask;
+    }
+
+    /**
+     * Associates the specified value with the specified key, replacing any previous value.
+     *
+     * @return {@code true} if the key was not already present
+     */
+    public boolean put(int key, int value) {
+        int bucket = bucketOf(key);
+        for (int node = heads[bucket]; node != NONE; node = next[node]) {
+            if (keys[node] == key) {
+                values[node] = value;
+                return false;
+            }
+        }
+        int node = allocateNode();
+        keys[node] = key;
+        values[node] = value;
+        next[node] = heads[bucket];
+        heads[bucket] = node;
+        if (++size > threshold) {
+            resize(heads.length << 1);
+        }
+        return true;
+    }
+
+    private int allocateNode() {
+        if (freeNodes != NONE) {
+            int node = freeNodes;
+            freeNodes = next[node];
+            return node;
+        }
+        if (allocatedNodes == keys.length) {
+            int capacity = keys.length << 1;
+            next = Arrays.copyOf(next, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        return allocatedNodes++;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if
+     * there is no such key.
+     */
+    public int get(int key, int defaultValue) {
+        for (int node = heads[bucketOf(key)]; node != NONE; node = next[node]) {
+            if (keys[node] == key) {
+                return values[node];
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Returns whether this map contains the specified key.
+     */
+    public boolean containsKey(int key) {
+        for (int node = heads[bucketOf(key)]; node != NONE; node = next[node]) {
+            if (keys[node] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of chain nodes that a lookup of the specified key compares: its position in
+     * its chain if present, or else the length of the chain (zero for an empty bucket).
+     */
+    public int countProbes(int key) {
+        int probes = 0;
+        for (int node = heads[bucketOf(key)]; node != NONE; node = next[node]) {
+            probes++;
+            if (keys[node] == key) {
+                break;
+            }
+        }
+        return probes;
+    }
+
+    /**
+     * Removes the specified key (and its associated value) from this map.
+     *
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(int key) {
+        int bucket = bucketOf(key);
+        int previous = NONE;
+        for (int node = heads[bucket]; node != NONE; previous = node, node = next[node]) {
+            if (keys[node] == key) {
+                if (previous == NONE) {
+                    heads[bucket] = next[node];
+                } else {
+                    next[previous] = next[node];
+                }
+                next[node] = freeNodes;
+                freeNodes = node;
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void resize(int tableSize) {
+        int[] oldHeads = heads;
+        heads = newBuckets(tableSize);
+        mask = tableSize - 1;
+        threshold = (int)(tableSize * loadFactor);
+        for (int head : oldHeads) {
+            for (int node = head; node != NONE; ) {
+                int following = next[node];
+                int bucket = bucketOf(keys[node]);
+                next[node] = heads[bucket];
+                heads[bucket] = node;
+                node = following;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from this map, keeping its current table size.
+     */
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        size = 0;
+        allocatedNodes = 0;
+        freeNodes = NONE;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the current number of buckets of this map.
+     */
+    public int getTableSize() {
+        return heads.length;
+    }
+
+    /**
+     * Returns the scrambler used by this map.
+     */
+    public Scrambler getScrambler() {
+        return scrambler;
+    }
+}
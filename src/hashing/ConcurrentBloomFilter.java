@@ -0,0 +1,168 @@
+package hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe, lock-free Bloom filter. Bits are set by compare-and-set on the words of an
+ * {@code AtomicLongArray} (skipping the write altogether if the bit is already set, which keeps
+ * contended words shared in the caches), and insertions are counted by a striped counter.
+ * Each thread hashes through its own {@code HashCursor} (or hashes array), so the
+ * {@code MultiHasher} must be safe to share, as are all {@link MultiHasherProducers}.
+ */
+public class ConcurrentBloomFilter implements BloomFilter {
+    private final AtomicLongArray words;
+    private final int bitsCount;
+    private final MultiHasher multiHasher;
+    private final int hashesCount;
+    private final ThreadLocal<int[]> hashes;
+    private final ThreadLocal<HashCursor> hashCursors;
+    private final StripedCounter insertions = new StripedCounter();
+
+    private ConcurrentBloomFilter(int bitsCount, MultiHasherProducer multihasherProducer, final int hashesCount) {
+        this.words = new AtomicLongArray(bitsCount / Long.SIZE);
+        this.bitsCount = bitsCount;
+        this.multiHasher = multihasherProducer.produce(hashesCount);
+        this.hashesCount = hashesCount;
+        this.hashes = new ThreadLocal<int[]>() {
+            @Override protected int[] initialValue() {
+                return new int[hashesCount];
+            }
+        };
+        this.hashCursors = multiHasher instanceof LazyMultiHasher
+                ? new ThreadLocal<HashCursor>() {
+                    @Override protected HashCursor initialValue() {
+                        return ((LazyMultiHasher)multiHasher).newHashCursor(ConcurrentBloomFilter.this.bitsCount);
+                    }
+                }
+                : null;
+    }
+
+    private static int bitsFor(int capacity, int bitsPerElement) {
+        return Math.max(1, (FakeBloomFilter.bitsFor(capacity, bitsPerElement) + Long.SIZE - 1) / Long.SIZE) * Long.SIZE;
+    }
+
+    /**
+     * Creates a concurrent Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the "optimal" number of hashes
+     * per insertion. The allocated bits will at least be {@code capacity * bitsPerElement}.
+     *
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @return a new concurrent Bloom filter
+     */
+    public static ConcurrentBloomFilter createWithCapacity(int capacity, int bitsPerElement,
+            MultiHasherProducer multihasherProducer) {
+        int bits = bitsFor(capacity, bitsPerElement);
+        return new ConcurrentBloomFilter(bits, multihasherProducer, FakeBloomFilter.optimalHashesCount(bits, capacity));
+    }
+
+    /**
+     * Creates a concurrent Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the specified number of hashes
+     * per insertion. The allocated bits will at least be {@code capacity * bitsPerElement}.
+     *
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @param hashesCount the number of hashes per insertion
+     * @return a new concurrent Bloom filter
+     */
+    public static ConcurrentBloomFilter createWithCapacity(int capacity, int bitsPerElement,
+            MultiHasherProducer multihasherProducer, int hashesCount) {
+        return new ConcurrentBloomFilter(bitsFor(capacity, bitsPerElement), multihasherProducer, hashesCount);
+    }
+
+    public int getHashesCount() {
+        return hashesCount;
+    }
+
+    /**
+     * Returns the {@code MultiHasher} object used by this Bloom filter.
+     */
+    public MultiHasher getMultiHasher() {
+        return multiHasher;
+    }
+
+    /**
+     * Returns the number of insertions performed so far.
+     */
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    private void set(int bit) {
+        int index = bit >>> 6;
+        long mask = 1L << bit;
+        long word;
+        while (((word = words.get(index)) & mask) == 0) {
+            if (words.compareAndSet(index, word, word | mask)) {
+                return;
+            }
+        }
+    }
+
+    private boolean get(int bit) {
+        return (words.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    public void put(Object o) {
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        if (hashCursors != null) {
+            HashCursor hashCursor = hashCursors.get();
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                set(hashCursor.next());
+            }
+        } else {
+            int[] hashes = this.hashes.get();
+            multiHasher.multihash(hashCode, hashes, bitsCount);
+            for (int hash : hashes) {
+                set(hash);
+            }
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(Object o) {
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hashCode) {
+        if (hashCursors != null) {
+            HashCursor hashCursor = hashCursors.get();
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                if (!get(hashCursor.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        int[] hashes = this.hashes.get();
+        multiHasher.multihash(hashCode, hashes, bitsCount);
+        for (int hash : hashes) {
+            if (!get(hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double computeExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashesCount * ((double)insertions.sum() / bitsCount)), hashesCount);
+    }
+
+    public double computeFalsePositiveRate() {
+        long ones = 0;
+        for (int i = 0; i < words.length(); i++) {
+            ones += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double)ones / bitsCount, hashesCount);
+    }
+}
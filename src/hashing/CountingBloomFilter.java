@@ -0,0 +1,198 @@
+package hashing;
+
+/**
+ * A counting Bloom filter, which supports removals: instead of bits, it keeps 4-bit counters,
+ * packed 16 per {@code long}. Counters saturate at 15; a saturated counter is never decremented
+ * again (so that removals cannot cause false negatives), thus removing elements of heavily shared
+ * counters leaves some false positives behind. Operations allocate nothing, thus this is not thread-safe.
+ */
+public class CountingBloomFilter implements BloomFilter {
+    private static final int COUNTER_BITS = 4;
+    private static final int COUNTERS_PER_WORD = Long.SIZE / COUNTER_BITS;
+    private static final long MAX_COUNT = (1L << COUNTER_BITS) - 1;
+
+    private final long[] words;
+    private final int countersCount;
+    private final MultiHasher multiHasher;
+    private final int hashesCount;
+    private final int[] hashes;
+    private final HashCursor hashCursor;
+    private int elements;
+
+    private CountingBloomFilter(int countersCount, MultiHasherProducer multihasherProducer, int hashesCount) {
+        this.words = new long[countersCount / COUNTERS_PER_WORD];
+        this.countersCount = countersCount;
+        this.multiHasher = multihasherProducer.produce(hashesCount);
+        this.hashesCount = hashesCount;
+        this.hashes = new int[hashesCount];
+        this.hashCursor = multiHasher instanceof LazyMultiHasher
+                ? ((LazyMultiHasher)multiHasher).newHashCursor(countersCount)
+                : null;
+    }
+
+    private static int countersFor(int capacity, int countersPerElement) {
+        return Math.max(1, (FakeBloomFilter.bitsFor(capacity, countersPerElement) + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD)
+                * COUNTERS_PER_WORD;
+    }
+
+    /**
+     * Creates a counting Bloom filter with specified capacity (that is, expected number of elements),
+     * counters per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the "optimal" number of hashes
+     * per insertion. The allocated counters will at least be {@code capacity * countersPerElement},
+     * taking 4 bits each.
+     *
+     * @param capacity the expected number of elements for the created Bloom filter
+     * @param countersPerElement the number of counters per element to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @return a new counting Bloom filter
+     */
+    public static CountingBloomFilter createWithCapacity(int capacity, int countersPerElement,
+            MultiHasherProducer multihasherProducer) {
+        int counters = countersFor(capacity, countersPerElement);
+        return new CountingBloomFilter(counters, multihasherProducer, FakeBloomFilter.optimalHashesCount(counters, capacity));
+    }
+
+    /**
+     * Creates a counting Bloom filter with specified capacity (that is, expected number of elements),
+     * counters per element, and a {@code MultiHasher} (derived from the supplied
+     * {@code MultiHasherProducer}) with the specified number of hashes
+     * per insertion. The allocated counters will at least be {@code capacity * countersPerElement},
+     * taking 4 bits each.
+     *
+     * @param capacity the expected number of elements for the created Bloom filter
+     * @param countersPerElement the number of counters per element to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @param hashesCount the number of hashes per insertion
+     * @return a new counting Bloom filter
+     */
+    public static CountingBloomFilter createWithCapacity(int capacity, int countersPerElement,
+            MultiHasherProducer multihasherProducer, int hashesCount) {
+        return new CountingBloomFilter(countersFor(capacity, countersPerElement), multihasherProducer, hashesCount);
+    }
+
+    public int getHashesCount() {
+        return hashesCount;
+    }
+
+    /**
+     * Returns the {@code MultiHasher} object used by this Bloom filter.
+     */
+    public MultiHasher getMultiHasher() {
+        return multiHasher;
+    }
+
+    /**
+     * Returns the number of bits this Bloom filter occupies (4 per counter).
+     */
+    public long getBitsCount() {
+        return (long)countersCount * COUNTER_BITS;
+    }
+
+    private void increment(int counter) {
+        int index = counter / COUNTERS_PER_WORD;
+        int shift = (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+        if (((words[index] >>> shift) & MAX_COUNT) != MAX_COUNT) {
+            words[index] += 1L << shift;
+        }
+    }
+
+    private void decrement(int counter) {
+        int index = counter / COUNTERS_PER_WORD;
+        int shift = (counter % COUNTERS_PER_WORD) * COUNTER_BITS;
+        long count = (words[index] >>> shift) & MAX_COUNT;
+        if (count != 0 && count != MAX_COUNT) {
+            words[index] -= 1L << shift;
+        }
+    }
+
+    private boolean isZero(int counter) {
+        return (words[counter / COUNTERS_PER_WORD] & (MAX_COUNT << ((counter % COUNTERS_PER_WORD) * COUNTER_BITS))) == 0;
+    }
+
+    public void put(Object o) {
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                increment(hashCursor.next());
+            }
+        } else {
+            multiHasher.multihash(hashCode, hashes, countersCount);
+            for (int hash : hashes) {
+                increment(hash);
+            }
+        }
+        elements++;
+    }
+
+    /**
+     * Removes an element from this Bloom filter. The element must have been put before (and not
+     * removed since), otherwise this may introduce false negatives.
+     */
+    public void remove(Object o) {
+        removeHash(o.hashCode());
+    }
+
+    /**
+     * Removes an element with the specified {@code hashCode()}, as {@link #remove(Object)} does.
+     */
+    public void removeHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                decrement(hashCursor.next());
+            }
+        } else {
+            multiHasher.multihash(hashCode, hashes, countersCount);
+            for (int hash : hashes) {
+                decrement(hash);
+            }
+        }
+        elements--;
+    }
+
+    public boolean mightContain(Object o) {
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                if (isZero(hashCursor.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        multiHasher.multihash(hashCode, hashes, countersCount);
+        for (int hash : hashes) {
+            if (isZero(hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} This considers the elements currently in this Bloom filter, i.e. insertions minus removals.
+     */
+    public double computeExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashesCount * ((double)elements / countersCount)), hashesCount);
+    }
+
+    /**
+     * {@inheritDoc} This considers the ratio of non-zero counters.
+     */
+    public double computeFalsePositiveRate() {
+        int nonZero = 0;
+        for (int i = 0; i < countersCount; i++) {
+            if (!isZero(i)) nonZero++;
+        }
+        return Math.pow((double)nonZero / countersCount, hashesCount);
+    }
+}
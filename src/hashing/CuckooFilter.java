@@ -0,0 +1,248 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A cuckoo filter: an approximate set that stores a short fingerprint of each element in one of
+ * two candidate buckets of 4 slots, and supports removals. Unlike a Bloom filter, a lookup touches
+ * at most two buckets, and each bucket is a single {@code long} (4 slots of 16 bits, of which the
+ * fingerprint uses the lowest {@code fingerprintBits}), matched against the fingerprint at once.
+ *
+ * <p>Both the bucket and the fingerprint of an element derive from its {@code hashCode()},
+ * scrambled by a {@link Scrambler}; the alternate bucket of a fingerprint in bucket {@code i} is
+ * {@code (scramble(fingerprint) - i) mod buckets}, which maps the two candidate buckets to each other
+ * for any number of buckets. An insertion that finds both buckets full relocates ("kicks") resident
+ * fingerprints to their alternate buckets, up to {@value #MAX_KICKS} times; if that fails, the last
+ * homeless fingerprint is kept aside, and the filter is considered full.
+ * Operations allocate nothing, thus this is not thread-safe.
+ */
+public class CuckooFilter implements BloomFilter {
+    private static final int SLOTS = 4;
+    private static final int SLOT_BITS = Long.SIZE / SLOTS;
+    private static final long LOW_SLOT_BITS = 0x0001000100010001L;
+    private static final long HIGH_SLOT_BITS = 0x8000800080008000L;
+    private static final int MAX_KICKS = 500;
+    /** The load (ratio of occupied slots) that a filter is sized for */
+    private static final double TARGET_LOAD = 0.95;
+
+    private final long[] buckets;
+    private final Scrambler scrambler;
+    private final int fingerprintMask;
+    private int size;
+    private int victimFingerprint;
+    private int victimBucket;
+    private int kicks;
+
+    private CuckooFilter(int bucketsCount, int fingerprintBits, Scrambler scrambler) {
+        this.buckets = new long[bucketsCount];
+        this.scrambler = scrambler;
+        this.fingerprintMask = (1 << fingerprintBits) - 1;
+    }
+
+    /**
+     * Creates a cuckoo filter with specified capacity (that is, expected number of elements), using
+     * fingerprints of {@code bitsPerElement} bits, with enough buckets to hold {@code capacity}
+     * elements at a load of {@value #TARGET_LOAD}; thus the filter occupies
+     * {@code bitsPerElement / 0.95} bits per element (if slots were packed to their fingerprint bits).
+     *
+     * @param capacity the expected number of elements for the created filter
+     * @param bitsPerElement the number of bits per fingerprint, from 1 to 16
+     * @param scrambler the scrambler of the hashCode of elements
+     * @return a new cuckoo filter
+     */
+    public static CuckooFilter createWithCapacity(int capacity, int bitsPerElement, Scrambler scrambler) {
+        Preconditions.checkArgument(bitsPerElement >= 1 && bitsPerElement <= SLOT_BITS,
+                "Bits per element must be in [1, %s]: %s", SLOT_BITS, bitsPerElement);
+        int bucketsCount = Math.max(1, (int)Math.ceil(capacity / (SLOTS * TARGET_LOAD)));
+        return new CuckooFilter(bucketsCount, bitsPerElement, scrambler);
+    }
+
+    /**
+     * Returns the {@code Scrambler} object used by this filter.
+     */
+    public Scrambler getScrambler() {
+        return scrambler;
+    }
+
+    /**
+     * Returns 2, the number of buckets (each hashed separately) an element may reside in.
+     */
+    public int getHashesCount() {
+        return 2;
+    }
+
+    /**
+     * Returns the number of elements in this filter.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ratio of elements to slots (which exceeds 1, if the filter is full at every slot,
+     * by the fingerprint kept aside).
+     */
+    public double getLoad() {
+        return (double)size / (buckets.length * SLOTS);
+    }
+
+    private int fingerprint(int hash) {
+        int fingerprint = scrambler.scramble(hash ^ 0x5bd1e995) & fingerprintMask;
+        return fingerprint != 0 ? fingerprint : 1; //0 marks an empty slot
+    }
+
+    private int alternate(int bucket, int fingerprint) {
+        //in long: an overflowing int difference would not map the alternate bucket back to this one
+        return (int)Modulo.mod((long)scrambler.scramble(fingerprint) - bucket, buckets.length);
+    }
+
+    private static int slot(long bucket, int i) {
+        return (int)(bucket >>> (i * SLOT_BITS)) & 0xFFFF;
+    }
+
+    private boolean insert(int bucket, int fingerprint) {
+        long word = buckets[bucket];
+        for (int i = 0; i < SLOTS; i++) {
+            if (slot(word, i) == 0) {
+                buckets[bucket] = word | ((long)fingerprint << (i * SLOT_BITS));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean delete(int bucket, int fingerprint) {
+        long word = buckets[bucket];
+        for (int i = 0; i < SLOTS; i++) {
+            if (slot(word, i) == fingerprint) {
+                buckets[bucket] = word & ~(0xFFFFL << (i * SLOT_BITS));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether any slot of the bucket holds the fingerprint, comparing all slots at once.
+     */
+    private boolean contains(int bucket, int fingerprint) {
+        long diff = buckets[bucket] ^ (fingerprint * LOW_SLOT_BITS); //zero slots where the fingerprint is
+        return ((diff - LOW_SLOT_BITS) & ~diff & HIGH_SLOT_BITS) != 0;
+    }
+
+    /**
+     * Adds an element to this filter, unless the filter is full.
+     *
+     * @return whether the element was added
+     */
+    public boolean add(Object o) {
+        return addHash(o.hashCode());
+    }
+
+    /**
+     * Adds an element with the specified {@code hashCode()}, as {@link #add(Object)} does.
+     */
+    public boolean addHash(int hash) {
+        if (victimFingerprint != 0) {
+            return false;
+        }
+        int fingerprint = fingerprint(hash);
+        int bucket = Modulo.mod(scrambler.scramble(hash), buckets.length);
+        if (!insert(bucket, fingerprint)) {
+            bucket = alternate(bucket, fingerprint);
+            for (int i = 0; !insert(bucket, fingerprint); i++) {
+                if (i == MAX_KICKS) {
+                    victimFingerprint = fingerprint;
+                    victimBucket = bucket;
+                    break;
+                }
+                int shift = (kicks++ & (SLOTS - 1)) * SLOT_BITS;
+                int evicted = (int)(buckets[bucket] >>> shift) & 0xFFFF;
+                buckets[bucket] = (buckets[bucket] & ~(0xFFFFL << shift)) | ((long)fingerprint << shift);
+                fingerprint = evicted;
+                bucket = alternate(bucket, fingerprint);
+            }
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds an element to this filter.
+     *
+     * @throws IllegalStateException if the filter is full
+     */
+    public void put(Object o) {
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        if (!addHash(hashCode)) {
+            throw new IllegalStateException("Cuckoo filter is full, at load: " + getLoad());
+        }
+    }
+
+    /**
+     * Removes an element from this filter. The element must have been added before (and not
+     * removed since), otherwise this may remove the fingerprint of another element.
+     *
+     * @return whether a fingerprint of the element was found (and removed)
+     */
+    public boolean remove(Object o) {
+        int hash = o.hashCode();
+        int fingerprint = fingerprint(hash);
+        int bucket = Modulo.mod(scrambler.scramble(hash), buckets.length);
+        int alternate = alternate(bucket, fingerprint);
+        if (victimFingerprint == fingerprint && (victimBucket == bucket || victimBucket == alternate)) {
+            victimFingerprint = 0;
+        } else if (!delete(bucket, fingerprint) && !delete(alternate, fingerprint)) {
+            return false;
+        }
+        size--;
+        if (victimFingerprint != 0 && (insert(victimBucket, victimFingerprint)
+                || insert(alternate(victimBucket, victimFingerprint), victimFingerprint))) {
+            victimFingerprint = 0;
+        }
+        return true;
+    }
+
+    public boolean mightContain(Object o) {
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hash) {
+        int fingerprint = fingerprint(hash);
+        int bucket = Modulo.mod(scrambler.scramble(hash), buckets.length);
+        if (contains(bucket, fingerprint)) {
+            return true;
+        }
+        int alternate = alternate(bucket, fingerprint);
+        return contains(alternate, fingerprint)
+                || (victimFingerprint == fingerprint && (victimBucket == bucket || victimBucket == alternate));
+    }
+
+    /**
+     * {@inheritDoc} A lookup of an absent element compares its fingerprint against the occupied slots
+     * of two buckets, each matching with probability {@code 1 / (2^fingerprintBits - 1)}.
+     */
+    public double computeExpectedFalsePositiveRate() {
+        return 1 - Math.pow(1 - 1.0 / fingerprintMask, 2 * SLOTS * getLoad());
+    }
+
+    /**
+     * {@inheritDoc} This considers the actual occupancy of each bucket, rather than the average one.
+     */
+    public double computeFalsePositiveRate() {
+        double noMatch = 1 - 1.0 / fingerprintMask;
+        double average = 0.0;
+        for (long bucket : buckets) {
+            int occupied = 0;
+            for (int i = 0; i < SLOTS; i++) {
+                if (slot(bucket, i) != 0) occupied++;
+            }
+            average += Math.pow(noMatch, occupied);
+        }
+        average /= buckets.length;
+        return 1 - average * average;
+    }
+}
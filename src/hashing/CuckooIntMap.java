@@ -0,0 +1,317 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * A hashtable mapping {@code int} keys to {@code int} values by d-ary cuckoo hashing: each key may
+ * only reside in one of {@code d} candidate buckets, given by a {@code MultiHasher} (which hashes the
+ * key as an {@code Integer}, so the key itself plays the role of the hashCode), each bucket holding
+ * a fixed number of slots. A lookup examines at most {@code d} buckets, plus a small stash.
+ *
+ * <p>An insertion that finds all its candidate buckets full evicts a key from one of them (a random
+ * walk), which is then re-inserted in one of its own candidate buckets, possibly evicting another key,
+ * up to a bounded number of evictions. A key left homeless at the end of the chain goes to the stash,
+ * and if that is full too, the insertion fails: then the table doubles its (power of two) size.
+ * The map records the load factor at its first such failure, and the lengths of eviction chains.
+ */
+public class CuckooIntMap implements IntMap {
+    private static final int RANDOM_SEED = 0x9E3779B9;
+
+    private final MultiHasher multiHasher;
+    private final int slotsPerBucket;
+    private final int maxEvictions;
+    private final int[] hashes;
+    private final int[] stashKeys;
+    private final int[] stashValues;
+    private int stashCount;
+    private int[] keys;
+    private int[] values;
+    private boolean[] occupied;
+    private int buckets;
+    private int size;
+    private int random = RANDOM_SEED;
+
+    //the entry left without a position by a failed insertion
+    private int homelessKey;
+    private int homelessValue;
+
+    private long insertions;
+    private long totalEvictions;
+    private int longestEvictionChain;
+    private double loadAtFirstFailure = Double.NaN;
+
+    /**
+     * Constructs a CuckooIntMap.
+     *
+     * @param tableSize the initial (power of two) number of slots of the hashtable
+     * @param producer the producer of the {@code MultiHasher} that gives the candidate buckets of each key
+     * @param d the number of candidate buckets of each key
+     * @param slotsPerBucket the (power of two) number of slots in each bucket, e.g. 1 or 4
+     * @param maxEvictions the maximum number of evictions of a single insertion
+     * @param stashSize the number of keys that the stash can hold, possibly {@code 0}
+     */
+    public CuckooIntMap(int tableSize, MultiHasherProducer producer, int d, int slotsPerBucket,
+            int maxEvictions, int stashSize) {
+        Preconditions.checkArgument(tableSize > 0 && (tableSize & (tableSize - 1)) == 0,
+                "Table size must be a power of two");
+        Preconditions.checkArgument(slotsPerBucket > 0 && (slotsPerBucket & (slotsPerBucket - 1)) == 0
+                && slotsPerBucket <= tableSize, "Slots per bucket must be a power of two, up to the table size");
+        Preconditions.checkArgument(d >= 2, "At least two candidate buckets are required");
+        Preconditions.checkArgument(maxEvictions >= 0, "Maximum evictions must be non-negative");
+        Preconditions.checkArgument(stashSize >= 0, "Stash size must be non-negative");
+        this.multiHasher = producer.produce(d);
+        this.slotsPerBucket = slotsPerBucket;
+        this.maxEvictions = maxEvictions;
+        this.hashes = new int[d];
+        this.stashKeys = new int[stashSize];
+        this.stashValues = new int[stashSize];
+        allocate(tableSize);
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        occupied = new boolean[tableSize];
+        buckets = tableSize / slotsPerBucket;
+        stashCount = 0;
+    }
+
+    private void hash(int key) {
+        multiHasher.multihash(key, hashes, buckets);
+    }
+
+    public boolean put(int key, int value) {
+        int position = find(key);
+        if (position >= 0) {
+            values[position] = value;
+            return false;
+        }
+        if (position != -1) {
+            stashValues[-position - 2] = value;
+            return false;
+        }
+        int evictions = insert(key, value);
+        if (evictions < 0) {
+            if (Double.isNaN(loadAtFirstFailure)) {
+                loadAtFirstFailure = (double)size / keys.length;
+            }
+            evictions = maxEvictions;
+            rehash(keys.length << 1, homelessKey, homelessValue);
+        }
+        insertions++;
+        totalEvictions += evictions;
+        longestEvictionChain = Math.max(longestEvictionChain, evictions);
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts an absent key, evicting other keys if needed.
+     *
+     * @return the number of evictions, or {@code -1} if some key was left without a position
+     * (then stored in {@code homelessKey} and {@code homelessValue})
+     */
+    private int insert(int key, int value) {
+        int previousBucket = -1;
+        for (int evictions = 0; ; evictions++) {
+            hash(key);
+            for (int bucket : hashes) {
+                int base = bucket * slotsPerBucket;
+                for (int slot = base; slot < base + slotsPerBucket; slot++) {
+                    if (!occupied[slot]) {
+                        keys[slot] = key;
+                        values[slot] = value;
+                        occupied[slot] = true;
+                        return evictions;
+                    }
+                }
+            }
+            if (evictions == maxEvictions) {
+                break;
+            }
+            //random walk: evict a random key of a random candidate bucket, other than the one we came from
+            random ^= random << 13;
+            random ^= random >>> 17;
+            random ^= random << 5;
+            int choice = (random >>> 8) % hashes.length;
+            if (hashes[choice] == previousBucket) {
+                choice = (choice + 1) % hashes.length;
+            }
+            previousBucket = hashes[choice];
+            int slot = previousBucket * slotsPerBucket + (random & (slotsPerBucket - 1));
+            int evictedKey = keys[slot];
+            int evictedValue = values[slot];
+            keys[slot] = key;
+            values[slot] = value;
+            key = evictedKey;
+            value = evictedValue;
+        }
+        if (stashCount < stashKeys.length) {
+            stashKeys[stashCount] = key;
+            stashValues[stashCount] = value;
+            stashCount++;
+            return maxEvictions;
+        }
+        homelessKey = key;
+        homelessValue = value;
+        return -1;
+    }
+
+    /**
+     * Re-inserts all entries, plus the given one, into a table of the given size, doubling it
+     * again for as long as some insertion fails.
+     */
+    private void rehash(int newTableSize, int extraKey, int extraValue) {
+        int[] allKeys = new int[size + 1];
+        int[] allValues = new int[size + 1];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (occupied[i]) {
+                allKeys[count] = keys[i];
+                allValues[count] = values[i];
+                count++;
+            }
+        }
+        for (int i = 0; i < stashCount; i++) {
+            allKeys[count] = stashKeys[i];
+            allValues[count] = stashValues[i];
+            count++;
+        }
+        allKeys[count] = extraKey;
+        allValues[count] = extraValue;
+        count++;
+
+        retry:
+        for (int tableSize = newTableSize; ; tableSize <<= 1) {
+            allocate(tableSize);
+            for (int i = 0; i < count; i++) {
+                if (insert(allKeys[i], allValues[i]) < 0) {
+                    continue retry;
+                }
+            }
+            return;
+        }
+    }
+
+    public int get(int key, int defaultValue) {
+        int position = find(key);
+        if (position >= 0) {
+            return values[position];
+        }
+        return position == -1 ? defaultValue : stashValues[-position - 2];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+
+    public boolean remove(int key) {
+        int position = find(key);
+        if (position == -1) {
+            return false;
+        }
+        if (position >= 0) {
+            occupied[position] = false;
+        } else {
+            int index = -position - 2;
+            stashCount--;
+            stashKeys[index] = stashKeys[stashCount];
+            stashValues[index] = stashValues[stashCount];
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the slot of the key, {@code -2 - i} if it is the {@code i}-th key of the stash,
+     * or {@code -1} if it is absent.
+     */
+    private int find(int key) {
+        hash(key);
+        for (int bucket : hashes) {
+            int base = bucket * slotsPerBucket;
+            for (int slot = base; slot < base + slotsPerBucket; slot++) {
+                if (occupied[slot] && keys[slot] == key) {
+                    return slot;
+                }
+            }
+        }
+        for (int i = 0; i < stashCount; i++) {
+            if (stashKeys[i] == key) {
+                return -2 - i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc} Here, each probe examines a whole bucket, and a non-empty stash counts as one
+     * more probe, so a lookup never takes more than {@code d + 1} probes.
+     */
+    public int countProbes(int key) {
+        hash(key);
+        for (int i = 0; i < hashes.length; i++) {
+            int base = hashes[i] * slotsPerBucket;
+            for (int slot = base; slot < base + slotsPerBucket; slot++) {
+                if (occupied[slot] && keys[slot] == key) {
+                    return i + 1;
+                }
+            }
+        }
+        return stashCount > 0 ? hashes.length + 1 : hashes.length;
+    }
+
+    /**
+     * Removes all entries from this map, keeping its current table size. The statistics of
+     * insertions are kept, but the random walk restarts, so that inserting the same keys again
+     * reproduces the same table.
+     */
+    public void clear() {
+        Arrays.fill(occupied, false);
+        stashCount = 0;
+        size = 0;
+        random = RANDOM_SEED;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the current number of slots of this map, excluding the stash.
+     */
+    public int getTableSize() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the number of keys currently in the stash.
+     */
+    public int getStashCount() {
+        return stashCount;
+    }
+
+    /**
+     * Returns the load factor (ratio of keys, including those in the stash, to slots) at the first
+     * insertion that failed, forcing the table to grow, or {@code NaN} if no insertion has failed so far.
+     */
+    public double getLoadAtFirstFailure() {
+        return loadAtFirstFailure;
+    }
+
+    /**
+     * Returns the average number of evictions per insertion of a new key. A failed insertion
+     * counts as the maximum number of evictions.
+     */
+    public double getAverageEvictions() {
+        return insertions == 0 ? 0.0 : (double)totalEvictions / insertions;
+    }
+
+    /**
+     * Returns the longest eviction chain of any insertion of a new key.
+     */
+    public int getLongestEvictionChain() {
+        return longestEvictionChain;
+    }
+}
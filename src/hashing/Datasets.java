@@ -1,7 +1,5 @@
 package hashing;
 
-import java.util.Random;
-
 /**
  * Various {@link Dataset} implementations.
  */
@@ -21,20 +19,64 @@ public enum Datasets implements Dataset {
     },
 
     /**
-     * A dataset that returns a random Integer (ignores the supplied index).
+     * A dataset that returns a random Integer, generated from the index alone (see
+     * {@link IntDatasets#RND_INTEGERS}), so it can be used from several threads at once.
      */
     RND_INTEGERS() {
-        private final Random random = new Random(0);
-        public Object create(int index) {
-            if (index == 0) random.setSeed(0);
-            return random.nextInt();
-        }
+        public Object create(int index) { return IntDatasets.RND_INTEGERS.get(index); }
     },
+
     /**
      * A dataset that returns the string representation of the supplied index.
      */
     STRINGS() {
         public Object create(int index) { return Integer.toString(index); }
+    },
+
+    /**
+     * A dataset that returns the decimal digits of the supplied index (the bytes of {@link #STRINGS}),
+     * as a {@link ByteKey} hashed by {@link ByteHashers#MURMUR3_32}.
+     */
+    BYTES_MURMUR3() {
+        public Object create(int index) { return decimalKey(index, ByteHashers.MURMUR3_32); }
+    },
+
+    /**
+     * Like {@link #BYTES_MURMUR3}, hashed by {@link ByteHashers#XXHASH32}.
+     */
+    BYTES_XXHASH32() {
+        public Object create(int index) { return decimalKey(index, ByteHashers.XXHASH32); }
+    },
+
+    /**
+     * Like {@link #BYTES_MURMUR3}, hashed by {@link ByteHashers#XXHASH64}.
+     */
+    BYTES_XXHASH64() {
+        public Object create(int index) { return decimalKey(index, ByteHashers.XXHASH64); }
+    },
+
+    /**
+     * Like {@link #BYTES_MURMUR3}, hashed by {@link ByteHashers#WYHASH}.
+     */
+    BYTES_WYHASH() {
+        public Object create(int index) { return decimalKey(index, ByteHashers.WYHASH); }
     };
+
+    /**
+     * Writes the decimal digits of a non-negative index straight into a byte array (as they would
+     * arrive off the wire), without creating a {@code String}.
+     */
+    private static ByteKey decimalKey(int index, ByteHasher hasher) {
+        int length = 1;
+        for (int i = index; i >= 10; i /= 10) {
+            length++;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = length - 1; i >= 0; i--) {
+            bytes[i] = (byte)('0' + index % 10);
+            index /= 10;
+        }
+        return new ByteKey(bytes, 0, length, hasher);
+    }
 }
 
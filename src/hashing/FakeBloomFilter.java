@@ -1,21 +1,29 @@
 package hashing;
 
+import com.google.common.base.Preconditions;
 import java.util.BitSet;
 
 /**
  * A simplistic Bloom filter implementation, useful for benchmarking {@code MultiHasher}s
- * regarding false positive rates.
+ * regarding false positive rates. Operations allocate nothing, thus this is not thread-safe.
  */
-public class FakeBloomFilter {
+public class FakeBloomFilter implements BloomFilter {
     private final BitSet bits;
     private final MultiHasher multiHasher;
     private final int hashesCount;
+    private final int[] hashes;
+    private final HashCursor hashCursor;
     private int insertions;
     
     private FakeBloomFilter(BitSet bits, MultiHasherProducer multihasherProducer, int hashesCount) {
         this.bits = bits;
         this.multiHasher = multihasherProducer.produce(hashesCount);
         this.hashesCount = hashesCount;
+        this.hashes = new int[hashesCount];
+        //lazy multihashers let lookups stop at the first zero bit without computing further hashes
+        this.hashCursor = multiHasher instanceof LazyMultiHasher
+                ? ((LazyMultiHasher)multiHasher).newHashCursor(bits.size())
+                : null;
     }
 
     /**
@@ -31,7 +39,7 @@ public class FakeBloomFilter {
      */
     public static FakeBloomFilter createWithCapacity(int capacity, int bitsPerElement,
             MultiHasherProducer multihasherProducer) {
-        BitSet bits = new BitSet(capacity * bitsPerElement);
+        BitSet bits = new BitSet(bitsFor(capacity, bitsPerElement));
 
         return new FakeBloomFilter(bits, multihasherProducer, optimalHashesCount(bits.size(), capacity));
     }
@@ -50,7 +58,7 @@ public class FakeBloomFilter {
      */
     public static FakeBloomFilter createWithCapacity(int capacity, int bitsPerElement,
             MultiHasherProducer multihasherProducer, int hashesCount) {
-        return new FakeBloomFilter(new BitSet(capacity * bitsPerElement), multihasherProducer, hashesCount);
+        return new FakeBloomFilter(new BitSet(bitsFor(capacity, bitsPerElement)), multihasherProducer, hashesCount);
     }
 
     /**
@@ -67,19 +75,48 @@ public class FakeBloomFilter {
         return multiHasher;
     }
 
+    /**
+     * Returns the number of bits of this Bloom filter.
+     */
+    public long getBitsCount() {
+        return bits.size();
+    }
+
     private static final double ln2 = Math.log(2);
-    private static int optimalHashesCount(int bits, int insertions) {
+    static int optimalHashesCount(long bits, long insertions) {
         return Math.max(1, (int)Math.ceil(ln2 * bits / insertions));
     }
 
+    /**
+     * Returns {@code capacity * bitsPerElement}, failing instead of overflowing if the product
+     * (even rounded up to whole 512-bit blocks) exceeds the range of an int; such filters need
+     * a {@link LongBloomFilter}.
+     */
+    static int bitsFor(int capacity, int bitsPerElement) {
+        long bits = (long)capacity * bitsPerElement;
+        Preconditions.checkArgument(bits <= (Integer.MAX_VALUE & -512),
+                "%s bits exceed the int range, use a LongBloomFilter", bits);
+        return (int)bits;
+    }
+
     /**
      * Puts an element in this Bloom filter.
      */
     public void put(Object o) {
-        int[] hashes = new int[hashesCount];
-        multiHasher.multihash(o, hashes, bits.size());
-        for (int hash : hashes) {
-            bits.set(hash);
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                bits.set(hashCursor.next());
+            }
+        } else {
+            multiHasher.multihash(hashCode, hashes, bits.size());
+            for (int hash : hashes) {
+                bits.set(hash);
+            }
         }
         insertions++;
     }
@@ -89,8 +126,20 @@ public class FakeBloomFilter {
      * (might yield false positives, but never yields false negatives).
      */
     public boolean mightContain(Object o) {
-        int[] hashes = new int[hashesCount];
-        multiHasher.multihash(o, hashes, bits.size());
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                if (!bits.get(hashCursor.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        multiHasher.multihash(hashCode, hashes, bits.size());
         for (int hash : hashes) {
             if (!bits.get(hash)) {
                 return false;
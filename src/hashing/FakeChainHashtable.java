@@ -1,18 +1,23 @@
 package hashing;
 
-import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
-import java.util.Map;
+import java.util.Arrays;
 
 /**
  * A fake hashtable with chaining, useful for benchmarking the effects of {@code Scrambler}
- * functions in chain lengths.
+ * functions in chain lengths. Only the length of each chain is kept, in a 16-bit counter per
+ * bucket (widened to 32 bits, should any chain exceed 65535 elements), so that even tables of
+ * 2^28 buckets fit in a moderate heap. The histogram of chain lengths is updated upon each
+ * insertion, so it can be taken at any moment, e.g. at several loads while filling the table once.
  */
 public class FakeChainHashtable {
-    private final Map<Integer, Integer> bucketToLength;
+    private char[] chainLengths;
+    private int[] wideChainLengths;
     private final Scrambler scrambler;
     private final int mask;
+    //the number of buckets per chain length
+    private long[] counts = new long[16];
+    private int maxChainLength;
 
     /**
      * Constructs a FakeChainHashtable of the given (power of two) table size and
@@ -25,8 +30,9 @@ public class FakeChainHashtable {
     public FakeChainHashtable(int tableSize, Scrambler scrambler) {
         Preconditions.checkArgument((tableSize & (tableSize - 1)) == 0, "Table size must be a power of two");
         this.mask = tableSize - 1;
-        this.bucketToLength = Maps.newHashMap();
+        this.chainLengths = new char[tableSize];
         this.scrambler = scrambler;
+        this.counts[0] = tableSize;
     }
 
     /**
@@ -36,9 +42,25 @@ public class FakeChainHashtable {
      */
     public void put(Object o) {
         int bucket = scrambler.scramble(o.hashCode()) & mask;
-
-        Integer chainLength = Objects.firstNonNull(bucketToLength.get(bucket), Integer.valueOf(0));
-        bucketToLength.put(bucket, chainLength + 1);
+        int chainLength;
+        if (wideChainLengths != null) {
+            chainLength = ++wideChainLengths[bucket];
+        } else if (chainLengths[bucket] != Character.MAX_VALUE) {
+            chainLength = ++chainLengths[bucket];
+        } else {
+            wideChainLengths = new int[chainLengths.length];
+            for (int i = 0; i < chainLengths.length; i++) {
+                wideChainLengths[i] = chainLengths[i];
+            }
+            chainLengths = null;
+            chainLength = ++wideChainLengths[bucket];
+        }
+        if (chainLength == counts.length) {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        counts[chainLength - 1]--;
+        counts[chainLength]++;
+        maxChainLength = Math.max(maxChainLength, chainLength);
     }
 
     /**
@@ -53,22 +75,105 @@ public class FakeChainHashtable {
      * of that, as a two-element double array.
      */
     public double[] computeAverageChainLengthAndStddev() {
-        int totalChainLength = 0;
-        for (int chainLength : bucketToLength.values()) {
-            totalChainLength += chainLength;
+        Histogram histogram = computeHistogram();
+        return new double[] { histogram.getAverageChainLength(), histogram.getChainLengthStddev() };
+    }
+
+    /**
+     * Returns (a snapshot of) the histogram of the chain lengths of this hashtable.
+     */
+    public Histogram computeHistogram() {
+        return new Histogram(Arrays.copyOf(counts, maxChainLength + 1));
+    }
+
+    /**
+     * The number of buckets per chain length of a hashtable, and statistics derived from it.
+     */
+    public static class Histogram {
+        private final long[] counts;
+        private final long buckets;
+        private final long elements;
+
+        private Histogram(long[] counts) {
+            this.counts = counts;
+            long buckets = 0;
+            long elements = 0;
+            for (int length = 0; length < counts.length; length++) {
+                buckets += counts[length];
+                elements += length * counts[length];
+            }
+            this.buckets = buckets;
+            this.elements = elements;
         }
-        double avgChainLength = (double)totalChainLength / bucketToLength.size();
 
-        double variance = 0.0;
-        //this accumulates the variance of non-empty chains
-        for (int chainLength : bucketToLength.values()) {
-            double diff = Math.abs(chainLength - avgChainLength);
-            variance += diff * diff;
+        /**
+         * Returns the number of buckets whose chain has the given length.
+         */
+        public long getBucketCount(int chainLength) {
+            return chainLength < counts.length ? counts[chainLength] : 0;
         }
-        variance /= bucketToLength.size();
-        double stddev = Math.sqrt(variance);
 
-        return new double[] { avgChainLength, stddev };
+        /**
+         * Returns the fraction of buckets with empty chains.
+         */
+        public double getEmptyFraction() {
+            return (double)counts[0] / buckets;
+        }
+
+        /**
+         * Returns the average chain length, ignoring empty chains.
+         */
+        public double getAverageChainLength() {
+            return (double)elements / (buckets - counts[0]);
+        }
+
+        /**
+         * Returns the standard deviation of chain lengths, ignoring empty chains.
+         */
+        public double getChainLengthStddev() {
+            double avgChainLength = getAverageChainLength();
+            double variance = 0.0;
+            for (int length = 1; length < counts.length; length++) {
+                double diff = length - avgChainLength;
+                variance += diff * diff * counts[length];
+            }
+            return Math.sqrt(variance / (buckets - counts[0]));
+        }
+
+        /**
+         * Returns the smallest chain length that is at least as long as the given fraction (e.g. 0.99)
+         * of the non-empty chains.
+         */
+        public int getChainLengthPercentile(double fraction) {
+            Preconditions.checkArgument(fraction > 0.0 && fraction <= 1.0, "Fraction must be in (0, 1]");
+            double target = fraction * (buckets - counts[0]);
+            long seen = 0;
+            for (int length = 1; length < counts.length; length++) {
+                seen += counts[length];
+                if (seen >= target) {
+                    return length;
+                }
+            }
+            return getMaxChainLength();
+        }
+
+        /**
+         * Returns the length of the longest chain.
+         */
+        public int getMaxChainLength() {
+            return counts.length - 1;
+        }
+
+        /**
+         * Returns the expected number of elements compared by a successful lookup of an element
+         * chosen uniformly at random: the ith element of a chain costs i comparisons.
+         */
+        public double getExpectedProbesOnSuccess() {
+            double probes = 0.0;
+            for (int length = 1; length < counts.length; length++) {
+                probes += (double)length * (length + 1) / 2 * counts[length];
+            }
+            return probes / elements;
+        }
     }
 }
-
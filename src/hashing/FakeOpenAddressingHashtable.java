@@ -1,44 +1,58 @@
 package hashing;
 
-import com.google.common.base.Function;
-import com.google.common.base.Functions;
-import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Iterators;
-import com.google.common.collect.Lists;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * A fake open-addressing hashtable, useful to benchmark the effects of probing sequences
  * (defined by a {@code Prober}) on collisions and number of probes
  * in successful and unsuccessful lookups.
+ *
+ * <p>Only one bit per table position is kept (whether it is occupied), plus a union-find forest of
+ * the clusters of consecutive occupied positions, each rooted at its last position, where its length
+ * is kept. The probing statistics are updated upon each insertion, in constant time besides the probes
+ * themselves, so they are available at any moment at no cost, even for tables of 2^26 positions (which
+ * take 264MB). Under linear probing, the probes up to an empty position are not walked either: they
+ * span the rest of a cluster, whose last position the forest finds in nearly constant time.
  */
 public class FakeOpenAddressingHashtable {
     private final int tableSize;
-    private final List<Integer> buckets;
+    private final long[] occupied;
+    //for an occupied position, another one of its cluster closer to the cluster's last position or,
+    //at that last position, the complement of the length of the cluster
+    private final int[] clusters;
     private final Prober prober;
-    private int collisions;
+    private final ProbeCursor cursor;
+    private final boolean linear;
     private int size;
+    //the empty position at which the last call to probesToEmpty stopped
+    private int emptyPosition;
+
+    //the number of elements that were found after each number of probes
+    private long[] probeCounts = new long[16];
+    private long totalProbes;
+    private long totalSquaredProbes;
+    private int maxProbes;
+
+    //the sum, over all clusters of consecutive occupied positions, of L(L+1)/2 for a cluster of length L
+    private long clusterCost;
+    private int longestCluster;
 
     /**
      * Constructs a FakeOpenAddressingHashtable of the given (power of two) table size and
      * a {@code Prober}, which defines the probing sequence for each element.
-     * 
+     *
      * @param tableSize the (power of two) table size of the hashtable
      * @param prober a prober, which defines the probing sequence for each element
      */
     public FakeOpenAddressingHashtable(int tableSize, Prober prober) {
         Preconditions.checkArgument((tableSize & (tableSize - 1)) == 0, "Table size must be a power of two");
         this.tableSize = tableSize;
-        this.buckets = Lists.newArrayListWithCapacity(tableSize);
+        this.occupied = new long[(tableSize + 63) >>> 6];
+        this.clusters = new int[tableSize];
         this.prober = prober;
-        buckets.addAll(Collections.<Integer>nCopies(tableSize, null));
+        this.cursor = prober.newProbeCursor(tableSize);
+        this.linear = prober == Probers.LINEAR;
     }
 
     /**
@@ -50,15 +64,105 @@ public class FakeOpenAddressingHashtable {
         if (size == tableSize) {
             throw new IllegalStateException("too many elements");
         }
-        int hashCode = o.hashCode();
+        int probes = probesToEmpty(o.hashCode());
+        int position = emptyPosition;
+        occupied[position >>> 6] |= 1L << position;
+        size++;
+        recordProbes(probes);
+        recordCluster(position);
+    }
+
+    /**
+     * Returns the number of probes of the probing sequence of the hashCode up to (and including) its
+     * first empty position, which is left in {@code emptyPosition}. The table must not be full.
+     */
+    private int probesToEmpty(int hashCode) {
+        cursor.reset(hashCode);
+        int position = cursor.next();
+        int probes = 1;
+        if (linear) {
+            if (isOccupied(position)) {
+                //the rest of the cluster, then the position right after it
+                int last = clusterEnd(position);
+                probes += ((last - position) & (tableSize - 1)) + 1;
+                position = (last + 1) & (tableSize - 1);
+            }
+        } else {
+            while (isOccupied(position)) {
+                position = cursor.next();
+                probes++;
+            }
+        }
+        emptyPosition = position;
+        return probes;
+    }
 
-        Iterator<Integer> probeSequence = prober.probeSequence(hashCode, tableSize);
-        int position = -1;
-        while (buckets.get(position = probeSequence.next()) != null)
-            collisions++;
+    private boolean isOccupied(int position) {
+        return (occupied[position >>> 6] & (1L << position)) != 0;
+    }
 
-        buckets.set(position, hashCode);
-        size++;
+    private void recordProbes(int probes) {
+        if (probes >= probeCounts.length) {
+            probeCounts = Arrays.copyOf(probeCounts, Math.max(probes + 1, probeCounts.length * 2));
+        }
+        probeCounts[probes]++;
+        totalProbes += probes;
+        totalSquaredProbes += (long)probes * probes;
+        maxProbes = Math.max(maxProbes, probes);
+    }
+
+    /**
+     * Merges the newly occupied position with the clusters right before and after it: the former ends
+     * (thus is rooted) right before it, and the root of the latter becomes the root of the merged one.
+     */
+    private void recordCluster(int position) {
+        int mask = tableSize - 1;
+        int previous = (position - 1) & mask;
+        int merged;
+        int before;
+        int after;
+        int last;
+        if (size == tableSize) {
+            //the clusters before and after are the same one, wrapping around the rest of the table
+            merged = tableSize;
+            before = tableSize - 1;
+            after = 0;
+            last = previous;
+        } else {
+            before = isOccupied(previous) ? ~clusters[previous] : 0;
+            last = isOccupied((position + 1) & mask) ? clusterEnd((position + 1) & mask) : position;
+            after = last != position ? ~clusters[last] : 0;
+            merged = before + after + 1;
+            if (before > 0) {
+                clusters[previous] = last;
+            }
+        }
+        if (last != position) {
+            clusters[position] = last;
+        }
+        clusters[last] = ~merged;
+        clusterCost += triangle(merged) - triangle(before) - triangle(after);
+        longestCluster = Math.max(longestCluster, merged);
+    }
+
+    /**
+     * Returns the last position of the cluster of the (occupied) position, halving the path to it.
+     */
+    private int clusterEnd(int position) {
+        int next;
+        while ((next = clusters[position]) >= 0) {
+            int nextOfNext = clusters[next];
+            if (nextOfNext < 0) {
+                return next;
+            }
+            clusters[position] = nextOfNext;
+            position = nextOfNext;
+        }
+        return position;
+    }
+
+    private static long triangle(long n) {
+        return n * (n + 1) / 2;
     }
 
     /**
@@ -68,67 +172,82 @@ public class FakeOpenAddressingHashtable {
         return prober;
     }
 
+    /**
+     * Returns the number of elements in this hashtable.
+     */
+    public int size() {
+        return size;
+    }
+
     /**
      * Returns the total number of collisions occured upon insertions.
      */
     public int getCollisionCount() {
-        return collisions;
+        return (int)(totalProbes - size);
     }
 
     /**
-     * Returns an object that returns probing statistics.
+     * Returns the average number of probes per successful lookup in the hashtable, i.e. the
+     * probes that inserted each element.
      */
-    public ProbeCounter newProbeCounter() {
-        return new ProbeCounter();
+    public double getAverageProbesOnSuccess() {
+        return (double)totalProbes / size;
     }
 
     /**
-     * A probing statistics gathering object.
+     * Returns the variance of the number of probes per successful lookup in the hashtable.
      */
-    public class ProbeCounter {
-        private final ImmutableList<Integer> hashCodes;
-
-        private ProbeCounter() {
-            this.hashCodes = ImmutableList.copyOf(Iterables.filter(buckets, Predicates.notNull()));
-            Preconditions.checkArgument(!hashCodes.isEmpty());
-        }
+    public double getProbesOnSuccessVariance() {
+        double mean = getAverageProbesOnSuccess();
+        return (double)totalSquaredProbes / size - mean * mean;
+    }
 
-        /**
-         * Returns the average number of probes per successful lookup in the hashtable.
-         */
-        public double computeAverageProbesOnSuccess() {
-            //for each stored hashCode, try to find it and count the probes
-            long totalProbes = countProbes(Functions.<Integer>identity());
+    /**
+     * Returns the maximum number of probes of a successful lookup in the hashtable.
+     */
+    public int getMaxProbesOnSuccess() {
+        return maxProbes;
+    }
 
-            return (double)totalProbes / hashCodes.size();
-        }
+    /**
+     * Returns the number of elements that a successful lookup finds after exactly the given
+     * number of probes.
+     */
+    public long getElementCountByProbes(int probes) {
+        return probes < probeCounts.length ? probeCounts[probes] : 0;
+    }
 
-        /**
-         * Returns the average number of probes per unsuccessful lookup in the hashtable.
-         * This is computed by simulating looking up (non-existent) elements at each
-         * position of the table.
-         */
-        public double computeAverageProbesOnCollisions() {
-            //for each stored hashCode, pretend we have a collision, and see how many probes
-            //we do to find out the element is not there
-            long totalProbes = countProbes(Functions.constant(null));
-
-            return (double)totalProbes / hashCodes.size();
+    /**
+     * Returns the average number of probes per unsuccessful lookup of the given hashCodes, following
+     * the probing sequence of each, as the prober of this hashtable defines it, up to the first empty
+     * position. For hashCodes that are stored in the hashtable, this is the cost of a lookup of an
+     * absent element that collides with each of them.
+     *
+     * @throws IllegalStateException if the hashtable is full
+     */
+    public double getAverageProbesOnMiss(int[] hashCodes) {
+        Preconditions.checkState(size < tableSize, "A full table has no unsuccessful lookups");
+        long probes = 0;
+        for (int hashCode : hashCodes) {
+            probes += probesToEmpty(hashCode);
         }
+        return (double)probes / hashCodes.length;
+    }
 
-        private long countProbes(Function<? super Integer, ?> endMarkerFunction) {
-            long totalProbes = 0;
-            for (Integer hashCode : hashCodes) {
-                Iterator<Integer> probeSequence = prober.probeSequence(hashCode, tableSize);
-                final Object endMarker = endMarkerFunction.apply(hashCode);
-                totalProbes += 1 + Iterators.indexOf(probeSequence, new Predicate<Integer>() {
-                    public boolean apply(Integer index) {
-                        return Objects.equal(buckets.get(index), endMarker);
-                    }
-                });
-            }
-            return totalProbes;
-        }
+    /**
+     * Returns the average number of positions scanned from a random position up to an empty one,
+     * which is derived from the lengths of the clusters of consecutive occupied positions. This is
+     * the cost of an unsuccessful lookup under linear probing; for other probers, it measures how
+     * much the layout of the table suffers from primary clustering.
+     */
+    public double getAverageClusterScan() {
+        return 1.0 + (double)clusterCost / tableSize;
+    }
 
+    /**
+     * Returns the length of the longest cluster of consecutive occupied positions.
+     */
+    public int getLongestCluster() {
+        return longestCluster;
     }
 }
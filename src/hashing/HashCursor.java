@@ -0,0 +1,25 @@
+package hashing;
+
+/**
+ * A reusable, allocation-free cursor over the hashes that a {@link LazyMultiHasher} produces
+ * for an object, bound to a specific table size. A cursor is not thread-safe; each
+ * data structure (or each thread) should use its own.
+ */
+public interface HashCursor {
+    /**
+     * Restarts this cursor at the first hash of the specified object.
+     */
+    void reset(Object o);
+
+    /**
+     * Restarts this cursor at the first hash of any object with the specified {@code hashCode()}.
+     */
+    void reset(int hashCode);
+
+    /**
+     * Returns the next hash of the current object, in the range {@code 0} (inclusive) to
+     * {@code tableSize} (exclusive). The first {@code k} hashes after a {@link #reset(Object)} equal
+     * the ones that {@link MultiHasher#multihash(Object, int[], int)} yields into an array of length {@code k}.
+     */
+    int next();
+}
@@ -0,0 +1,18 @@
+package hashing;
+
+/**
+ * An (unbounded) index-based supplier of {@code int}s, which need not be boxed. The ith value
+ * depends on nothing but the index, so datasets can be read from several threads at once.
+ */
+public interface IntDataset {
+    /**
+     * Returns the ith value of this dataset.
+     */
+    int get(int index);
+
+    /**
+     * Fills the array with {@code out.length} consecutive values of this dataset, starting
+     * from the value at index {@code start}.
+     */
+    void fill(int start, int[] out);
+}
@@ -0,0 +1,65 @@
+package hashing;
+
+/**
+ * Various {@link IntDataset} implementations.
+ */
+public enum IntDatasets implements IntDataset {
+    /**
+     * A dataset that returns the supplied index.
+     */
+    INTEGERS() {
+        public int get(int index) { return index; }
+
+        public void fill(int start, int[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = start + i;
+            }
+        }
+    },
+
+    /**
+     * A dataset that returns random integers, generated from the index alone (counter-based):
+     * the ith value is the high-end half of the ith value of {@link LongDatasets#RND_LONGS}.
+     */
+    RND_INTEGERS() {
+        public int get(int index) { return random(index); }
+
+        public void fill(int start, int[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = random(start + i);
+            }
+        }
+    };
+
+    public abstract int get(int index); //compiler bug workaround
+
+    static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static int random(int index) {
+        return (int)(LongScramblers.SPLITMIX64.scramble(index * GOLDEN_GAMMA) >>> 32);
+    }
+
+    /**
+     * Returns an {@code IntDataset} of the hashCodes of the objects of the given dataset, which
+     * for {@link Datasets#INTEGERS} and {@link Datasets#RND_INTEGERS} creates no objects at all.
+     */
+    public static IntDataset hashCodesOf(final Dataset dataset) {
+        if (dataset == Datasets.INTEGERS) {
+            return INTEGERS;
+        }
+        if (dataset == Datasets.RND_INTEGERS) {
+            return RND_INTEGERS;
+        }
+        return new IntDataset() {
+            public int get(int index) {
+                return dataset.create(index).hashCode();
+            }
+
+            public void fill(int start, int[] out) {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = dataset.create(start + i).hashCode();
+                }
+            }
+        };
+    }
+}
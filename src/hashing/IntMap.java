@@ -0,0 +1,54 @@
+package hashing;
+
+/**
+ * A hashtable mapping {@code int} keys to {@code int} values, where the key itself plays the role
+ * of the hashCode. Implementations differ in how they resolve collisions.
+ */
+public interface IntMap {
+    /**
+     * Associates the specified value with the specified key, replacing any previous value.
+     *
+     * @return {@code true} if the key was not already present
+     */
+    boolean put(int key, int value);
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if
+     * there is no such key.
+     */
+    int get(int key, int defaultValue);
+
+    /**
+     * Returns whether this map contains the specified key.
+     */
+    boolean containsKey(int key);
+
+    /**
+     * Removes the specified key (and its associated value) from this map.
+     *
+     * @return {@code true} if the key was present
+     */
+    boolean remove(int key);
+
+    /**
+     * Returns the number of probes (table positions, groups of positions for tables that
+     * examine several at once, or chain nodes for tables with chaining) that a lookup of the
+     * specified key performs, whether the key is present or not.
+     */
+    int countProbes(int key);
+
+    /**
+     * Removes all entries from this map, keeping its current table size.
+     */
+    void clear();
+
+    /**
+     * Returns the number of keys in this map.
+     */
+    int size();
+
+    /**
+     * Returns the current table size of this map.
+     */
+    int getTableSize();
+}
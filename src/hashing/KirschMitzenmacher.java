@@ -0,0 +1,61 @@
+package hashing;
+
+/**
+ * A {@code MultiHasher} that derives any number of hashes from two base hashes, as
+ * {@code g(i) = h1 + i * h2} (modulo the table size), as suggested by Kirsch and Mitzenmacher in
+ * "Less Hashing, Same Performance: Building a Better Bloom Filter". The base hashes are the
+ * {@code hashCode()} of an object scrambled by two different {@code Scrambler}s.
+ */
+class KirschMitzenmacher implements LazyMultiHasher {
+    private final Scrambler first;
+    private final Scrambler second;
+
+    KirschMitzenmacher(Scrambler first, Scrambler second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Returns the step of the hash sequence in {@code [1, tableSize)}, or {@code 0}
+     * if the table size is 1. A zero step would yield the same hash {@code k} times.
+     */
+    private static int step(int h2, int tableSize) {
+        int step = Modulo.mod(h2, tableSize);
+        return step == 0 && tableSize > 1 ? 1 : step;
+    }
+
+    public void multihash(Object o, int[] output, int tableSize) {
+        multihash(o.hashCode(), output, tableSize);
+    }
+
+    public void multihash(int hashCode, int[] output, int tableSize) {
+        int current = Modulo.mod(first.scramble(hashCode), tableSize);
+        int step = step(second.scramble(hashCode), tableSize);
+        for (int i = 0; i < output.length; i++) {
+            output[i] = current;
+            if ((current += step) >= tableSize) current -= tableSize;
+        }
+    }
+
+    public HashCursor newHashCursor(final int tableSize) {
+        return new HashCursor() {
+            int current;
+            int step;
+
+            public void reset(Object o) {
+                reset(o.hashCode());
+            }
+
+            public void reset(int hashCode) {
+                current = Modulo.mod(first.scramble(hashCode), tableSize);
+                step = step(second.scramble(hashCode), tableSize);
+            }
+
+            public int next() {
+                int hash = current;
+                if ((current += step) >= tableSize) current -= tableSize;
+                return hash;
+            }
+        };
+    }
+}
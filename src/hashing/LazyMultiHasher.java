@@ -0,0 +1,13 @@
+package hashing;
+
+/**
+ * A {@link MultiHasher} that can also produce its hashes one at a time, so that callers
+ * need neither an output array nor to compute hashes that they will not use.
+ */
+public interface LazyMultiHasher extends MultiHasher {
+    /**
+     * Returns a cursor over the hashes of objects, in the range {@code 0} (inclusive) to
+     * {@code tableSize} (exclusive).
+     */
+    HashCursor newHashCursor(int tableSize);
+}
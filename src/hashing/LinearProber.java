@@ -1,8 +1,5 @@
 package hashing;
 
-import com.google.common.collect.AbstractIterator;
-import java.util.Iterator;
-
 /**
  * A linear prober (each probing position differs from the previous one by a constant).
  */
@@ -16,17 +13,22 @@ class LinearProber implements Prober {
     protected int step(int hashCode) {
         return 1;
     }
-    
-    public Iterator<Integer> probeSequence(final int hashCode, final int tableSize) {
-        return new AbstractIterator<Integer>() {
-            int current = Modulo.mod(hashCode, tableSize);
-            final int step = Modulo.mod(step(hashCode), tableSize);
-            @Override protected Integer computeNext() {
-                try {
-                    return current;
-                } finally {
-                    current = (current + step) % tableSize;
-                }
+
+    public ProbeCursor newProbeCursor(final int tableSize) {
+        return new ProbeCursor() {
+            int current;
+            int step;
+
+            public void reset(int hashCode) {
+                current = Modulo.mod(hashCode, tableSize);
+                step = Modulo.mod(step(hashCode), tableSize);
+            }
+
+            public int next() {
+                int position = current;
+                //both terms are less than tableSize, so a subtraction replaces the modulo
+                if ((current += step) >= tableSize) current -= tableSize;
+                return position;
             }
         };
     }
@@ -0,0 +1,49 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A fixed-size set of bits indexed by longs, thus not limited to {@code Integer.MAX_VALUE} bits
+ * like {@code java.util.BitSet} (a single {@code long[]} holds up to 2^37 bits). Not thread-safe.
+ */
+public class LongBitSet {
+    private static final long MAX_BITS = (long)Integer.MAX_VALUE * Long.SIZE;
+
+    private final long[] words;
+    private final long size;
+
+    /**
+     * Creates a bit set of the specified number of bits, rounded up to a multiple of 64.
+     */
+    public LongBitSet(long bits) {
+        Preconditions.checkArgument(bits > 0 && bits <= MAX_BITS, "Bits must be in [1, %s]: %s", MAX_BITS, bits);
+        this.words = new long[(int)((bits + Long.SIZE - 1) >>> 6)];
+        this.size = (long)words.length * Long.SIZE;
+    }
+
+    /**
+     * Returns the number of bits of this set.
+     */
+    public long size() {
+        return size;
+    }
+
+    public void set(long bit) {
+        words[(int)(bit >>> 6)] |= 1L << bit;
+    }
+
+    public boolean get(long bit) {
+        return (words[(int)(bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Returns the number of bits set to 1.
+     */
+    public long cardinality() {
+        long ones = 0;
+        for (long word : words) {
+            ones += Long.bitCount(word);
+        }
+        return ones;
+    }
+}
@@ -0,0 +1,126 @@
+package hashing;
+
+/**
+ * A Bloom filter addressed by 64-bit hashes (from a {@link LongMultiHasher}) over a {@link LongBitSet},
+ * thus able to hold more than 2^31 bits, which the int-addressed filters cannot. Operations allocate
+ * nothing, thus this is not thread-safe.
+ *
+ * <p>Elements given by their 32-bit {@code hashCode()} are at most 2^32 distinct, which bounds the
+ * false positive rate from below by about n / 2^32 for n elements, whatever the number of bits. Filters
+ * beyond 2^31 bits should be given the 64-bit hashes of their elements instead, through
+ * {@link #putHash64(long)} and {@link #mightContainHash64(long)}.
+ */
+public class LongBloomFilter implements BloomFilter {
+    private final LongBitSet bits;
+    private final LongMultiHasher multiHasher;
+    private final int hashesCount;
+    private final long[] hashes;
+    private long insertions;
+
+    private LongBloomFilter(LongBitSet bits, LongMultiHasherProducer multihasherProducer, int hashesCount) {
+        this.bits = bits;
+        this.multiHasher = multihasherProducer.produce(hashesCount);
+        this.hashesCount = hashesCount;
+        this.hashes = new long[hashesCount];
+    }
+
+    /**
+     * Creates a Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code LongMultiHasher} (derived from the supplied
+     * {@code LongMultiHasherProducer}) with the "optimal" number of hashes
+     * per insertion. The allocated bits will at least be {@code capacity * bitsPerElement}.
+     *
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the LongMultiHasher to be used
+     * @return a new Bloom filter
+     */
+    public static LongBloomFilter createWithCapacity(long capacity, int bitsPerElement,
+            LongMultiHasherProducer multihasherProducer) {
+        LongBitSet bits = new LongBitSet(capacity * bitsPerElement);
+        return new LongBloomFilter(bits, multihasherProducer, FakeBloomFilter.optimalHashesCount(bits.size(), capacity));
+    }
+
+    /**
+     * Creates a Bloom filter with specified capacity (that is, expected number of insertions),
+     * bits per element, and a {@code LongMultiHasher} (derived from the supplied
+     * {@code LongMultiHasherProducer}) with the specified number of hashes
+     * per insertion. The allocated bits will at least be {@code capacity * bitsPerElement}.
+     *
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the LongMultiHasher to be used
+     * @param hashesCount the number of hashes per insertion
+     * @return a new Bloom filter
+     */
+    public static LongBloomFilter createWithCapacity(long capacity, int bitsPerElement,
+            LongMultiHasherProducer multihasherProducer, int hashesCount) {
+        return new LongBloomFilter(new LongBitSet(capacity * bitsPerElement), multihasherProducer, hashesCount);
+    }
+
+    public int getHashesCount() {
+        return hashesCount;
+    }
+
+    /**
+     * Returns the {@code LongMultiHasher} object used by this Bloom filter.
+     */
+    public LongMultiHasher getMultiHasher() {
+        return multiHasher;
+    }
+
+    /**
+     * Returns the number of bits of this Bloom filter.
+     */
+    public long getBitsCount() {
+        return bits.size();
+    }
+
+    public void put(Object o) {
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        putHash64(hashCode);
+    }
+
+    /**
+     * Puts an element with the specified 64-bit hash.
+     */
+    public void putHash64(long hash) {
+        multiHasher.multihash64(hash, hashes, bits.size());
+        for (long h : hashes) {
+            bits.set(h);
+        }
+        insertions++;
+    }
+
+    public boolean mightContain(Object o) {
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hashCode) {
+        return mightContainHash64(hashCode);
+    }
+
+    /**
+     * Returns whether an element with the specified 64-bit hash might have been put in this Bloom filter.
+     */
+    public boolean mightContainHash64(long hash) {
+        multiHasher.multihash64(hash, hashes, bits.size());
+        for (long h : hashes) {
+            if (!bits.get(h)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double computeExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashesCount * ((double)insertions / bits.size())), hashesCount);
+    }
+
+    public double computeFalsePositiveRate() {
+        return Math.pow((double)bits.cardinality() / bits.size(), hashesCount);
+    }
+}
@@ -0,0 +1,69 @@
+package hashing;
+
+/**
+ * Various {@link LongDataset} implementations.
+ */
+public enum LongDatasets implements LongDataset {
+    /**
+     * A dataset that returns the supplied index.
+     */
+    LONGS() {
+        public long get(int index) { return index; }
+
+        public void fill(int start, long[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = start + i;
+            }
+        }
+    },
+
+    /**
+     * A dataset that returns random longs, generated from the index alone (counter-based):
+     * the ith value is the ith output of a SplitMix64 generator with seed 0 (the same as of
+     * {@code new SplittableRandom(0).nextLong()}).
+     */
+    RND_LONGS() {
+        public long get(int index) { return random(index); }
+
+        public void fill(int start, long[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = random(start + i);
+            }
+        }
+    };
+
+    public abstract long get(int index); //compiler bug workaround
+
+    private static long random(int index) {
+        return LongScramblers.SPLITMIX64.scramble(index * IntDatasets.GOLDEN_GAMMA);
+    }
+
+    /**
+     * Returns a {@code LongDataset} of the 64-bit hashes of the objects of the given dataset: those of
+     * {@link ByteKey#hash64()} for {@code ByteKey}s (e.g. of {@link Datasets#BYTES_XXHASH64}), or else
+     * the (sign extended) {@code hashCode()}, which takes at most 2^32 distinct values. It is named
+     * after the given dataset.
+     */
+    public static LongDataset hashesOf(final Dataset dataset) {
+        return new LongDataset() {
+            public long get(int index) {
+                return hashOf(dataset.create(index));
+            }
+
+            public void fill(int start, long[] out) {
+                for (int i = 0; i < out.length; i++) {
+                    out[i] = hashOf(dataset.create(start + i));
+                }
+            }
+
+            @Override
+            public String toString() {
+                return dataset.toString();
+            }
+        };
+    }
+
+    private static long hashOf(Object o) {
+        return o instanceof ByteKey ? ((ByteKey)o).hash64() : o.hashCode();
+    }
+}
@@ -0,0 +1,34 @@
+package hashing;
+
+/**
+ * A {@code LongMultiHasher} that derives any number of hashes from two 64-bit base hashes, as
+ * {@code h1 + i * h2} (modulo the table size). The base hashes are the 64-bit hash (or the
+ * {@code hashCode()} of an object) scrambled once and twice by a {@code LongScrambler}.
+ */
+class LongDoubleHashing implements LongMultiHasher {
+    private final LongScrambler scrambler;
+
+    LongDoubleHashing(LongScrambler scrambler) {
+        this.scrambler = scrambler;
+    }
+
+    public void multihash(Object o, long[] output, long tableSize) {
+        multihash(o.hashCode(), output, tableSize);
+    }
+
+    public void multihash(int hashCode, long[] output, long tableSize) {
+        multihash64(hashCode, output, tableSize);
+    }
+
+    public void multihash64(long hash, long[] output, long tableSize) {
+        long h1 = scrambler.scramble(hash);
+        long h2 = scrambler.scramble(h1);
+        long current = Modulo.mod(h1, tableSize);
+        long step = Modulo.mod(h2, tableSize);
+        if (step == 0 && tableSize > 1) step = 1;
+        for (int i = 0; i < output.length; i++) {
+            output[i] = current;
+            if ((current += step) >= tableSize) current -= tableSize;
+        }
+    }
+}
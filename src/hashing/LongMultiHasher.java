@@ -0,0 +1,26 @@
+package hashing;
+
+/**
+ * An object representing multiple hash functions over a 64-bit range.
+ */
+public interface LongMultiHasher {
+    /**
+     * Produces {@code output.length} number of hashes for a given object. All
+     * hashes must be in the range {@code 0} (inclusive) to {@code tableSize} (exclusive).
+     */
+    void multihash(Object o, long[] output, long tableSize);
+
+    /**
+     * Produces the hashes of any object with the specified {@code hashCode()}, i.e. the same
+     * hashes as {@link #multihash(Object, long[], long)}, without an object at hand.
+     */
+    void multihash(int hashCode, long[] output, long tableSize);
+
+    /**
+     * Produces the hashes of a 64-bit hash (such as {@link ByteKey#hash64()}, or a {@code long} key).
+     * Unlike hashCodes, which allow at most 2^32 distinct inputs (thus a false positive rate of at
+     * least about n / 2^32 for a Bloom filter of n elements), these can tell apart more elements
+     * than the largest filters hold. A hashCode gives the same hashes as its sign extension.
+     */
+    void multihash64(long hash, long[] output, long tableSize);
+}
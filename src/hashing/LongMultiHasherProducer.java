@@ -0,0 +1,11 @@
+package hashing;
+
+/**
+ * A producer of {@link LongMultiHasher} objects.
+ */
+public interface LongMultiHasherProducer {
+    /**
+     * Produces a {@code LongMultiHasher} capable of hashing any object {@code k} times.
+     */
+    LongMultiHasher produce(int k);
+}
@@ -0,0 +1,33 @@
+package hashing;
+
+/**
+ * Various {@link LongMultiHasherProducer} implementations, all based on double hashing
+ * with a different {@link LongScrambler}.
+ */
+public enum LongMultiHasherProducers implements LongMultiHasherProducer {
+    /**
+     * Double hashing, using {@link LongScramblers#SPLITMIX64} for the base hashes.
+     */
+    SPLITMIX64(LongScramblers.SPLITMIX64),
+
+    /**
+     * Double hashing, using {@link LongScramblers#MURMUR3_FMIX64} for the base hashes.
+     */
+    MURMUR3(LongScramblers.MURMUR3_FMIX64),
+
+    /**
+     * Double hashing, using {@link LongScramblers#XXHASH64_AVALANCHE} for the base hashes.
+     */
+    XXHASH64(LongScramblers.XXHASH64_AVALANCHE)
+    ;
+
+    private final LongMultiHasher instance;
+
+    LongMultiHasherProducers(LongScrambler scrambler) {
+        this.instance = new LongDoubleHashing(scrambler);
+    }
+
+    public LongMultiHasher produce(int k) {
+        return instance;
+    }
+}
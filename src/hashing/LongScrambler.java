@@ -0,0 +1,11 @@
+package hashing;
+
+/**
+ * An object that can scramble (=arbitrarily transform) a 64-bit hash code.
+ */
+public interface LongScrambler {
+    /**
+     * Scrambles a 64-bit hash code in an arbitrary way.
+     */
+    long scramble(long hashCode);
+}
@@ -0,0 +1,58 @@
+package hashing;
+
+/**
+ * Various {@link LongScrambler} implementations.
+ */
+public enum LongScramblers implements LongScrambler {
+    /**
+     * Simply returns the argument.
+     */
+    IDENTITY() {
+        public long scramble(long h) {
+            return h;
+        }
+    },
+
+    /**
+     * The output function of the SplitMix64 generator (also {@code java.util.SplittableRandom}),
+     * applied to the argument after adding the golden-ratio increment.
+     */
+    SPLITMIX64() {
+        public long scramble(long h) {
+            h += 0x9E3779B97F4A7C15L;
+            h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+            h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+            return h ^ (h >>> 31);
+        }
+    },
+
+    /**
+     * Taken from <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">MurmurHash3</a>
+     * ({@code fmix64}).
+     */
+    MURMUR3_FMIX64() {
+        public long scramble(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            return h ^ (h >>> 33);
+        }
+    },
+
+    /**
+     * Taken from <a href="https://github.com/Cyan4973/xxHash">xxHash64</a> (the final avalanche).
+     */
+    XXHASH64_AVALANCHE() {
+        public long scramble(long h) {
+            h ^= h >>> 33;
+            h *= 0xC2B2AE3D27D4EB4FL;
+            h ^= h >>> 29;
+            h *= 0x165667B19E3779F9L;
+            return h ^ (h >>> 32);
+        }
+    }
+    ;
+
+    public abstract long scramble(long h); //compiler bug workaround
+}
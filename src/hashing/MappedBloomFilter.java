@@ -0,0 +1,231 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A Bloom filter whose bits live off-heap, in a memory-mapped file, so it neither burdens the
+ * garbage collector nor needs to be rebuilt when a process restarts: {@link #open(File, boolean) opening}
+ * an existing file maps it and serves lookups right away, paging the bits in on demand.
+ *
+ * <p>The file starts with a {@value #HEADER_BYTES}-byte header, recording the number of bits,
+ * the number of hashes, the number of insertions and the name of the {@link MultiHasherProducers}
+ * constant, followed by the bits, as 64-bit words in native byte order (thus files are not
+ * portable across platforms of different endianness). Operations allocate nothing, thus this
+ * is not thread-safe.
+ */
+public class MappedBloomFilter implements BloomFilter {
+    private static final int MAGIC = 0x424c4f4d; //"BLOM"
+    private static final int HEADER_BYTES = 64;
+    private static final int BITS_OFFSET = 4;
+    private static final int HASHES_OFFSET = 8;
+    private static final int INSERTIONS_OFFSET = 16;
+    private static final int PRODUCER_OFFSET = 24;
+    private static final int MAX_PRODUCER_LENGTH = HEADER_BYTES - PRODUCER_OFFSET - 1;
+    //more hashes per element would only help filters of more than 92 bits per element
+    private static final int MAX_HASHES = 64;
+
+    private final MappedByteBuffer buffer;
+    private final LongBuffer words;
+    private final int bitsCount;
+    private final MultiHasherProducers multihasherProducer;
+    private final MultiHasher multiHasher;
+    private final int hashesCount;
+    private final int[] hashes;
+    private final HashCursor hashCursor;
+    private long insertions;
+
+    private MappedBloomFilter(MappedByteBuffer buffer, int bitsCount, MultiHasherProducers multihasherProducer,
+            int hashesCount, long insertions) {
+        this.buffer = buffer;
+        buffer.position(HEADER_BYTES);
+        this.words = buffer.slice().order(buffer.order()).asLongBuffer();
+        this.bitsCount = bitsCount;
+        this.multihasherProducer = multihasherProducer;
+        this.multiHasher = multihasherProducer.produce(hashesCount);
+        this.hashesCount = hashesCount;
+        this.hashes = new int[hashesCount];
+        this.hashCursor = multiHasher instanceof LazyMultiHasher
+                ? ((LazyMultiHasher)multiHasher).newHashCursor(bitsCount)
+                : null;
+        this.insertions = insertions;
+    }
+
+    /**
+     * Creates (or overwrites) a file holding an empty Bloom filter with specified capacity (that is,
+     * expected number of insertions), bits per element, and a {@code MultiHasher} (derived from the
+     * supplied {@code MultiHasherProducers} constant) with the "optimal" number of hashes per insertion,
+     * and maps it read-write. The allocated bits will at least be {@code capacity * bitsPerElement},
+     * rounded up to a multiple of 64.
+     *
+     * @param file the file to store the Bloom filter
+     * @param capacity the expected number of insertions for the created Bloom filter
+     * @param bitsPerElement the number of bits per insertion to allocate
+     * @param multihasherProducer the producer of the MultiHasher to be used
+     * @return a new Bloom filter, mapped to the specified file
+     */
+    public static MappedBloomFilter create(File file, int capacity, int bitsPerElement,
+            MultiHasherProducers multihasherProducer) throws IOException {
+        int words = Math.max(1, (FakeBloomFilter.bitsFor(capacity, bitsPerElement) + Long.SIZE - 1) / Long.SIZE);
+        int bitsCount = words * Long.SIZE;
+        int hashesCount = FakeBloomFilter.optimalHashesCount(bitsCount, capacity);
+        byte[] producer = multihasherProducer.name().getBytes("US-ASCII");
+        Preconditions.checkArgument(producer.length <= MAX_PRODUCER_LENGTH, "Too long name: %s", multihasherProducer);
+        Preconditions.checkArgument(hashesCount <= MAX_HASHES, "Too many bits per element: %s", bitsPerElement);
+
+        MappedByteBuffer buffer = map(file, "rw", FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long)words * 8);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(BITS_OFFSET, bitsCount);
+        buffer.putInt(HASHES_OFFSET, hashesCount);
+        buffer.putLong(INSERTIONS_OFFSET, 0L);
+        buffer.put(PRODUCER_OFFSET, (byte)producer.length);
+        for (int i = 0; i < producer.length; i++) {
+            buffer.put(PRODUCER_OFFSET + 1 + i, producer[i]);
+        }
+        return new MappedBloomFilter(buffer, bitsCount, multihasherProducer, hashesCount, 0L);
+    }
+
+    /**
+     * Maps a file previously written by {@link #create(File, int, int, MultiHasherProducers) create}.
+     * Nothing but the header is read; the bits are paged in as lookups touch them.
+     *
+     * @param file the file that stores the Bloom filter
+     * @param readOnly whether to map the file read-only, in which case {@code put} throws
+     * {@code ReadOnlyBufferException}
+     * @return the Bloom filter stored in the specified file
+     * @throws IOException if the file cannot be mapped, or does not contain a Bloom filter
+     */
+    public static MappedBloomFilter open(File file, boolean readOnly) throws IOException {
+        MappedByteBuffer buffer = readOnly
+                ? map(file, "r", FileChannel.MapMode.READ_ONLY, file.length())
+                : map(file, "rw", FileChannel.MapMode.READ_WRITE, file.length());
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a Bloom filter file: " + file);
+        }
+        int bitsCount = buffer.getInt(BITS_OFFSET);
+        if (bitsCount <= 0 || buffer.capacity() != HEADER_BYTES + (long)bitsCount / Byte.SIZE) {
+            throw new IOException("Corrupt Bloom filter file: " + file);
+        }
+        int producerLength = buffer.get(PRODUCER_OFFSET) & 0xFF;
+        if (producerLength > MAX_PRODUCER_LENGTH) {
+            throw new IOException("Corrupt Bloom filter file: " + file);
+        }
+        byte[] producer = new byte[producerLength];
+        for (int i = 0; i < producer.length; i++) {
+            producer[i] = buffer.get(PRODUCER_OFFSET + 1 + i);
+        }
+        MultiHasherProducers multihasherProducer;
+        try {
+            multihasherProducer = MultiHasherProducers.valueOf(new String(producer, "US-ASCII"));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown multihasher producer in: " + file);
+        }
+        int hashesCount = buffer.getInt(HASHES_OFFSET);
+        long insertions = buffer.getLong(INSERTIONS_OFFSET);
+        if (hashesCount < 1 || hashesCount > MAX_HASHES || insertions < 0) {
+            throw new IOException("Corrupt Bloom filter file: " + file);
+        }
+        return new MappedBloomFilter(buffer, bitsCount, multihasherProducer, hashesCount, insertions);
+    }
+
+    private static MappedByteBuffer map(File file, String mode, FileChannel.MapMode mapMode, long size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, mode);
+        try {
+            if (mapMode == FileChannel.MapMode.READ_WRITE) {
+                raf.setLength(size);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(mapMode, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer;
+        } finally {
+            raf.close(); //the mapping remains valid
+        }
+    }
+
+    public int getHashesCount() {
+        return hashesCount;
+    }
+
+    /**
+     * Returns the {@code MultiHasherProducers} constant that produced the {@code MultiHasher} of this Bloom filter.
+     */
+    public MultiHasherProducers getMultiHasherProducer() {
+        return multihasherProducer;
+    }
+
+    /**
+     * Writes any changes of this Bloom filter to the file.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    private void set(int bit) {
+        int index = bit >>> 6;
+        words.put(index, words.get(index) | (1L << bit));
+    }
+
+    private boolean get(int bit) {
+        return (words.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    public void put(Object o) {
+        putHash(o.hashCode());
+    }
+
+    public void putHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                set(hashCursor.next());
+            }
+        } else {
+            multiHasher.multihash(hashCode, hashes, bitsCount);
+            for (int hash : hashes) {
+                set(hash);
+            }
+        }
+        buffer.putLong(INSERTIONS_OFFSET, ++insertions);
+    }
+
+    public boolean mightContain(Object o) {
+        return mightContainHash(o.hashCode());
+    }
+
+    public boolean mightContainHash(int hashCode) {
+        if (hashCursor != null) {
+            hashCursor.reset(hashCode);
+            for (int i = 0; i < hashesCount; i++) {
+                if (!get(hashCursor.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        multiHasher.multihash(hashCode, hashes, bitsCount);
+        for (int hash : hashes) {
+            if (!get(hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double computeExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashesCount * ((double)insertions / bitsCount)), hashesCount);
+    }
+
+    public double computeFalsePositiveRate() {
+        long ones = 0;
+        for (int i = 0; i < words.limit(); i++) {
+            ones += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double)ones / bitsCount, hashesCount);
+    }
+}
@@ -0,0 +1,189 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A {@link Dataset} that replays the keys stored in a file, e.g. a dump of production keys, whose ith
+ * object is the ith key of the file. The file is memory-mapped (in segments of 1GB, so it may be
+ * larger than both the address range of a single mapping and the physical memory) and never loaded
+ * onto the heap: keys are only copied out when requested.
+ *
+ * <p>The offsets of the keys are indexed lazily and sparsely: the offset of every
+ * {@value #INDEX_STRIDE}th key is recorded the first time a key past it is requested, and the keys in
+ * between are skipped over. Consecutive requests from the same thread continue from the previous key.
+ * Requesting a key beyond the last one of the file throws {@code IndexOutOfBoundsException}.
+ * This class is thread-safe.
+ */
+public class MappedFileDataset implements Dataset {
+    /**
+     * The layout of the keys in a file.
+     */
+    public enum Format {
+        /**
+         * Keys separated by {@code '\n'} (a {@code '\r'} before it is dropped); the last one
+         * may or may not be followed by {@code '\n'}.
+         */
+        NEWLINE,
+
+        /**
+         * Each key is preceded by its length in bytes, as a 32-bit big-endian integer.
+         */
+        LENGTH_PREFIXED
+    }
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    private static final int INDEX_STRIDE = 64;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final Format format;
+    private final ByteHasher hasher;
+    private final long length;
+    private final MappedByteBuffer[] segments;
+
+    //the offsets of keys 0, INDEX_STRIDE, 2 * INDEX_STRIDE, ... found so far
+    private long[] checkpoints = new long[16];
+    private int checkpointsCount = 1;
+    //the number of keys, once the index has reached the end of the file, otherwise -1
+    private int size = -1;
+
+    //the index of the last key requested by each thread, and the offset of the key after it
+    private final ThreadLocal<long[]> cursor = new ThreadLocal<long[]>() {
+        @Override protected long[] initialValue() {
+            return new long[] { -1, 0 };
+        }
+    };
+
+    /**
+     * Maps a key file, whose keys are served as {@code String}s (decoded as UTF-8), so that they
+     * are hashed by {@code String.hashCode()}.
+     */
+    public MappedFileDataset(File file, Format format) throws IOException {
+        this(file, format, null);
+    }
+
+    /**
+     * Maps a key file, whose keys are served as {@link ByteKey}s hashed by the given {@code ByteHasher},
+     * or as {@code String}s if that is {@code null}.
+     */
+    public MappedFileDataset(File file, Format format, ByteHasher hasher) throws IOException {
+        this.file = file;
+        this.format = format;
+        this.hasher = hasher;
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            this.length = raf.length();
+            this.segments = new MappedByteBuffer[(int)((length + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long)i << SEGMENT_BITS;
+                segments[i] = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(length - start, 1L << SEGMENT_BITS));
+            }
+        } finally {
+            raf.close(); //the mappings remain valid
+        }
+    }
+
+    public Object create(int index) {
+        Preconditions.checkArgument(index >= 0, "Negative index: %s", index);
+        long[] cursor = this.cursor.get();
+        long offset;
+        if (cursor[0] == index - 1) {
+            offset = cursor[1];
+        } else {
+            offset = checkpoint(index / INDEX_STRIDE);
+            for (int i = index - index % INDEX_STRIDE; i < index && offset < length; i++) {
+                offset = next(offset);
+            }
+        }
+        if (offset >= length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", keys in " + file + ": " + size());
+        }
+        long end = recordEnd(offset);
+        long keyStart = format == Format.LENGTH_PREFIXED ? offset + 4 : offset;
+        long keyEnd = format == Format.NEWLINE && end > keyStart && byteAt(end - 1) == '\r' ? end - 1 : end;
+        byte[] bytes = new byte[(int)(keyEnd - keyStart)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = byteAt(keyStart + i);
+        }
+        cursor[0] = index;
+        cursor[1] = format == Format.NEWLINE ? end + 1 : end;
+        return hasher != null ? new ByteKey(bytes, 0, bytes.length, hasher) : new String(bytes, UTF8);
+    }
+
+    /**
+     * Returns the number of keys in the file, indexing all of it (if not already done).
+     */
+    public synchronized int size() {
+        checkpoint(Integer.MAX_VALUE);
+        return size;
+    }
+
+    /**
+     * Returns the offset of key {@code j * INDEX_STRIDE}, or the length of the file if there is
+     * no such key.
+     */
+    private synchronized long checkpoint(int j) {
+        while (checkpointsCount <= j && size < 0) {
+            long offset = checkpoints[checkpointsCount - 1];
+            int skipped = 0;
+            for (; skipped < INDEX_STRIDE && offset < length; skipped++) {
+                offset = next(offset);
+            }
+            if (offset >= length) {
+                size = (checkpointsCount - 1) * INDEX_STRIDE + skipped;
+                break;
+            }
+            if (checkpointsCount == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, checkpointsCount * 2);
+            }
+            checkpoints[checkpointsCount++] = offset;
+        }
+        return j < checkpointsCount ? checkpoints[j] : length;
+    }
+
+    private byte byteAt(long offset) {
+        return segments[(int)(offset >>> SEGMENT_BITS)].get((int)(offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Returns the offset right after the key at the given offset: its separator (or the end of the
+     * file), or the prefix of the next key.
+     */
+    private long recordEnd(long offset) {
+        if (format == Format.LENGTH_PREFIXED) {
+            int keyLength = (byteAt(offset) & 0xFF) << 24 | (byteAt(offset + 1) & 0xFF) << 16
+                    | (byteAt(offset + 2) & 0xFF) << 8 | (byteAt(offset + 3) & 0xFF);
+            return offset + 4 + keyLength;
+        }
+        while (offset < length && byteAt(offset) != '\n') {
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the offset of the key after the one at the given offset.
+     */
+    private long next(long offset) {
+        long end = recordEnd(offset);
+        return format == Format.NEWLINE ? end + 1 : end;
+    }
+
+    /**
+     * Returns the name of the file, cut to 16 characters to fit the dataset columns of the benchmarks.
+     */
+    @Override
+    public String toString() {
+        String name = file.getName();
+        return name.length() <= 16 ? name : name.substring(0, 16);
+    }
+}
@@ -13,4 +13,15 @@ class Modulo {
     static int mod(int i, int M) {
         return (i %= M) >= 0 ? i : i + M;
     }
+
+    /**
+     * Maps via modulo arithmetic an arbitrary long i to a long in [0...M).
+     *
+     * @param i an arbitrary long
+     * @param M a positive long (the modulo)
+     * @return {@code i % M}, if i is positive, or {@code (i % M) + i} otherwise
+     */
+    static long mod(long i, long M) {
+        return (i %= M) >= 0 ? i : i + M;
+    }
 }
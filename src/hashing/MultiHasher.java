@@ -9,4 +9,10 @@ public interface MultiHasher {
      * hashes must be in the range {@code 0} (inclusive) to {@code tableSize} (exclusive).
      */
     void multihash(Object o, int[] output, int tableSize);
+
+    /**
+     * Produces the hashes of any object with the specified {@code hashCode()}, i.e. the same
+     * hashes as {@link #multihash(Object, int[], int)}, without an object at hand.
+     */
+    void multihash(int hashCode, int[] output, int tableSize);
 }
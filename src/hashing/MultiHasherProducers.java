@@ -9,18 +9,22 @@ import java.util.Random;
 public enum MultiHasherProducers implements MultiHasherProducer {
     /**
      * A {@code MultiHasherProducer} that creates {@code MultiHasher}s that
-     * seeds a {@link Random} object with the {@code hashCode()} of an object, 
-     * and then generates as many random integers as required.
+     * seed a {@link Random} generator with the {@code hashCode()} of an object,
+     * and then generate as many random integers as required. (The generator is
+     * inlined, so no {@code Random} object, nor its synchronization, is involved.)
      */
     RANDOM() {
         public MultiHasher produce(int k) {
             return new MultiHasher() {
-                private final Random random = new Random(0);
-
                 public void multihash(Object o, int[] output, int tableSize) {
-                    random.setSeed(o.hashCode());
+                    multihash(o.hashCode(), output, tableSize);
+                }
+
+                public void multihash(int hashCode, int[] output, int tableSize) {
+                    long seed = seed(hashCode);
                     for (int i = 0; i < output.length; i++) {
-                        output[i] = Modulo.mod(random.nextInt(), tableSize);
+                        seed = nextSeed(seed);
+                        output[i] = Modulo.mod(nextInt(seed), tableSize);
                     }
                 }
             };
@@ -47,12 +51,15 @@ public enum MultiHasherProducers implements MultiHasherProducer {
     RANDOM_JENKINS() {
         public MultiHasher produce(int k) {
             return new MultiHasher() {
-                private final Random random = new Random(0);
-
                 public void multihash(Object o, int[] output, int tableSize) {
-                    random.setSeed(o.hashCode());
+                    multihash(o.hashCode(), output, tableSize);
+                }
+
+                public void multihash(int hashCode, int[] output, int tableSize) {
+                    long seed = seed(hashCode);
                     for (int i = 0; i < output.length; i++) {
-                        output[i] = Modulo.mod(Scramblers.JENKINS.scramble(random.nextInt()), tableSize);
+                        seed = nextSeed(seed);
+                        output[i] = Modulo.mod(Scramblers.JENKINS.scramble(nextInt(seed)), tableSize);
                     }
                 }
             };
@@ -68,7 +75,10 @@ public enum MultiHasherProducers implements MultiHasherProducer {
     RANDOM_MANES() {
         private final MultiHasher instance = new MultiHasher() {
             public void multihash(Object o, int[] output, int tableSize) {
-                int hashCode = o.hashCode();
+                multihash(o.hashCode(), output, tableSize);
+            }
+
+            public void multihash(int hashCode, int[] output, int tableSize) {
                 int probe = 1 + Math.abs(hashCode % tableSize);
 
                 int h = Scramblers.CONCURRENTHASHMAP.scramble(hashCode);
@@ -77,10 +87,48 @@ public enum MultiHasherProducers implements MultiHasherProducer {
                 }
             }
         };
+        public MultiHasher produce(int k) {
+            return instance;
+        }
+    },
+
+    /**
+     * A {@code MultiHasherProducer} of {@link LazyMultiHasher}s that derive all hashes from
+     * two base hashes, the {@code hashCode()} scrambled by {@link Scramblers#WANG} and by
+     * {@link Scramblers#JENKINS}, as {@code h1 + i * h2} (Kirsch-Mitzenmacher).
+     */
+    KIRSCH_MITZENMACHER() {
+        private final MultiHasher instance = new KirschMitzenmacher(Scramblers.WANG, Scramblers.JENKINS);
+
         public MultiHasher produce(int k) {
             return instance;
         }
     }
 
     ;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    /**
+     * Returns the initial seed of {@link Random#setSeed(long)}.
+     */
+    private static long seed(int hashCode) {
+        return (hashCode ^ MULTIPLIER) & MASK;
+    }
+
+    /**
+     * Returns the seed following the specified one, as in {@link Random#next(int)}.
+     */
+    private static long nextSeed(long seed) {
+        return (seed * MULTIPLIER + ADDEND) & MASK;
+    }
+
+    /**
+     * Returns the integer that {@link Random#nextInt()} derives from the specified seed.
+     */
+    private static int nextInt(long seed) {
+        return (int)(seed >>> 16);
+    }
 }
@@ -0,0 +1,196 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * An open-addressing hashtable mapping {@code int} keys to {@code int} values, stored in parallel
+ * primitive arrays. The probing sequence of each key is defined by a {@code Prober} (the key itself
+ * plays the role of the hashCode), removals leave tombstones behind, and the table doubles
+ * its (power of two) size whenever the occupied positions, including tombstones, would exceed
+ * the configured load factor.
+ */
+public class OpenAddressingIntMap implements IntMap {
+    private static final byte FREE = 0;
+    private static final byte FULL = 1;
+    private static final byte REMOVED = 2;
+
+    private final Prober prober;
+    private final double loadFactor;
+    private int[] keys;
+    private int[] values;
+    private byte[] states;
+    private ProbeCursor cursor;
+    private int threshold;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Constructs an OpenAddressingIntMap with the given initial (power of two) table size,
+     * {@code Prober} and load factor.
+     *
+     * @param tableSize the initial (power of two) table size of the hashtable
+     * @param prober a prober, which defines the probing sequence for each key
+     * @param loadFactor the maximum ratio of occupied (or removed) positions before the
+     * table is resized, from {@code 0.0} (exclusive) to {@code 1.0} (exclusive)
+     */
+    public OpenAddressingIntMap(int tableSize, Prober prober, double loadFactor) {
+        Preconditions.checkArgument(tableSize > 0 && (tableSize & (tableSize - 1)) == 0,
+                "Table size must be a power of two");
+        Preconditions.checkArgument(loadFactor > 0.0 && loadFactor < 1.0, "Load factor must be in (0, 1)");
+        this.prober = prober;
+        this.loadFactor = loadFactor;
+        allocate(tableSize);
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        states = new byte[tableSize];
+        cursor = prober.newProbeCursor(tableSize);
+        //keep at least one free position, so that every probing sequence terminates
+        threshold = Math.min(tableSize - 1, (int)(tableSize * loadFactor));
+        tombstones = 0;
+    }
+
+    /**
+     * Associates the specified value with the specified key, replacing any previous value.
+     *
+     * @return {@code true} if the key was not already present
+     */
+    public boolean put(int key, int value) {
+        cursor.reset(key);
+        int firstRemoved = -1;
+        for (int i = 0; i < states.length; i++) {
+            int position = cursor.next();
+            byte state = states[position];
+            if (state == FREE) {
+                if (firstRemoved >= 0) {
+                    //reuse the first tombstone of the sequence, the key is certainly absent
+                    position = firstRemoved;
+                    tombstones--;
+                } else if (size + tombstones == threshold) {
+                    rehash(size + 1 > threshold ? states.length << 1 : states.length);
+                    return put(key, value);
+                }
+                keys[position] = key;
+                values[position] = value;
+                states[position] = FULL;
+                size++;
+                return true;
+            }
+            if (state == FULL) {
+                if (keys[position] == key) {
+                    values[position] = value;
+                    return false;
+                }
+            } else if (firstRemoved < 0) {
+                firstRemoved = position;
+            }
+        }
+        throw new AssertionError("probing sequence did not reach a free position");
+    }
+
+    /**
+     * Returns the value associated with the specified key, or {@code defaultValue} if
+     * there is no such key.
+     */
+    public int get(int key, int defaultValue) {
+        int position = find(key);
+        return position >= 0 ? values[position] : defaultValue;
+    }
+
+    /**
+     * Returns whether this map contains the specified key.
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Removes the specified key (and its associated value) from this map, leaving a tombstone
+     * in its position.
+     *
+     * @return {@code true} if the key was present
+     */
+    public boolean remove(int key) {
+        int position = find(key);
+        if (position < 0) {
+            return false;
+        }
+        states[position] = REMOVED;
+        size--;
+        tombstones++;
+        return true;
+    }
+
+    private int find(int key) {
+        cursor.reset(key);
+        for (int i = 0; i < states.length; i++) {
+            int position = cursor.next();
+            byte state = states[position];
+            if (state == FREE) {
+                return -1;
+            }
+            if (state == FULL && keys[position] == key) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    public int countProbes(int key) {
+        cursor.reset(key);
+        for (int i = 0; i < states.length; i++) {
+            int position = cursor.next();
+            byte state = states[position];
+            if (state == FREE || (state == FULL && keys[position] == key)) {
+                return i + 1;
+            }
+        }
+        return states.length;
+    }
+
+    private void rehash(int newTableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        byte[] oldStates = states;
+        allocate(newTableSize);
+        size = 0;
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == FULL) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries (and tombstones) from this map, keeping its current table size.
+     */
+    public void clear() {
+        Arrays.fill(states, FREE);
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Returns the number of keys in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the current table size of this map.
+     */
+    public int getTableSize() {
+        return states.length;
+    }
+
+    /**
+     * Returns the prober used by this map.
+     */
+    public Prober getProber() {
+        return prober;
+    }
+}
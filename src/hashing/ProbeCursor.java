@@ -0,0 +1,20 @@
+package hashing;
+
+/**
+ * A reusable, allocation-free cursor over the probing sequences of a {@link Prober},
+ * bound to a specific table size. A cursor is not thread-safe; each hashtable
+ * (or each thread) should use its own.
+ */
+public interface ProbeCursor {
+    /**
+     * Restarts this cursor at the beginning of the probing sequence of the specified hashCode.
+     */
+    void reset(int hashCode);
+
+    /**
+     * Returns the next table position of the current probing sequence. Within
+     * {@code tableSize} calls after a {@link #reset(int)}, each table position is returned
+     * <em>once</em>.
+     */
+    int next();
+}
@@ -1,20 +1,18 @@
 package hashing;
 
-import java.util.Iterator;
-
 /**
  * A prober defines a probing sequence for an open-addressing hashtable.
  * @author Jim
  */
 public interface Prober {
     /**
-     * Returns an iterator that visits each table position <em>once</em>, potentially
-     * (but not necessarily) based on the specified hashCode.
+     * Returns a cursor that, after each {@link ProbeCursor#reset(int) reset} to a hashCode,
+     * visits each table position <em>once</em>, potentially (but not necessarily) based on
+     * that hashCode.
      *
-     * @param hashCode the hashCode (on which the probing sequence might depend)
-     * @param tableSize the table size - the returned iterator must yield all numbers in the
+     * @param tableSize the table size - the returned cursor must yield all numbers in the
      * range {@code 0} (inclusive) and {@code tableSize} (exclusive)
-     * @return the probing sequence
+     * @return a reusable cursor over the probing sequences of this prober
      */
-    Iterator<Integer> probeSequence(int hashCode, int tableSize);
+    ProbeCursor newProbeCursor(int tableSize);
 }
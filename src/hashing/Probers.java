@@ -1,8 +1,5 @@
 package hashing;
 
-import com.google.common.collect.AbstractIterator;
-import java.util.Iterator;
-
 /**
  * Various {@link Prober} implementations.
  */
@@ -16,17 +13,21 @@ public enum Probers implements Prober {
      * Quadratic probing.
      */
     QUADRATIC(new Prober() {
-        public Iterator<Integer> probeSequence(final int hashCode, final int tableSize) {
-            return new AbstractIterator<Integer>() {
-                int i = Modulo.mod(hashCode, tableSize);
-                int j = 0;
-                protected Integer computeNext() {
-                    try {
-                        return i;
-                    } finally {
-                        j = (j + 1) % tableSize;
-                        i = (i + j) % tableSize;
-                    }
+        public ProbeCursor newProbeCursor(final int tableSize) {
+            return new ProbeCursor() {
+                int i;
+                int j;
+
+                public void reset(int hashCode) {
+                    i = Modulo.mod(hashCode, tableSize);
+                    j = 0;
+                }
+
+                public int next() {
+                    int position = i;
+                    if (++j == tableSize) j = 0;
+                    if ((i += j) >= tableSize) i -= tableSize;
+                    return position;
                 }
             };
         }
@@ -69,8 +70,8 @@ public enum Probers implements Prober {
         this.delegate = delegate;
     }
 
-    public Iterator<Integer> probeSequence(int hashCode, int tableSize) {
-        return delegate.probeSequence(hashCode, tableSize);
+    public ProbeCursor newProbeCursor(int tableSize) {
+        return delegate.newProbeCursor(tableSize);
     }
 }
 
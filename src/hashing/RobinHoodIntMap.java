@@ -0,0 +1,220 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * An open-addressing hashtable mapping {@code int} keys to {@code int} values, which places keys by
+ * Robin Hood hashing: the probing sequence of each key is defined by a {@code Prober}, as in
+ * {@link OpenAddressingIntMap}, but an inserted key takes the position of any key that is closer to
+ * the start of its own sequence (its probe distance is smaller), which then moves on along its sequence.
+ * This evens out probe distances, cutting the tail of successful lookups, and lets an unsuccessful
+ * lookup stop as soon as it meets a key closer to home than the sought key would be.
+ *
+ * <p>With {@link Probers#LINEAR} probing, removals shift the following keys of the cluster one position
+ * back (backward-shift deletion), leaving no tombstones. With other probers, the previous position in
+ * the sequence of a key is not the previous table position, so removals leave tombstones behind,
+ * which keep the probe distance of the removed key so that lookups can still stop early.
+ * The table doubles its (power of two) size whenever the occupied positions, including tombstones,
+ * would exceed the configured load factor.
+ */
+public class RobinHoodIntMap implements IntMap {
+    private static final byte FREE = 0;
+    private static final byte FULL = 1;
+    private static final byte REMOVED = 2;
+
+    private final Prober prober;
+    private final double loadFactor;
+    private final boolean backwardShift;
+    private int[] keys;
+    private int[] values;
+    private int[] distances;
+    private byte[] states;
+    private ProbeCursor cursor;
+    private int threshold;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Constructs a RobinHoodIntMap with the given initial (power of two) table size,
+     * {@code Prober} and load factor.
+     *
+     * @param tableSize the initial (power of two) table size of the hashtable
+     * @param prober a prober, which defines the probing sequence for each key
+     * @param loadFactor the maximum ratio of occupied (or removed) positions before the
+     * table is resized, from {@code 0.0} (exclusive) to {@code 1.0} (exclusive)
+     */
+    public RobinHoodIntMap(int tableSize, Prober prober, double loadFactor) {
+        Preconditions.checkArgument(tableSize > 0 && (tableSize & (tableSize - 1)) == 0,
+                "Table size must be a power of two");
+        Preconditions.checkArgument(loadFactor > 0.0 && loadFactor < 1.0, "Load factor must be in (0, 1)");
+        this.prober = prober;
+        this.loadFactor = loadFactor;
+        this.backwardShift = prober == Probers.LINEAR;
+        allocate(tableSize);
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        distances = new int[tableSize];
+        states = new byte[tableSize];
+        cursor = prober.newProbeCursor(tableSize);
+        //keep at least one free position, so that every probing sequence terminates
+        threshold = Math.min(tableSize - 1, (int)(tableSize * loadFactor));
+        tombstones = 0;
+    }
+
+    public boolean put(int key, int value) {
+        int position = find(key);
+        if (position >= 0) {
+            values[position] = value;
+            return false;
+        }
+        if (size + tombstones == threshold) {
+            rehash(size + 1 > threshold ? states.length << 1 : states.length);
+        }
+        insert(key, value);
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts an absent key, displacing keys with smaller probe distances along the way.
+     */
+    private void insert(int key, int value) {
+        cursor.reset(key);
+        for (int distance = 0; distance < states.length; distance++) {
+            int position = cursor.next();
+            byte state = states[position];
+            //a tombstone can be reused if that makes no lookup stop earlier than before
+            if (state == FREE || (state == REMOVED && distances[position] <= distance)) {
+                if (state == REMOVED) {
+                    tombstones--;
+                }
+                keys[position] = key;
+                values[position] = value;
+                distances[position] = distance;
+                states[position] = FULL;
+                return;
+            }
+            if (state == FULL && distances[position] < distance) {
+                int displacedKey = keys[position];
+                int displacedValue = values[position];
+                int displacedDistance = distances[position];
+                keys[position] = key;
+                values[position] = value;
+                distances[position] = distance;
+
+                key = displacedKey;
+                value = displacedValue;
+                distance = displacedDistance;
+                //resume the probing sequence of the displaced key, right after its old position
+                cursor.reset(key);
+                for (int i = 0; i <= distance; i++) {
+                    cursor.next();
+                }
+            }
+        }
+        throw new AssertionError("probing sequence did not reach a free position");
+    }
+
+    public int get(int key, int defaultValue) {
+        int position = find(key);
+        return position >= 0 ? values[position] : defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * {@inheritDoc} With linear probing, the following keys of the cluster are shifted back,
+     * otherwise a tombstone is left in the position of the key.
+     */
+    public boolean remove(int key) {
+        int position = find(key);
+        if (position < 0) {
+            return false;
+        }
+        size--;
+        if (!backwardShift) {
+            states[position] = REMOVED;
+            tombstones++;
+            return true;
+        }
+        int mask = states.length - 1;
+        for (int next = (position + 1) & mask; states[next] == FULL && distances[next] > 0; next = (next + 1) & mask) {
+            keys[position] = keys[next];
+            values[position] = values[next];
+            distances[position] = distances[next] - 1;
+            position = next;
+        }
+        states[position] = FREE;
+        return true;
+    }
+
+    private int find(int key) {
+        cursor.reset(key);
+        for (int distance = 0; distance < states.length; distance++) {
+            int position = cursor.next();
+            byte state = states[position];
+            //had the key been here, it would have taken the position of a key closer to home
+            if (state == FREE || distances[position] < distance) {
+                return -1;
+            }
+            if (state == FULL && keys[position] == key) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    public int countProbes(int key) {
+        cursor.reset(key);
+        for (int distance = 0; distance < states.length; distance++) {
+            int position = cursor.next();
+            byte state = states[position];
+            if (state == FREE || distances[position] < distance || (state == FULL && keys[position] == key)) {
+                return distance + 1;
+            }
+        }
+        return states.length;
+    }
+
+    private void rehash(int newTableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        byte[] oldStates = states;
+        allocate(newTableSize);
+        for (int i = 0; i < oldStates.length; i++) {
+            if (oldStates[i] == FULL) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries (and tombstones) from this map, keeping its current table size.
+     */
+    public void clear() {
+        Arrays.fill(states, FREE);
+        size = 0;
+        tombstones = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTableSize() {
+        return states.length;
+    }
+
+    /**
+     * Returns the prober used by this map.
+     */
+    public Prober getProber() {
+        return prober;
+    }
+}
@@ -0,0 +1,40 @@
+package hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that spreads concurrent increments over several cells, each in its own cache line,
+ * so that threads incrementing it rarely contend on the same variable (in the spirit of
+ * {@code java.util.concurrent.atomic.LongAdder}). Reading the count sums all cells.
+ */
+class StripedCounter {
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedCounter() {
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        this.cells = new AtomicLongArray(stripes * LONGS_PER_CACHE_LINE);
+        this.mask = stripes - 1;
+    }
+
+    /**
+     * Increments this counter by one.
+     */
+    void increment() {
+        int stripe = Scramblers.WANG.scramble((int)Thread.currentThread().getId()) & mask;
+        cells.getAndIncrement(stripe * LONGS_PER_CACHE_LINE);
+    }
+
+    /**
+     * Returns the current count. This is not an atomic snapshot if increments happen concurrently.
+     */
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += LONGS_PER_CACHE_LINE) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,260 @@
+package hashing;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * An open-addressing hashtable mapping {@code int} keys to {@code int} values, which probes groups of
+ * 16 positions at once, in the style of Swiss tables: besides the keys and values, it keeps a control
+ * byte per position, either marking it as empty or removed, or holding 7 bits of the (scrambled) key.
+ * The control bytes of a group are compared against those bits 8 at a time, within {@code long}s
+ * (SWAR), so that only positions with matching bits have their keys compared.
+ *
+ * <p>Each key is scrambled by a {@code Scrambler}; the low-end 7 bits of the result are stored in the
+ * control byte, and the rest select the first group. Groups are probed quadratically (by triangular
+ * numbers), which visits all groups of the (power of two) table. A lookup stops at the first group
+ * that has an empty position. Removals leave a tombstone, unless the group of the removed key has an
+ * empty position (then no lookup ever went past that group). The table doubles its (power of two)
+ * size whenever the occupied positions, including tombstones, would exceed the configured load factor.
+ */
+public class SwissIntMap implements IntMap {
+    private static final int GROUP_SIZE = 16;
+    private static final int WORDS_PER_GROUP = GROUP_SIZE / 8;
+    private static final byte EMPTY = (byte)0x80;
+    private static final byte REMOVED = (byte)0xFE;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final Scrambler scrambler;
+    private final double loadFactor;
+    private int[] keys;
+    private int[] values;
+    private long[] control;
+    private int groupMask;
+    private int threshold;
+    private int size;
+    private int tombstones;
+
+    /**
+     * Constructs a SwissIntMap with the given initial (power of two) table size, which is
+     * rounded up to at least 16, {@code Scrambler} and load factor.
+     *
+     * @param tableSize the initial (power of two) table size of the hashtable
+     * @param scrambler the scrambler function to use, to scramble keys before selecting a group
+     * @param loadFactor the maximum ratio of occupied (or removed) positions before the
+     * table is resized, from {@code 0.0} (exclusive) to {@code 1.0} (exclusive)
+     */
+    public SwissIntMap(int tableSize, Scrambler scrambler, double loadFactor) {
+        Preconditions.checkArgument(tableSize > 0 && (tableSize & (tableSize - 1)) == 0,
+                "Table size must be a power of two");
+        Preconditions.checkArgument(loadFactor > 0.0 && loadFactor < 1.0, "Load factor must be in (0, 1)");
+        this.scrambler = scrambler;
+        this.loadFactor = loadFactor;
+        allocate(Math.max(GROUP_SIZE, tableSize));
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+        control = new long[tableSize / 8];
+        Arrays.fill(control, HIGH_BITS); //every byte EMPTY
+        groupMask = tableSize / GROUP_SIZE - 1;
+        //keep at least one empty position, so that every probing sequence terminates
+        threshold = Math.min(tableSize - 1, (int)(tableSize * loadFactor));
+        tombstones = 0;
+    }
+
+    /**
+     * Returns, in the high bit of each byte, whether the byte equals {@code b}. Bytes above one that
+     * equals {@code b} may be falsely reported too (when their value is {@code b ^ 1}), but only if
+     * {@code b} and the byte are not empty or removed markers.
+     */
+    private static long matchByte(long word, int b) {
+        long x = word ^ (b * LOW_BITS);
+        return (x - LOW_BITS) & ~x & HIGH_BITS;
+    }
+
+    private static long matchEmpty(long word) {
+        //only EMPTY has both its highest bit set and its second lowest bit clear
+        return word & (~word << 6) & HIGH_BITS;
+    }
+
+    private static long matchEmptyOrRemoved(long word) {
+        return word & HIGH_BITS;
+    }
+
+    private static int slotOf(int group, int word, long match) {
+        return group * GROUP_SIZE + word * 8 + (Long.numberOfTrailingZeros(match) >>> 3);
+    }
+
+    private void setControl(int position, byte b) {
+        int shift = (position & 7) << 3;
+        int word = position >>> 3;
+        control[word] = (control[word] & ~(0xFFL << shift)) | ((b & 0xFFL) << shift);
+    }
+
+    private boolean groupHasEmpty(int group) {
+        for (int w = 0; w < WORDS_PER_GROUP; w++) {
+            if (matchEmpty(control[group * WORDS_PER_GROUP + w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean put(int key, int value) {
+        int position = find(key);
+        if (position >= 0) {
+            values[position] = value;
+            return false;
+        }
+        if (size + tombstones == threshold) {
+            rehash(size + 1 > threshold ? keys.length << 1 : keys.length);
+        }
+        insert(key, value);
+        size++;
+        return true;
+    }
+
+    /**
+     * Inserts an absent key at the first empty or removed position of its probing sequence.
+     */
+    private void insert(int key, int value) {
+        int hash = scrambler.scramble(key);
+        int group = (hash >>> 7) & groupMask;
+        for (int probe = 1; ; probe++) {
+            for (int w = 0; w < WORDS_PER_GROUP; w++) {
+                long match = matchEmptyOrRemoved(control[group * WORDS_PER_GROUP + w]);
+                if (match != 0) {
+                    int position = slotOf(group, w, match);
+                    if (byteAt(position) == REMOVED) {
+                        tombstones--;
+                    }
+                    keys[position] = key;
+                    values[position] = value;
+                    setControl(position, (byte)(hash & 0x7F));
+                    return;
+                }
+            }
+            group = (group + probe) & groupMask;
+        }
+    }
+
+    private byte byteAt(int position) {
+        return (byte)(control[position >>> 3] >>> ((position & 7) << 3));
+    }
+
+    public int get(int key, int defaultValue) {
+        int position = find(key);
+        return position >= 0 ? values[position] : defaultValue;
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * {@inheritDoc} This leaves a tombstone in the position of the key, unless its group has an
+     * empty position.
+     */
+    public boolean remove(int key) {
+        int position = find(key);
+        if (position < 0) {
+            return false;
+        }
+        if (groupHasEmpty(position / GROUP_SIZE)) {
+            setControl(position, EMPTY);
+        } else {
+            setControl(position, REMOVED);
+            tombstones++;
+        }
+        size--;
+        return true;
+    }
+
+    private int find(int key) {
+        int hash = scrambler.scramble(key);
+        int h2 = hash & 0x7F;
+        int group = (hash >>> 7) & groupMask;
+        for (int probe = 1; probe <= groupMask + 1; probe++) {
+            boolean hasEmpty = false;
+            for (int w = 0; w < WORDS_PER_GROUP; w++) {
+                long word = control[group * WORDS_PER_GROUP + w];
+                for (long match = matchByte(word, h2); match != 0; match &= match - 1) {
+                    int position = slotOf(group, w, match);
+                    if (keys[position] == key) {
+                        return position;
+                    }
+                }
+                hasEmpty |= matchEmpty(word) != 0;
+            }
+            if (hasEmpty) {
+                return -1;
+            }
+            group = (group + probe) & groupMask;
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc} Here, each probe examines a whole group of 16 positions.
+     */
+    public int countProbes(int key) {
+        int hash = scrambler.scramble(key);
+        int h2 = hash & 0x7F;
+        int group = (hash >>> 7) & groupMask;
+        for (int probe = 1; probe <= groupMask + 1; probe++) {
+            boolean hasEmpty = false;
+            for (int w = 0; w < WORDS_PER_GROUP; w++) {
+                long word = control[group * WORDS_PER_GROUP + w];
+                for (long match = matchByte(word, h2); match != 0; match &= match - 1) {
+                    if (keys[slotOf(group, w, match)] == key) {
+                        return probe;
+                    }
+                }
+                hasEmpty |= matchEmpty(word) != 0;
+            }
+            if (hasEmpty) {
+                return probe;
+            }
+            group = (group + probe) & groupMask;
+        }
+        return groupMask + 1;
+    }
+
+    private void rehash(int newTableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        long[] oldControl = control;
+        allocate(newTableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (((oldControl[i >>> 3] >>> ((i & 7) << 3)) & 0x80) == 0) {
+                insert(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries (and tombstones) from this map, keeping its current table size.
+     */
+    public void clear() {
+        Arrays.fill(control, HIGH_BITS); //every byte EMPTY
+        size = 0;
+        tombstones = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getTableSize() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the scrambler used by this map.
+     */
+    public Scrambler getScrambler() {
+        return scrambler;
+    }
+}
@@ -22,7 +22,10 @@ public class UniversalHashing implements MultiHasher {
     }
 
     public void multihash(Object o, int[] output, int tableSize) {
-        int h = o.hashCode();
+        multihash(o.hashCode(), output, tableSize);
+    }
+
+    public void multihash(int h, int[] output, int tableSize) {
         for (int i = 0; i < output.length; i++) {
             output[i] = Modulo.mod(Modulo.mod(a[i] * h + b[i], p), tableSize);
         }
@@ -0,0 +1,120 @@
+package hashing.bench;
+
+import com.google.common.collect.ImmutableList;
+import gr.forth.ics.jbenchy.Aggregator;
+import gr.forth.ics.jbenchy.DataTypes;
+import gr.forth.ics.jbenchy.Database;
+import gr.forth.ics.jbenchy.Record;
+import gr.forth.ics.jbenchy.Schema;
+import hashing.AvalancheStatistics;
+import hashing.Scrambler;
+import hashing.Scramblers;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Measures the quality (rather than the cost) of each {@code Scrambler} directly, by its avalanche
+ * behavior (see {@link AvalancheStatistics}), rather than through the chain lengths of a few datasets.
+ * Each configuration is counted by all processors in turn.
+ */
+public class AvalancheBench {
+    enum Vars {
+        /** The scrambling function (which scrambles the hashCode) */
+        SCRAMBLER,
+        /** The logarithm of the number of inputs */
+        INPUT_BITS,
+        /** Largest distance from 1/2 of the probability that an output bit flips when an input bit flips */
+        MAX_SAC_BIAS,
+        /** Average distance from 1/2 of the probability that an output bit flips when an input bit flips */
+        AVG_SAC_BIAS,
+        /** Largest distance from 1/2 of the probability that an output bit is set */
+        MAX_OUTPUT_BIAS,
+        /** Largest absolute correlation between the flips of two output bits (1 if either never or always flips) */
+        MAX_BIC,
+        /** The flipped input bit */
+        INPUT_BIT,
+        /** The output bit */
+        OUTPUT_BIT,
+        /** The probability that the output bit flips when the input bit flips */
+        FLIP_PROBABILITY,
+    }
+
+    private static Schema schema() {
+        return new Schema().
+            add(Vars.SCRAMBLER, DataTypes.string(20)).
+            add(Vars.INPUT_BITS, DataTypes.INTEGER).
+            add(Vars.MAX_SAC_BIAS, DataTypes.DOUBLE).
+            add(Vars.AVG_SAC_BIAS, DataTypes.DOUBLE).
+            add(Vars.MAX_OUTPUT_BIAS, DataTypes.DOUBLE).
+            add(Vars.MAX_BIC, DataTypes.DOUBLE);
+    }
+
+    private static Schema sacSchema() {
+        return new Schema().
+            add(Vars.SCRAMBLER, DataTypes.string(20)).
+            add(Vars.INPUT_BITS, DataTypes.INTEGER).
+            add(Vars.INPUT_BIT, DataTypes.INTEGER).
+            add(Vars.OUTPUT_BIT, DataTypes.INTEGER).
+            add(Vars.FLIP_PROBABILITY, DataTypes.DOUBLE);
+    }
+
+    /**
+     * Records the SAC and BIC summary of each scrambler, plus its whole SAC matrix, for each number
+     * of inputs. The bit independence criterion, which is far costlier, is only measured over up to
+     * {@code 2^maxIndependenceBits} inputs (a prefix of the same inputs).
+     */
+    public static void runBenchmark(Aggregator aggr, Aggregator sacAggr,
+            Iterable<Scrambler> scramblers,
+            Iterable<Integer> inputBitLengths,
+            int maxIndependenceBits) throws InterruptedException, ExecutionException {
+        for (Scrambler scrambler : scramblers) {
+            AvalancheStatistics maxIndependence = null; //over 2^maxIndependenceBits inputs, once measured
+            for (int inputBits : inputBitLengths) {
+                AvalancheStatistics statistics = AvalancheStatistics.measure(scrambler, inputBits,
+                        inputBits <= maxIndependenceBits, ParallelGrid.DEFAULT_PARALLELISM);
+                if (inputBits == maxIndependenceBits) {
+                    maxIndependence = statistics;
+                }
+                AvalancheStatistics independence = statistics;
+                if (inputBits > maxIndependenceBits) {
+                    if (maxIndependence == null) {
+                        maxIndependence = AvalancheStatistics.measure(scrambler, maxIndependenceBits, true,
+                                ParallelGrid.DEFAULT_PARALLELISM);
+                    }
+                    independence = maxIndependence;
+                }
+
+                Record record = new Record().
+                        add(Vars.SCRAMBLER, scrambler).
+                        add(Vars.INPUT_BITS, inputBits).
+                        add(Vars.MAX_SAC_BIAS, statistics.getMaxAvalancheBias()).
+                        add(Vars.AVG_SAC_BIAS, statistics.getAverageAvalancheBias()).
+                        add(Vars.MAX_OUTPUT_BIAS, statistics.getMaxOutputBias()).
+                        add(Vars.MAX_BIC, independence.getMaxIndependenceCorrelation());
+                System.out.println(record);
+                aggr.record(record);
+                for (int i = 0; i < 32; i++) {
+                    for (int j = 0; j < 32; j++) {
+                        sacAggr.record(new Record().
+                                add(Vars.SCRAMBLER, scrambler).
+                                add(Vars.INPUT_BITS, inputBits).
+                                add(Vars.INPUT_BIT, i).
+                                add(Vars.OUTPUT_BIT, j).
+                                add(Vars.FLIP_PROBABILITY, statistics.getFlipProbability(i, j)));
+                    }
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Database db = Db.open(Db.AVALANCHE_DB);
+
+        runBenchmark(db.forceCreate(schema(), Db.AVALANCHE_AGGR),
+                db.forceCreate(sacSchema(), Db.AVALANCHE_SAC_AGGR),
+                Arrays.<Scrambler>asList(Scramblers.values()),
+                ImmutableList.of(24, 32),
+                24);
+        db.shutDown();
+    }
+}
@@ -0,0 +1,61 @@
+package hashing.bench;
+
+import com.google.common.collect.Lists;
+import hashing.ByteHashers;
+import hashing.Dataset;
+import hashing.Datasets;
+import hashing.MappedFileDataset;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The datasets that the benchmarks run against: all {@link Datasets}, plus any key files (e.g. samples
+ * of production keys) listed in the {@code hashing.keyFiles} system property, separated by the
+ * platform's path separator. Key files are newline-delimited, unless {@code hashing.keyFormat} names
+ * another {@link MappedFileDataset.Format}, and their keys are hashed as {@code String}s, unless
+ * {@code hashing.keyHasher} names a {@link ByteHashers} constant to hash their bytes instead.
+ * Configurations that would need more keys than a key file has are skipped (or, when a benchmark
+ * says so, use only the keys it has).
+ */
+class BenchDatasets {
+    private BenchDatasets() { }
+
+    static List<Dataset> all() throws IOException {
+        List<Dataset> datasets = Lists.<Dataset>newArrayList(Arrays.asList(Datasets.values()));
+        String keyFiles = System.getProperty("hashing.keyFiles");
+        if (keyFiles == null) {
+            return datasets;
+        }
+        MappedFileDataset.Format format = MappedFileDataset.Format.valueOf(
+                System.getProperty("hashing.keyFormat", MappedFileDataset.Format.NEWLINE.name()));
+        String hasher = System.getProperty("hashing.keyHasher");
+        for (String path : keyFiles.split(File.pathSeparator)) {
+            datasets.add(new MappedFileDataset(new File(path), format,
+                    hasher == null ? null : ByteHashers.valueOf(hasher)));
+        }
+        return datasets;
+    }
+
+    /**
+     * Returns the number of keys of the dataset: those of a key file, or {@code Integer.MAX_VALUE}
+     * for the other datasets, which create as many as asked for.
+     */
+    static int size(Dataset dataset) {
+        return dataset instanceof MappedFileDataset ? ((MappedFileDataset)dataset).size() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns whether the dataset has at least the given number of keys, and otherwise prints that
+     * the described configuration is skipped.
+     */
+    static boolean hasKeys(Dataset dataset, long keys, String configuration) {
+        int size = size(dataset);
+        if (size >= keys) {
+            return true;
+        }
+        System.out.println("Skipping " + configuration + ", " + dataset + ": " + keys + " keys needed, only " + size);
+        return false;
+    }
+}
@@ -2,7 +2,6 @@ package hashing.bench;
 
 import gr.forth.ics.jbenchy.Aggregator;
 import gr.forth.ics.jbenchy.Database;
-import gr.forth.ics.jbenchy.DbFactories;
 import gr.forth.ics.jbenchy.Filters;
 import gr.forth.ics.jbenchy.Orders;
 import gr.forth.ics.jbenchy.Record;
@@ -17,7 +16,7 @@ import java.io.IOException;
 
 public class BloomAnalysis {
     public static void main(String[] args) throws IOException {
-        Database db = DbFactories.localDerby().get(Db.BLOOM_DB);
+        Database db = Db.open(Db.BLOOM_DB);
         Aggregator aggr = db.get(Db.BLOOM_AGGR);
 
         for (int N : aggr.domainOf(Vars.N, Integer.class)) {
@@ -27,7 +26,7 @@ public class BloomAnalysis {
                     filtered(Filters.eq(Vars.N, N)).
                     filtered(Filters.eq(Vars.DATASET, Datasets.STRINGS)).
                     averageOf(Vars.FALSE_POSITIVES).
-                    per(Vars.MULTIHASHER);
+                    per(Vars.MULTIHASHER, Vars.FILTER);
             Diagram diagram = DiagramFactory.newDiagram(records);
             new ChartFactory(diagram).newBarChart().write(800, 800, "png", new File("bloom_" + N + ".png"));
         }
@@ -35,10 +34,33 @@ public class BloomAnalysis {
         Records records = aggr.
                 ordered(Orders.asc(Vars.DATASET), Orders.asc(Vars.N), Orders.asc(Vars.b)).
                 averageOf(Vars.FALSE_POSITIVES).
-                per(Vars.MULTIHASHER, Vars.b, Vars.N, Vars.DATASET);
+                per(Vars.FILTER, Vars.MULTIHASHER, Vars.b, Vars.N, Vars.DATASET);
         for (Record record : records) {
-            System.out.printf("%15s bitsPerElement =%2s N = %5s %22s falsePositives = %s%n",
-                    record.get(Vars.DATASET), record.get(Vars.b), record.get(Vars.N), record.get(Vars.MULTIHASHER), record.getValue());
+            System.out.printf("%15s bitsPerElement =%2s N = %5s %22s %8s falsePositives = %s%n",
+                    record.get(Vars.DATASET), record.get(Vars.b), record.get(Vars.N), record.get(Vars.MULTIHASHER),
+                    record.get(Vars.FILTER), record.getValue());
+        }
+
+        records = aggr.
+                ordered(Orders.asc(Vars.N), Orders.asc(Vars.MULTIHASHER)).
+                averageOf(Vars.LOOKUP_OPS).
+                per(Vars.FILTER, Vars.MULTIHASHER, Vars.N);
+        for (Record record : records) {
+            System.out.printf("N = %5s %22s %8s lookups/sec = %1.0f%n",
+                    record.get(Vars.N), record.get(Vars.MULTIHASHER), record.get(Vars.FILTER), record.getValue());
+        }
+
+        Aggregator cuckooAggr = db.get(Db.BLOOM_CUCKOO_AGGR);
+        for (Vars var : new Vars[] { Vars.FALSE_POSITIVES, Vars.MAX_LOAD, Vars.LOOKUP_OPS }) {
+            records = cuckooAggr.
+                    ordered(Orders.asc(Vars.DATASET), Orders.asc(Vars.N), Orders.asc(Vars.b)).
+                    averageOf(var).
+                    per(Vars.SCRAMBLER, Vars.b, Vars.N, Vars.DATASET);
+            for (Record record : records) {
+                System.out.printf("%15s bitsPerElement =%2s N = %5s %22s   CUCKOO %s = %s%n",
+                        record.get(Vars.DATASET), record.get(Vars.b), record.get(Vars.N), record.get(Vars.SCRAMBLER),
+                        var, record.getValue());
+            }
         }
 
         db.shutDown();
@@ -1,21 +1,48 @@
 package hashing.bench;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import gr.forth.ics.jbenchy.Aggregator;
 import gr.forth.ics.jbenchy.DataTypes;
 import gr.forth.ics.jbenchy.Database;
-import gr.forth.ics.jbenchy.DbFactories;
 import gr.forth.ics.jbenchy.Record;
 import gr.forth.ics.jbenchy.Schema;
+import hashing.BloomFilter;
+import hashing.BloomFilterFactories;
+import hashing.BloomFilterFactory;
+import hashing.ConcurrentBloomFilter;
+import hashing.CountingBloomFilter;
+import hashing.CuckooFilter;
 import hashing.Dataset;
 import hashing.Datasets;
 import hashing.FakeBloomFilter;
+import hashing.IntDataset;
+import hashing.IntDatasets;
+import hashing.LongBloomFilter;
+import hashing.LongDataset;
+import hashing.LongDatasets;
+import hashing.LongMultiHasherProducer;
+import hashing.LongMultiHasherProducers;
+import hashing.MappedBloomFilter;
 import hashing.MultiHasherProducer;
 import hashing.MultiHasherProducers;
+import hashing.Scrambler;
+import hashing.Scramblers;
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class BloomBench {
     enum Vars {
+        /** The Bloom filter layout (see BloomFilterFactories enum) */
+        FILTER,
         /** The number of hashes per element */
         K,
         /** The multihasher */
@@ -30,68 +57,703 @@ public class BloomBench {
         FALSE_POSITIVES,
         /** False positive ratio derived theoretically */
         EXPECTED_FALSE_POSITIVES,
+        /** Lookups (mostly of absent elements) per second */
+        LOOKUP_OPS,
+        /** The number of threads sharing a Bloom filter */
+        THREADS,
+        /** Operations (puts and lookups) per second, over all threads */
+        OPS_PER_SEC,
+        /** The number of bits of the Bloom filter */
+        BITS,
+        /** Time (in milliseconds) until a new process can serve lookups */
+        COLD_START_MILLIS,
+        /** False positive ratio over elements that were inserted and then removed */
+        DELETED_FALSE_POSITIVES,
+        /** Updates (puts and removals) per second */
+        UPDATE_OPS,
+        /** Bits of memory per element of the Bloom filter */
+        MEMORY_BITS_PER_ELEMENT,
+        /** The scrambling function (which scrambles the hashCode) */
+        SCRAMBLER,
+        /** The load (ratio of occupied slots) at the first failed insertion */
+        MAX_LOAD,
     }
 
+    private static final int MAX_TIMED_LOOKUPS = 1 << 16;
+    private static final int LOOKUPS_PER_PUT = 9;
+    private static final int MAX_LONG_FILTER_LOOKUPS = 1 << 24;
+
     private static Schema schema() {
         return new Schema().
+            add(Vars.FILTER, DataTypes.string(20)).
             add(Vars.K, DataTypes.INTEGER).
             add(Vars.MULTIHASHER, DataTypes.string(20)).
             add(Vars.N, DataTypes.INTEGER).
             add(Vars.b, DataTypes.INTEGER).
             add(Vars.DATASET, DataTypes.SMALL_STRING).
             add(Vars.FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.EXPECTED_FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.LOOKUP_OPS, DataTypes.DOUBLE);
+    }
+
+    private static Schema concurrentSchema() {
+        return new Schema().
+            add(Vars.THREADS, DataTypes.INTEGER).
+            add(Vars.MULTIHASHER, DataTypes.string(20)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.b, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.OPS_PER_SEC, DataTypes.DOUBLE).
             add(Vars.EXPECTED_FALSE_POSITIVES, DataTypes.DOUBLE);
     }
 
+    private static Schema longSchema() {
+        return new Schema().
+            add(Vars.K, DataTypes.INTEGER).
+            add(Vars.MULTIHASHER, DataTypes.string(20)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.b, DataTypes.INTEGER).
+            add(Vars.BITS, DataTypes.LONG).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.EXPECTED_FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.LOOKUP_OPS, DataTypes.DOUBLE);
+    }
+
+    private static Schema mappedSchema() {
+        return new Schema().
+            add(Vars.FILTER, DataTypes.string(20)).
+            add(Vars.MULTIHASHER, DataTypes.string(20)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.b, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.COLD_START_MILLIS, DataTypes.DOUBLE).
+            add(Vars.LOOKUP_OPS, DataTypes.DOUBLE);
+    }
+
+    private static Schema slidingSchema() {
+        return new Schema().
+            add(Vars.FILTER, DataTypes.string(20)).
+            add(Vars.K, DataTypes.INTEGER).
+            add(Vars.MULTIHASHER, DataTypes.string(20)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.b, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.MEMORY_BITS_PER_ELEMENT, DataTypes.DOUBLE).
+            add(Vars.FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.DELETED_FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.UPDATE_OPS, DataTypes.DOUBLE).
+            add(Vars.LOOKUP_OPS, DataTypes.DOUBLE);
+    }
+
+    private static Schema cuckooSchema() {
+        return new Schema().
+            add(Vars.SCRAMBLER, DataTypes.string(20)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.b, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.EXPECTED_FALSE_POSITIVES, DataTypes.DOUBLE).
+            add(Vars.MAX_LOAD, DataTypes.DOUBLE).
+            add(Vars.LOOKUP_OPS, DataTypes.DOUBLE);
+    }
+
     public static void runBenchmark(Aggregator aggr,
+            Iterable<BloomFilterFactory> filterFactories,
             Iterable<MultiHasherProducer> multihasherProducers,
             Iterable<Integer> insertionsIterable,
             Iterable<Integer> bitsPerElementIterable,
-            Iterable<Dataset> datasets) {
-        for (MultiHasherProducer multihasherProducer : multihasherProducers) {
-            for (int insertions : insertionsIterable) {
-                for (int bitsPerElement : bitsPerElementIterable) {
-                    for (Dataset dataset : datasets) {
-                        FakeBloomFilter bloomFilter = FakeBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer);
-                        for (int i = 0; i < insertions; i++) {
-                            bloomFilter.put(dataset.create(i));
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final BloomFilterFactory filterFactory : filterFactories) {
+            for (final MultiHasherProducer multihasherProducer : multihasherProducers) {
+                for (final int insertions : insertionsIterable) {
+                    for (final int bitsPerElement : bitsPerElementIterable) {
+                        for (final Dataset dataset : datasets) {
+                            if (!BenchDatasets.hasKeys(dataset, 10L * insertions, filterFactory + ", "
+                                    + multihasherProducer + ", N=" + insertions + ", b=" + bitsPerElement)) {
+                                continue;
+                            }
+                            grid.submit(new Callable<Record>() {
+                                public Record call() {
+                                    return runConfiguration(filterFactory, multihasherProducer, insertions, bitsPerElement, dataset);
+                                }
+                            });
                         }
+                    }
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    private static Record runConfiguration(BloomFilterFactory filterFactory, MultiHasherProducer multihasherProducer,
+            int insertions, int bitsPerElement, Dataset dataset) {
+        BloomFilter bloomFilter = filterFactory.create(insertions, bitsPerElement, multihasherProducer);
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        for (int i = 0; i < insertions; i++) {
+            bloomFilter.putHash(hashCodes.get(i));
+        }
+
+        int positives = 0;
+        int len = insertions * 10;
+
+        for (int i = insertions; i < len; i++) {
+            if (bloomFilter.mightContainHash(hashCodes.get(i))) {
+                positives++;
+            }
+        }
+        double falsePositiveRate = (double)positives / (len - insertions);
+
+        int[] lookups = new int[Math.min(len - insertions, MAX_TIMED_LOOKUPS)];
+        hashCodes.fill(insertions, lookups);
 
-                        int positives = 0;
-                        int len = insertions * 10;
+        return new Record().
+                add(Vars.FILTER, filterFactory).
+                add(Vars.K, bloomFilter.getHashesCount()).
+                add(Vars.MULTIHASHER, multihasherProducer).
+                add(Vars.N, insertions).
+                add(Vars.b, bitsPerElement).
+                add(Vars.DATASET, dataset).
+                add(Vars.FALSE_POSITIVES, falsePositiveRate).
+                add(Vars.EXPECTED_FALSE_POSITIVES, bloomFilter.computeFalsePositiveRate()).
+                add(Vars.LOOKUP_OPS, new LookupThroughput(bloomFilter, lookups).measure(lookups.length));
+    }
 
-                        for (int i = insertions; i < len; i++) {
-                            if (bloomFilter.mightContain(dataset.create(i))) {
-                                positives++;
+    /**
+     * Benchmarks {@code CuckooFilter}s over the same grid as {@link #runBenchmark runBenchmark}, with
+     * {@code b} bits per fingerprint. Besides the false positives and lookup throughput of a filter holding
+     * its capacity {@code N}, this records the load at which a second filter first fails an insertion.
+     */
+    public static void runCuckooBenchmark(Aggregator aggr,
+            Iterable<Scrambler> scramblers,
+            Iterable<Integer> insertionsIterable,
+            Iterable<Integer> bitsPerElementIterable,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final Scrambler scrambler : scramblers) {
+            for (final int insertions : insertionsIterable) {
+                for (final int bitsPerElement : bitsPerElementIterable) {
+                    for (final Dataset dataset : datasets) {
+                        //the first failed insertion comes well before 10 * N, since the filter has about N / 0.95 slots
+                        if (!BenchDatasets.hasKeys(dataset, 10L * insertions,
+                                scrambler + ", N=" + insertions + ", b=" + bitsPerElement)) {
+                            continue;
+                        }
+                        grid.submit(new Callable<Record>() {
+                            public Record call() {
+                                return runCuckooConfiguration(scrambler, insertions, bitsPerElement, dataset);
                             }
+                        });
+                    }
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    private static Record runCuckooConfiguration(Scrambler scrambler, int insertions, int bitsPerElement, Dataset dataset) {
+        CuckooFilter filter = CuckooFilter.createWithCapacity(insertions, bitsPerElement, scrambler);
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        int element = 0;
+        while (filter.addHash(hashCodes.get(element))) {
+            element++;
+        }
+        double maxLoad = filter.getLoad();
+
+        //a poor scrambler may fill up the filter before its capacity; then it holds as many as it can
+        filter = CuckooFilter.createWithCapacity(insertions, bitsPerElement, scrambler);
+        for (int i = 0; i < insertions && filter.addHash(hashCodes.get(i)); i++) { }
+
+        int positives = 0;
+        int len = insertions * 10;
+        for (int i = insertions; i < len; i++) {
+            if (filter.mightContainHash(hashCodes.get(i))) {
+                positives++;
+            }
+        }
+        int[] lookups = new int[Math.min(len - insertions, MAX_TIMED_LOOKUPS)];
+        hashCodes.fill(insertions, lookups);
+
+        return new Record().
+                add(Vars.SCRAMBLER, scrambler).
+                add(Vars.N, insertions).
+                add(Vars.b, bitsPerElement).
+                add(Vars.DATASET, dataset).
+                add(Vars.FALSE_POSITIVES, (double)positives / (len - insertions)).
+                add(Vars.EXPECTED_FALSE_POSITIVES, filter.computeFalsePositiveRate()).
+                add(Vars.MAX_LOAD, maxLoad).
+                add(Vars.LOOKUP_OPS, new LookupThroughput(filter, lookups).measure(lookups.length));
+    }
+
+    /**
+     * Benchmarks {@code LongBloomFilter}s, which may exceed 2^31 bits. Configurations run one at a time,
+     * since each may take a good part of the heap, and those that could not fit in half of the heap
+     * are skipped. False positives are measured over at most {@value #MAX_LONG_FILTER_LOOKUPS} lookups.
+     * Elements are given by their 64-bit hashes (see {@link LongDatasets#hashesOf}), thus only datasets
+     * of {@code ByteKey}s with 64-bit hashers avoid the false positives of colliding 32-bit hashCodes.
+     */
+    public static void runLongBenchmark(Aggregator aggr,
+            Iterable<LongMultiHasherProducer> multihasherProducers,
+            Iterable<Integer> insertionsIterable,
+            Iterable<Integer> bitsPerElementIterable,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        long maxBytes = Runtime.getRuntime().maxMemory() / 2;
+        ParallelGrid grid = new ParallelGrid(aggr, 1);
+        for (final LongMultiHasherProducer multihasherProducer : multihasherProducers) {
+            for (final int insertions : insertionsIterable) {
+                for (final int bitsPerElement : bitsPerElementIterable) {
+                    if ((long)insertions * bitsPerElement / Byte.SIZE > maxBytes) {
+                        System.out.println("Skipping N=" + insertions + ", b=" + bitsPerElement + ": not enough memory");
+                        continue;
+                    }
+                    for (final Dataset dataset : datasets) {
+                        if (!BenchDatasets.hasKeys(dataset, insertions + longFilterLookups(insertions),
+                                multihasherProducer + ", N=" + insertions + ", b=" + bitsPerElement)) {
+                            continue;
                         }
-                        double falsePositiveRate = (double)positives / (len - insertions);
-
-                        Record record = new Record().
-                                add(Vars.K, bloomFilter.getHashesCount()).
-                                add(Vars.MULTIHASHER, multihasherProducer).
-                                add(Vars.N, insertions).
-                                add(Vars.b, bitsPerElement).
-                                add(Vars.DATASET, dataset).
-                                add(Vars.FALSE_POSITIVES, falsePositiveRate).
-                                add(Vars.EXPECTED_FALSE_POSITIVES, bloomFilter.computeFalsePositiveRate());
-                        System.out.println(record);
-                        aggr.record(record);
+                        grid.submit(new Callable<Record>() {
+                            public Record call() {
+                                return runLongConfiguration(multihasherProducer, insertions, bitsPerElement, dataset);
+                            }
+                        });
                     }
                 }
             }
         }
+        grid.awaitCompletion();
+    }
+
+    private static Record runLongConfiguration(LongMultiHasherProducer multihasherProducer,
+            int insertions, int bitsPerElement, Dataset dataset) {
+        LongBloomFilter bloomFilter = LongBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer);
+        LongDataset hashes = LongDatasets.hashesOf(dataset);
+        for (int i = 0; i < insertions; i++) {
+            bloomFilter.putHash64(hashes.get(i));
+        }
+
+        int positives = 0;
+        int tests = longFilterLookups(insertions);
+        for (int i = 0; i < tests; i++) {
+            if (bloomFilter.mightContainHash64(hashes.get(insertions + i))) {
+                positives++;
+            }
+        }
+
+        long[] lookups = new long[Math.min(tests, MAX_TIMED_LOOKUPS)];
+        hashes.fill(insertions, lookups);
+
+        return new Record().
+                add(Vars.K, bloomFilter.getHashesCount()).
+                add(Vars.MULTIHASHER, multihasherProducer).
+                add(Vars.N, insertions).
+                add(Vars.b, bitsPerElement).
+                add(Vars.BITS, bloomFilter.getBitsCount()).
+                add(Vars.DATASET, dataset).
+                add(Vars.FALSE_POSITIVES, (double)positives / tests).
+                add(Vars.EXPECTED_FALSE_POSITIVES, bloomFilter.computeFalsePositiveRate()).
+                add(Vars.LOOKUP_OPS, new LongLookupThroughput(bloomFilter, lookups).measure(lookups.length));
+    }
+
+    private static int longFilterLookups(int insertions) {
+        return (int)Math.min((long)insertions * LOOKUPS_PER_PUT, MAX_LONG_FILTER_LOOKUPS);
     }
 
-    public static void main(String[] args) {
-        Database db = DbFactories.localDerby().getOrCreate(Db.BLOOM_DB);
+    /**
+     * Compares a heap {@code FakeBloomFilter} (FILTER = PLAIN) against a {@code MappedBloomFilter}
+     * (FILTER = MAPPED). The cold start of the former is the time to rebuild it from its elements,
+     * while that of the latter is the time to map its (previously written) file and serve a first lookup.
+     * The file is likely still in the page cache, so this excludes the latency of the disk itself.
+     */
+    public static void runMappedBenchmark(Aggregator aggr,
+            Iterable<MultiHasherProducers> multihasherProducers,
+            Iterable<Integer> insertionsIterable,
+            Iterable<Integer> bitsPerElementIterable,
+            Dataset dataset) throws IOException {
+        File file = File.createTempFile("bloom", ".bin");
+        file.deleteOnExit();
+        for (MultiHasherProducers multihasherProducer : multihasherProducers) {
+            for (int insertions : insertionsIterable) {
+                int[] lookups = new int[Math.min(insertions * LOOKUPS_PER_PUT, MAX_TIMED_LOOKUPS)];
+                if (!BenchDatasets.hasKeys(dataset, (long)insertions + lookups.length,
+                        multihasherProducer + ", N=" + insertions)) {
+                    continue;
+                }
+                IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+                int[] present = new int[insertions];
+                hashCodes.fill(0, present);
+                hashCodes.fill(insertions, lookups);
+                for (int bitsPerElement : bitsPerElementIterable) {
+                    long start = System.nanoTime();
+                    FakeBloomFilter heapFilter = FakeBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer);
+                    for (int hashCode : present) {
+                        heapFilter.putHash(hashCode);
+                    }
+                    Throughput.sink = heapFilter.mightContainHash(lookups[0]) ? 1 : 0;
+                    double heapMillis = (System.nanoTime() - start) / 1e6;
+
+                    MappedBloomFilter written = MappedBloomFilter.create(file, insertions, bitsPerElement, multihasherProducer);
+                    for (int hashCode : present) {
+                        written.putHash(hashCode);
+                    }
+                    written.force();
+
+                    start = System.nanoTime();
+                    MappedBloomFilter mappedFilter = MappedBloomFilter.open(file, true);
+                    Throughput.sink = mappedFilter.mightContainHash(lookups[0]) ? 1 : 0;
+                    double mappedMillis = (System.nanoTime() - start) / 1e6;
+
+                    recordMapped(aggr, "PLAIN", multihasherProducer, insertions, bitsPerElement, dataset, heapMillis,
+                            new LookupThroughput(heapFilter, lookups).measure(lookups.length));
+                    recordMapped(aggr, "MAPPED", multihasherProducer, insertions, bitsPerElement, dataset, mappedMillis,
+                            new LookupThroughput(mappedFilter, lookups).measure(lookups.length));
+                }
+            }
+        }
+    }
+
+    private static void recordMapped(Aggregator aggr, String filter, MultiHasherProducer multihasherProducer,
+            int insertions, int bitsPerElement, Dataset dataset, double coldStartMillis, double lookupOps) {
+        Record record = new Record().
+                add(Vars.FILTER, filter).
+                add(Vars.MULTIHASHER, multihasherProducer).
+                add(Vars.N, insertions).
+                add(Vars.b, bitsPerElement).
+                add(Vars.DATASET, dataset).
+                add(Vars.COLD_START_MILLIS, coldStartMillis).
+                add(Vars.LOOKUP_OPS, lookupOps);
+        System.out.println(record);
+        aggr.record(record);
+    }
+
+    /**
+     * Benchmarks a {@code CountingBloomFilter} (FILTER = COUNTING) under a sliding window of {@code N}
+     * elements: each update removes the oldest element and puts a new one. For reference, a
+     * {@code FakeBloomFilter} (FILTER = PLAIN) that cannot remove, thus has to be rebuilt from the
+     * window, is measured too; its updates are the puts of a rebuild. Both use {@code b} bits (for
+     * the plain filter) or counters (for the counting one) per element.
+     */
+    public static void runSlidingBenchmark(Aggregator aggr,
+            Iterable<MultiHasherProducer> multihasherProducers,
+            Iterable<Integer> insertionsIterable,
+            Iterable<Integer> bitsPerElementIterable,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final MultiHasherProducer multihasherProducer : multihasherProducers) {
+            for (final int insertions : insertionsIterable) {
+                for (final int bitsPerElement : bitsPerElementIterable) {
+                    for (final Dataset dataset : datasets) {
+                        //the sliding elements, then the absent ones of slidingRecord
+                        if (!BenchDatasets.hasKeys(dataset,
+                                slidingElementsCount(insertions) + (long)insertions * LOOKUPS_PER_PUT,
+                                multihasherProducer + ", N=" + insertions + ", b=" + bitsPerElement)) {
+                            continue;
+                        }
+                        grid.submit(new Callable<Record>() {
+                            public Record call() {
+                                return runSlidingConfiguration(multihasherProducer, insertions, bitsPerElement, dataset);
+                            }
+                        });
+                        grid.submit(new Callable<Record>() {
+                            public Record call() {
+                                return runRebuiltConfiguration(multihasherProducer, insertions, bitsPerElement, dataset);
+                            }
+                        });
+                    }
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    /**
+     * Returns the elements that slide through the window: the first {@code insertions} ones are
+     * initially in it, and each update moves the window by one element, cyclically.
+     */
+    private static int[] slidingElements(int insertions, Dataset dataset) {
+        int[] elements = new int[slidingElementsCount(insertions)];
+        IntDatasets.hashCodesOf(dataset).fill(0, elements);
+        return elements;
+    }
+
+    private static int slidingElementsCount(int insertions) {
+        return insertions + Math.min(insertions, MAX_TIMED_LOOKUPS);
+    }
+
+    private static Record runSlidingConfiguration(MultiHasherProducer multihasherProducer,
+            int insertions, int bitsPerElement, Dataset dataset) {
+        int[] elements = slidingElements(insertions, dataset);
+        CountingBloomFilter bloomFilter = CountingBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer);
+        for (int i = 0; i < insertions; i++) {
+            bloomFilter.putHash(elements[i]);
+        }
+        SlidingThroughput updates = new SlidingThroughput(bloomFilter, elements, insertions);
+        double updateOps = updates.measure(2 * (elements.length - insertions));
+
+        //the removed elements are the ones after the window
+        int deletedPositives = 0;
+        for (int i = 0; i < elements.length - insertions; i++) {
+            if (bloomFilter.mightContainHash(elements[(updates.oldest + insertions + i) % elements.length])) {
+                deletedPositives++;
+            }
+        }
+        return slidingRecord("COUNTING", bloomFilter, multihasherProducer, insertions, bitsPerElement, dataset,
+                bloomFilter.getBitsCount(), elements.length, (double)deletedPositives / (elements.length - insertions), updateOps);
+    }
+
+    private static Record runRebuiltConfiguration(final MultiHasherProducer multihasherProducer,
+            final int insertions, final int bitsPerElement, Dataset dataset) {
+        final int[] elements = slidingElements(insertions, dataset);
+        double updateOps = new Throughput() {
+            private FakeBloomFilter bloomFilter;
+
+            @Override protected void beforeRound() {
+                bloomFilter = FakeBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer);
+            }
+
+            @Override protected long round() {
+                for (int i = 0; i < insertions; i++) {
+                    bloomFilter.putHash(elements[i]);
+                }
+                return bloomFilter.mightContainHash(elements[0]) ? 1 : 0;
+            }
+        }.measure(insertions);
+
+        FakeBloomFilter bloomFilter = FakeBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer);
+        for (int i = 0; i < insertions; i++) {
+            bloomFilter.putHash(elements[i]);
+        }
+        //never inserted, rather than removed
+        int deletedPositives = 0;
+        for (int i = insertions; i < elements.length; i++) {
+            if (bloomFilter.mightContainHash(elements[i])) {
+                deletedPositives++;
+            }
+        }
+        return slidingRecord("PLAIN", bloomFilter, multihasherProducer, insertions, bitsPerElement, dataset,
+                bloomFilter.getBitsCount(), elements.length, (double)deletedPositives / (elements.length - insertions), updateOps);
+    }
+
+    private static Record slidingRecord(String filter, BloomFilter bloomFilter, MultiHasherProducer multihasherProducer,
+            int insertions, int bitsPerElement, Dataset dataset, long bits, int firstAbsent,
+            double deletedFalsePositiveRate, double updateOps) {
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        int positives = 0;
+        int tests = insertions * LOOKUPS_PER_PUT;
+        for (int i = 0; i < tests; i++) {
+            if (bloomFilter.mightContainHash(hashCodes.get(firstAbsent + i))) {
+                positives++;
+            }
+        }
+        int[] lookups = new int[Math.min(tests, MAX_TIMED_LOOKUPS)];
+        hashCodes.fill(firstAbsent, lookups);
+
+        return new Record().
+                add(Vars.FILTER, filter).
+                add(Vars.K, bloomFilter.getHashesCount()).
+                add(Vars.MULTIHASHER, multihasherProducer).
+                add(Vars.N, insertions).
+                add(Vars.b, bitsPerElement).
+                add(Vars.DATASET, dataset).
+                add(Vars.MEMORY_BITS_PER_ELEMENT, (double)bits / insertions).
+                add(Vars.FALSE_POSITIVES, (double)positives / tests).
+                add(Vars.DELETED_FALSE_POSITIVES, deletedFalsePositiveRate).
+                add(Vars.UPDATE_OPS, updateOps).
+                add(Vars.LOOKUP_OPS, new LookupThroughput(bloomFilter, lookups).measure(lookups.length));
+    }
+
+    /**
+     * Each round slides the window of a counting Bloom filter by all the elements outside of it:
+     * per element, the oldest element of the window is removed and the new one is put.
+     */
+    private static class SlidingThroughput extends Throughput {
+        private final CountingBloomFilter bloomFilter;
+        private final int[] elements;
+        private final int window;
+        int oldest;
+
+        SlidingThroughput(CountingBloomFilter bloomFilter, int[] elements, int window) {
+            this.bloomFilter = bloomFilter;
+            this.elements = elements;
+            this.window = window;
+        }
+
+        @Override protected long round() {
+            int oldest = this.oldest;
+            int newest = (oldest + window) % elements.length;
+            for (int i = window; i < elements.length; i++) {
+                bloomFilter.removeHash(elements[oldest]);
+                bloomFilter.putHash(elements[newest]);
+                if (++oldest == elements.length) oldest = 0;
+                if (++newest == elements.length) newest = 0;
+            }
+            this.oldest = oldest;
+            return oldest;
+        }
+    }
+
+    private static class LookupThroughput extends Throughput {
+        private final BloomFilter bloomFilter;
+        private final int[] lookups;
+
+        LookupThroughput(BloomFilter bloomFilter, int[] lookups) {
+            this.bloomFilter = bloomFilter;
+            this.lookups = lookups;
+        }
+
+        @Override protected long round() {
+            long positives = 0;
+            for (int hashCode : lookups) {
+                if (bloomFilter.mightContainHash(hashCode)) positives++;
+            }
+            return positives;
+        }
+    }
+
+    private static class LongLookupThroughput extends Throughput {
+        private final LongBloomFilter bloomFilter;
+        private final long[] lookups;
+
+        LongLookupThroughput(LongBloomFilter bloomFilter, long[] lookups) {
+            this.bloomFilter = bloomFilter;
+            this.lookups = lookups;
+        }
+
+        @Override protected long round() {
+            long positives = 0;
+            for (long hash : lookups) {
+                if (bloomFilter.mightContainHash64(hash)) positives++;
+            }
+            return positives;
+        }
+    }
+
+    /**
+     * Shares a {@code ConcurrentBloomFilter} between each specified number of threads. Each
+     * thread puts its own share of the {@code insertions} elements, each put followed by
+     * {@value #LOOKUPS_PER_PUT} lookups of absent elements.
+     */
+    public static void runConcurrentBenchmark(Aggregator aggr,
+            Iterable<MultiHasherProducer> multihasherProducers,
+            Iterable<Integer> threadCounts,
+            int insertions,
+            int bitsPerElement,
+            Dataset dataset) throws InterruptedException, ExecutionException {
+        if (!BenchDatasets.hasKeys(dataset, (long)insertions + MAX_TIMED_LOOKUPS, "N=" + insertions)) {
+            return;
+        }
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        int[] present = new int[insertions];
+        hashCodes.fill(0, present);
+        int[] absent = new int[MAX_TIMED_LOOKUPS];
+        hashCodes.fill(insertions, absent);
+        for (MultiHasherProducer multihasherProducer : multihasherProducers) {
+            for (int threads : threadCounts) {
+                ExecutorService executor = Executors.newFixedThreadPool(threads);
+                try {
+                    //warm-up
+                    runMixedWorkload(ConcurrentBloomFilter.createWithCapacity(insertions, bitsPerElement, multihasherProducer),
+                            present, absent, threads, executor);
+
+                    ConcurrentBloomFilter bloomFilter = ConcurrentBloomFilter.createWithCapacity(
+                            insertions, bitsPerElement, multihasherProducer);
+                    double opsPerSec = runMixedWorkload(bloomFilter, present, absent, threads, executor);
+
+                    Record record = new Record().
+                            add(Vars.THREADS, threads).
+                            add(Vars.MULTIHASHER, multihasherProducer).
+                            add(Vars.N, insertions).
+                            add(Vars.b, bitsPerElement).
+                            add(Vars.DATASET, dataset).
+                            add(Vars.OPS_PER_SEC, opsPerSec).
+                            add(Vars.EXPECTED_FALSE_POSITIVES, bloomFilter.computeFalsePositiveRate());
+                    System.out.println(record);
+                    aggr.record(record);
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        }
+    }
+
+    private static double runMixedWorkload(final BloomFilter bloomFilter, final int[] present, final int[] absent,
+            int threads, ExecutorService executor) throws InterruptedException, ExecutionException {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        final int perThread = present.length / threads;
+        List<Future<Long>> results = Lists.newArrayList();
+        for (int t = 0; t < threads; t++) {
+            final int from = t * perThread;
+            results.add(executor.submit(new Callable<Long>() {
+                public Long call() throws InterruptedException {
+                    startSignal.await();
+                    long positives = 0;
+                    int lookup = from;
+                    for (int i = from; i < from + perThread; i++) {
+                        bloomFilter.putHash(present[i]);
+                        for (int j = 0; j < LOOKUPS_PER_PUT; j++) {
+                            if (bloomFilter.mightContainHash(absent[lookup++ & (absent.length - 1)])) positives++;
+                        }
+                    }
+                    return positives;
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        long positives = 0;
+        for (Future<Long> result : results) {
+            positives += result.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        Throughput.sink = positives;
+        return (double)perThread * threads * (1 + LOOKUPS_PER_PUT) * 1e9 / elapsed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Database db = Db.open(Db.BLOOM_DB);
         Aggregator aggr = db.forceCreate(schema(), Db.BLOOM_AGGR);
+        List<Dataset> datasets = BenchDatasets.all();
 
         runBenchmark(aggr,
+                Arrays.<BloomFilterFactory>asList(BloomFilterFactories.values()),
+                Arrays.<MultiHasherProducer>asList(MultiHasherProducers.values()),
+                ImmutableList.of(1 << 8, 1 << 10, 1 << 12, 1 << 14, 1 << 16, 1 << 20),
+                ImmutableList.of(4, 6, 8),
+                datasets);
+
+        runCuckooBenchmark(db.forceCreate(cuckooSchema(), Db.BLOOM_CUCKOO_AGGR),
+                Arrays.<Scrambler>asList(Scramblers.values()),
+                ImmutableList.of(1 << 8, 1 << 10, 1 << 12, 1 << 14, 1 << 16, 1 << 20),
+                ImmutableList.of(4, 6, 8),
+                datasets);
+
+        List<Integer> threadCounts = Lists.newArrayList();
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads <<= 1) {
+            threadCounts.add(threads);
+        }
+        runConcurrentBenchmark(db.forceCreate(concurrentSchema(), Db.BLOOM_CONCURRENT_AGGR),
+                Arrays.<MultiHasherProducer>asList(MultiHasherProducers.values()),
+                threadCounts,
+                1 << 20, 8, Datasets.INTEGERS);
+
+        runLongBenchmark(db.forceCreate(longSchema(), Db.BLOOM_LONG_AGGR),
+                Arrays.<LongMultiHasherProducer>asList(LongMultiHasherProducers.values()),
+                ImmutableList.of(1 << 20, 1 << 24, 1 << 28),
+                ImmutableList.of(8, 16),
+                //random 32-bit hashCodes, for comparison with the 64-bit hashes of the others
+                ImmutableList.<Dataset>of(Datasets.RND_INTEGERS, Datasets.BYTES_XXHASH64, Datasets.BYTES_WYHASH));
+
+        runMappedBenchmark(db.forceCreate(mappedSchema(), Db.BLOOM_MAPPED_AGGR),
+                Arrays.asList(MultiHasherProducers.values()),
+                ImmutableList.of(1 << 16, 1 << 20, 1 << 24),
+                ImmutableList.of(8),
+                Datasets.INTEGERS);
+
+        runSlidingBenchmark(db.forceCreate(slidingSchema(), Db.BLOOM_SLIDING_AGGR),
                 Arrays.<MultiHasherProducer>asList(MultiHasherProducers.values()),
-                ImmutableList.of(1 << 8, 1 << 10, 1 << 12, 1 << 14, 1 << 16),
+                ImmutableList.of(1 << 10, 1 << 14, 1 << 18),
                 ImmutableList.of(4, 6, 8),
-                Arrays.<Dataset>asList(Datasets.values()));
+                datasets);
         db.shutDown();
     }
 }
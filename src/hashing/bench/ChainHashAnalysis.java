@@ -2,7 +2,6 @@ package hashing.bench;
 
 import gr.forth.ics.jbenchy.Aggregator;
 import gr.forth.ics.jbenchy.Database;
-import gr.forth.ics.jbenchy.DbFactories;
 import gr.forth.ics.jbenchy.Filters;
 import gr.forth.ics.jbenchy.Orders;
 import gr.forth.ics.jbenchy.Record;
@@ -11,7 +10,7 @@ import hashing.bench.ChainHashBench.Vars;
 
 public class ChainHashAnalysis {
     public static void main(String[] args) {
-        Database db = DbFactories.localDerby().get(Db.CHAINHASH_DB);
+        Database db = Db.open(Db.CHAINHASH_DB);
         Aggregator aggr = db.get(Db.CHAINHASH_AGGR);
 
         Records records = aggr.
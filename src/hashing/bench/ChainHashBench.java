@@ -2,20 +2,26 @@ package hashing.bench;
 
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import gr.forth.ics.jbenchy.Aggregator;
 import gr.forth.ics.jbenchy.DataTypes;
 import gr.forth.ics.jbenchy.Database;
-import gr.forth.ics.jbenchy.DbFactories;
 import gr.forth.ics.jbenchy.Record;
 import gr.forth.ics.jbenchy.Schema;
+import hashing.BucketUniformity;
+import hashing.ChainedIntMap;
 import hashing.Dataset;
-import hashing.Datasets;
 import hashing.FakeChainHashtable;
+import hashing.FakeChainHashtable.Histogram;
+import hashing.IntDatasets;
 import hashing.Scrambler;
 import hashing.Scramblers;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 public class ChainHashBench {
     enum Vars {
@@ -28,7 +34,37 @@ public class ChainHashBench {
         /** Average chain length (ignoring empty chains) */
         AVG_CHAIN,
         /** Standard deviation of chain length (ignoring empty chains)*/
-        STDDEV_CHAIN
+        STDDEV_CHAIN,
+        /** Average time (in nanoseconds) of a successful lookup in a ChainedIntMap using the same scrambler */
+        GET_HIT_NANOS,
+        /** Average time (in nanoseconds) of an unsuccessful lookup in a ChainedIntMap using the same scrambler */
+        GET_MISS_NANOS,
+        /** Average time (in nanoseconds) of creating an object of the dataset and computing its hashCode() */
+        CREATE_AND_HASH_NANOS,
+        /** Fraction of buckets with empty chains */
+        EMPTY_FRACTION,
+        /** The 99th percentile of chain length (ignoring empty chains) */
+        P99_CHAIN,
+        /** The 99.9th percentile of chain length (ignoring empty chains) */
+        P999_CHAIN,
+        /** Maximum chain length */
+        MAX_CHAIN,
+        /** Expected elements compared by a successful lookup */
+        AVG_PROBES_SUCCESS,
+        /** The ratio of inserted elements to buckets */
+        LOAD_FACTOR,
+        /** The number of keys of the dataset that are hashed */
+        KEYS,
+        /** Logarithm of the number of buckets (the hashed keys are not stored, so there is no load factor) */
+        BUCKET_BITS,
+        /** The bits of the scrambled hashCode that select the bucket (see BucketUniformity.Bits) */
+        BUCKET_SELECTION,
+        /** Pearson's chi-square statistic of the bucket occupancy */
+        CHI_SQUARE,
+        /** The chi-square statistic in standard deviations from its expected value, for uniform buckets */
+        CHI_SQUARE_Z,
+        /** The probability that uniform buckets would be at least as uneven */
+        P_VALUE
     }
 
     private static Schema schema() {
@@ -37,49 +73,297 @@ public class ChainHashBench {
             add(Vars.N, DataTypes.INTEGER).
             add(Vars.DATASET, DataTypes.SMALL_STRING).
             add(Vars.AVG_CHAIN, DataTypes.DOUBLE).
-            add(Vars.STDDEV_CHAIN, DataTypes.DOUBLE);
+            add(Vars.STDDEV_CHAIN, DataTypes.DOUBLE).
+            add(Vars.GET_HIT_NANOS, DataTypes.DOUBLE).
+            add(Vars.GET_MISS_NANOS, DataTypes.DOUBLE).
+            add(Vars.CREATE_AND_HASH_NANOS, DataTypes.DOUBLE).
+            add(Vars.EMPTY_FRACTION, DataTypes.DOUBLE).
+            add(Vars.P99_CHAIN, DataTypes.INTEGER).
+            add(Vars.P999_CHAIN, DataTypes.INTEGER).
+            add(Vars.MAX_CHAIN, DataTypes.INTEGER).
+            add(Vars.AVG_PROBES_SUCCESS, DataTypes.DOUBLE);
+    }
+
+    private static Schema sweepSchema() {
+        return histogramSchema().
+            add(Vars.LOAD_FACTOR, DataTypes.DOUBLE);
+    }
+
+    private static Schema uniformitySchema() {
+        return new Schema().
+            add(Vars.SCRAMBLER, DataTypes.string(20)).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.KEYS, DataTypes.INTEGER).
+            add(Vars.BUCKET_BITS, DataTypes.INTEGER).
+            add(Vars.BUCKET_SELECTION, DataTypes.SMALL_STRING).
+            add(Vars.CHI_SQUARE, DataTypes.DOUBLE).
+            add(Vars.CHI_SQUARE_Z, DataTypes.DOUBLE).
+            add(Vars.P_VALUE, DataTypes.DOUBLE);
+    }
+
+    private static Schema histogramSchema() {
+        return new Schema().
+            add(Vars.SCRAMBLER, DataTypes.string(20)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.AVG_CHAIN, DataTypes.DOUBLE).
+            add(Vars.STDDEV_CHAIN, DataTypes.DOUBLE).
+            add(Vars.EMPTY_FRACTION, DataTypes.DOUBLE).
+            add(Vars.P99_CHAIN, DataTypes.INTEGER).
+            add(Vars.P999_CHAIN, DataTypes.INTEGER).
+            add(Vars.MAX_CHAIN, DataTypes.INTEGER).
+            add(Vars.AVG_PROBES_SUCCESS, DataTypes.DOUBLE);
     }
 
     public static void runBenchmark(Aggregator aggr,
             Iterable<Scrambler> scramblers,
             Iterable<Integer> bitLengths,
-            Iterable<Dataset> datasets) {
-        for (Scrambler scrambler : scramblers) {
-            for (int bits : bitLengths) {
-                int tableSize = 1 << bits;
-                for (Dataset dataset : datasets) {
-                    int threshold = (int)(0.75 * tableSize) - 1;
-                    FakeChainHashtable hashtable = new FakeChainHashtable(tableSize, scrambler);
-                    for (int i = 0; i < threshold; i++) {
-                        Object o = dataset.create(i);
-                        hashtable.put(o);
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final Scrambler scrambler : scramblers) {
+            for (final int bits : bitLengths) {
+                for (final Dataset dataset : datasets) {
+                    if (!BenchDatasets.hasKeys(dataset, 2L * threshold(bits), scrambler + ", N=" + bits)) {
+                        continue;
+                    }
+                    grid.submit(new Callable<Record>() {
+                        public Record call() {
+                            return runConfiguration(scrambler, bits, dataset);
+                        }
+                    });
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    private static Record runConfiguration(Scrambler scrambler, int bits, Dataset dataset) {
+        int tableSize = 1 << bits;
+        int threshold = threshold(bits);
+        FakeChainHashtable hashtable = new FakeChainHashtable(tableSize, scrambler);
+        ChainedIntMap map = new ChainedIntMap(tableSize, scrambler, 0.75);
+        int[] keys = new int[threshold];
+        int[] missingKeys = new int[threshold];
+        for (int i = 0; i < threshold; i++) {
+            Object o = dataset.create(i);
+            hashtable.put(o);
+            keys[i] = o.hashCode();
+            map.put(keys[i], i);
+        }
+        IntDatasets.hashCodesOf(dataset).fill(threshold, missingKeys);
+
+        return histogramRecord(hashtable, bits, dataset).
+                add(Vars.GET_HIT_NANOS, 1e9 / new GetThroughput(map, keys).measure(threshold)).
+                add(Vars.GET_MISS_NANOS, 1e9 / new GetThroughput(map, missingKeys).measure(threshold)).
+                add(Vars.CREATE_AND_HASH_NANOS, 1e9 / new HashThroughput(dataset, threshold).measure(threshold));
+    }
+
+    /**
+     * Returns the number of elements that fill a table of {@code 2^bits} buckets to less than 0.75.
+     */
+    private static int threshold(int bits) {
+        return (int)(0.75 * (1 << bits)) - 1;
+    }
+
+    /**
+     * Records only the chain-length statistics of each configuration (with no {@code ChainedIntMap},
+     * nor arrays of keys), so that tables of up to 2^28 buckets can be measured. Configurations run
+     * one at a time, and those whose counters could not fit in half of the heap are skipped.
+     */
+    public static void runHistogramBenchmark(Aggregator aggr,
+            Iterable<Scrambler> scramblers,
+            Iterable<Integer> bitLengths,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        long maxBytes = Runtime.getRuntime().maxMemory() / 2;
+        ParallelGrid grid = new ParallelGrid(aggr, 1);
+        for (final int bits : bitLengths) {
+            if ((2L << bits) > maxBytes) {
+                System.out.println("Skipping N=" + bits + ": not enough memory");
+                continue;
+            }
+            for (final Scrambler scrambler : scramblers) {
+                for (final Dataset dataset : datasets) {
+                    if (!BenchDatasets.hasKeys(dataset, threshold(bits), scrambler + ", N=" + bits)) {
+                        continue;
                     }
+                    grid.submit(new Callable<Record>() {
+                        public Record call() {
+                            int threshold = threshold(bits);
+                            FakeChainHashtable hashtable = new FakeChainHashtable(1 << bits, scrambler);
+                            for (int i = 0; i < threshold; i++) {
+                                hashtable.put(dataset.create(i));
+                            }
+                            return histogramRecord(hashtable, bits, dataset);
+                        }
+                    });
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
 
-                    double[] results = hashtable.computeAverageChainLengthAndStddev();
-                    double avgChainLength = results[0];
-                    double stddev = results[1];
-
-                    Record record = new Record().
-                            add(Vars.SCRAMBLER, scrambler).
-                            add(Vars.N, bits).
-                            add(Vars.DATASET, dataset).
-                            add(Vars.AVG_CHAIN, avgChainLength).
-                            add(Vars.STDDEV_CHAIN, stddev);
-                    System.out.println(record);
-                    aggr.record(record);
+    /**
+     * Records the chain-length statistics at each of the given (ascending) load factors (which may
+     * exceed 1), filling a single {@code FakeChainHashtable} per configuration.
+     */
+    public static void runLoadFactorSweep(Aggregator aggr,
+            Iterable<Scrambler> scramblers,
+            Iterable<Integer> bitLengths,
+            final Iterable<Double> loadFactors,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final Scrambler scrambler : scramblers) {
+            for (final int bits : bitLengths) {
+                final int[] counts = LoadFactors.elementCounts(loadFactors, 1 << bits, Integer.MAX_VALUE);
+                for (final Dataset dataset : datasets) {
+                    if (!BenchDatasets.hasKeys(dataset, counts[counts.length - 1], scrambler + ", N=" + bits)) {
+                        continue;
+                    }
+                    grid.submitAll(new Callable<List<Record>>() {
+                        public List<Record> call() {
+                            FakeChainHashtable hashtable = new FakeChainHashtable(1 << bits, scrambler);
+                            List<Record> records = Lists.newArrayList();
+                            int i = 0;
+                            int checkpoint = 0;
+                            for (double loadFactor : loadFactors) {
+                                for (; i < counts[checkpoint]; i++) {
+                                    hashtable.put(dataset.create(i));
+                                }
+                                checkpoint++;
+                                records.add(histogramRecord(hashtable, bits, dataset).
+                                        add(Vars.LOAD_FACTOR, loadFactor));
+                            }
+                            return records;
+                        }
+                    });
                 }
             }
         }
+        grid.awaitCompletion();
+    }
+
+    /**
+     * Records the chi-square uniformity of the buckets selected by both the low and the high bits of
+     * the scrambled hash codes, for each of the given table sizes, counting the given number of keys of
+     * each dataset (or all of the keys of a key file, if fewer) in a single pass. Configurations run one
+     * at a time, each counted in parallel.
+     */
+    public static void runUniformityBenchmark(Aggregator aggr,
+            Iterable<Scrambler> scramblers,
+            final int keys,
+            final int[] bucketBits,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr, 1);
+        for (final Scrambler scrambler : scramblers) {
+            for (final Dataset dataset : datasets) {
+                grid.submitAll(new Callable<List<Record>>() {
+                    public List<Record> call() throws InterruptedException, ExecutionException {
+                        int datasetKeys = Math.min(keys, BenchDatasets.size(dataset));
+                        BucketUniformity uniformity = BucketUniformity.measure(scrambler, dataset, datasetKeys,
+                                bucketBits, ParallelGrid.DEFAULT_PARALLELISM);
+                        List<Record> records = Lists.newArrayList();
+                        for (int bits : bucketBits) {
+                            for (BucketUniformity.Bits selection : BucketUniformity.Bits.values()) {
+                                records.add(new Record().
+                                        add(Vars.SCRAMBLER, scrambler).
+                                        add(Vars.DATASET, dataset).
+                                        add(Vars.KEYS, datasetKeys).
+                                        add(Vars.BUCKET_BITS, bits).
+                                        add(Vars.BUCKET_SELECTION, selection).
+                                        add(Vars.CHI_SQUARE, uniformity.getChiSquare(bits, selection)).
+                                        add(Vars.CHI_SQUARE_Z, uniformity.getZScore(bits, selection)).
+                                        add(Vars.P_VALUE, uniformity.getPValue(bits, selection)));
+                            }
+                        }
+                        return records;
+                    }
+                });
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    private static Record histogramRecord(FakeChainHashtable hashtable, int bits, Dataset dataset) {
+        Histogram histogram = hashtable.computeHistogram();
+        return new Record().
+                add(Vars.SCRAMBLER, hashtable.getScrambler()).
+                add(Vars.N, bits).
+                add(Vars.DATASET, dataset).
+                add(Vars.AVG_CHAIN, histogram.getAverageChainLength()).
+                add(Vars.STDDEV_CHAIN, histogram.getChainLengthStddev()).
+                add(Vars.EMPTY_FRACTION, histogram.getEmptyFraction()).
+                add(Vars.P99_CHAIN, histogram.getChainLengthPercentile(0.99)).
+                add(Vars.P999_CHAIN, histogram.getChainLengthPercentile(0.999)).
+                add(Vars.MAX_CHAIN, histogram.getMaxChainLength()).
+                add(Vars.AVG_PROBES_SUCCESS, histogram.getExpectedProbesOnSuccess());
+    }
+
+    private static class GetThroughput extends Throughput {
+        private final ChainedIntMap map;
+        private final int[] lookups;
+
+        GetThroughput(ChainedIntMap map, int[] lookups) {
+            this.map = map;
+            this.lookups = lookups;
+        }
+
+        @Override protected long round() {
+            long sum = 0;
+            for (int key : lookups) {
+                sum += map.get(key, -1);
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Creates objects of a dataset and hashes them, e.g. to compare hashing keys from their bytes
+     * against building a {@code String} and hashing that.
+     */
+    private static class HashThroughput extends Throughput {
+        private final Dataset dataset;
+        private final int count;
+
+        HashThroughput(Dataset dataset, int count) {
+            this.dataset = dataset;
+            this.count = count;
+        }
+
+        @Override protected long round() {
+            long sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += dataset.create(i).hashCode();
+            }
+            return sum;
+        }
     }
 
-    public static void main(String[] args) {
-        Database db = DbFactories.localDerby().getOrCreate(Db.CHAINHASH_DB);
+    public static void main(String[] args) throws Exception {
+        Database db = Db.open(Db.CHAINHASH_DB);
         Aggregator aggr = db.forceCreate(schema(), Db.CHAINHASH_AGGR);
+        List<Dataset> datasets = BenchDatasets.all();
 
         runBenchmark(aggr,
                 Arrays.<Scrambler>asList(Scramblers.values()),
                 ImmutableList.of(4, 8, 12, 16, 20),
-                Arrays.<Dataset>asList(Datasets.values()));
+                datasets);
+
+        runHistogramBenchmark(db.forceCreate(histogramSchema(), Db.CHAINHASH_HISTOGRAM_AGGR),
+                Arrays.<Scrambler>asList(Scramblers.values()),
+                ImmutableList.of(24, 28),
+                datasets);
+
+        runLoadFactorSweep(db.forceCreate(sweepSchema(), Db.CHAINHASH_SWEEP_AGGR),
+                Arrays.<Scrambler>asList(Scramblers.values()),
+                ImmutableList.of(16, 20),
+                LoadFactors.range(25, 200, 25),
+                datasets);
+
+        runUniformityBenchmark(db.forceCreate(uniformitySchema(), Db.CHAINHASH_UNIFORMITY_AGGR),
+                Arrays.<Scrambler>asList(Scramblers.values()),
+                1 << 30,
+                new int[] { 8, 14, 20 },
+                datasets);
         db.shutDown();
     }
 }
@@ -1,12 +1,49 @@
 package hashing.bench;
 
+import gr.forth.ics.jbenchy.Database;
+import gr.forth.ics.jbenchy.DbFactories;
+import java.io.File;
+
 public class Db {
     private Db() { }
 
+    /**
+     * Opens the database of the given name: a local Derby database, unless the {@code hashing.resultsDir}
+     * system property names a directory, in which case each aggregator of the database is a CSV file
+     * in its {@code <name>} subdirectory (see {@link FileAggregator}), and the records are also forwarded to
+     * the Derby database only if {@code hashing.forwardToDerby} is {@code true}.
+     */
+    public static Database open(String name) {
+        String resultsDir = System.getProperty("hashing.resultsDir");
+        if (resultsDir == null) {
+            return DbFactories.localDerby().getOrCreate(name);
+        }
+        return new FileDatabase(new File(resultsDir, name),
+                Boolean.getBoolean("hashing.forwardToDerby") ? DbFactories.localDerby().getOrCreate(name) : null);
+    }
+
     public static final String OPENHASH_DB = "db";
     public static final String CHAINHASH_DB = "db";
     public static final String BLOOM_DB = "db";
+    public static final String SPEED_DB = "db";
+    public static final String AVALANCHE_DB = "db";
     public static final String CHAINHASH_AGGR = "chainhash";
+    public static final String CHAINHASH_HISTOGRAM_AGGR = "chainhashhistogram";
+    public static final String CHAINHASH_SWEEP_AGGR = "chainhashsweep";
+    public static final String CHAINHASH_UNIFORMITY_AGGR = "chainhashuniformity";
     public static final String OPENHASH_AGGR = "openhash";
+    public static final String OPENHASH_SWEEP_AGGR = "openhashsweep";
+    public static final String OPENHASH_ROBINHOOD_AGGR = "openhashrobinhood";
+    public static final String OPENHASH_SWISS_AGGR = "openhashswiss";
+    public static final String OPENHASH_CUCKOO_AGGR = "openhashcuckoo";
     public static final String BLOOM_AGGR = "bloom";
+    public static final String BLOOM_CONCURRENT_AGGR = "bloomconcurrent";
+    public static final String BLOOM_LONG_AGGR = "bloomlong";
+    public static final String BLOOM_MAPPED_AGGR = "bloommapped";
+    public static final String BLOOM_SLIDING_AGGR = "bloomsliding";
+    public static final String BLOOM_CUCKOO_AGGR = "bloomcuckoo";
+    public static final String SCRAMBLER_SPEED_AGGR = "scramblerspeed";
+    public static final String MULTIHASHER_SPEED_AGGR = "multihasherspeed";
+    public static final String AVALANCHE_AGGR = "avalanche";
+    public static final String AVALANCHE_SAC_AGGR = "avalanchesac";
 }
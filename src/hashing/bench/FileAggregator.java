@@ -0,0 +1,485 @@
+package hashing.bench;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import gr.forth.ics.jbenchy.Aggregate;
+import gr.forth.ics.jbenchy.Aggregator;
+import gr.forth.ics.jbenchy.DataType;
+import gr.forth.ics.jbenchy.DataTypes;
+import gr.forth.ics.jbenchy.Filter;
+import gr.forth.ics.jbenchy.Order;
+import gr.forth.ics.jbenchy.Record;
+import gr.forth.ics.jbenchy.Records;
+import gr.forth.ics.jbenchy.Schema;
+import gr.forth.ics.jbenchy.impl.AbstractAggregator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * An {@code Aggregator} whose records are kept in memory and appended to a CSV file, instead of a
+ * Derby table. The first line of the file names each variable of the schema and its SQL type (e.g.
+ * {@code N:INTEGER}), and each following line is a record; values are quoted if they contain commas,
+ * quotes or line breaks, and missing values are left empty.
+ *
+ * <p>Records are buffered, and written to the file (and forwarded, if so requested, to another
+ * aggregator, e.g. a Derby table) upon {@link #flush()}, which {@link ParallelGrid} calls after each
+ * batch. Reports are computed in memory: filters are evaluated as Derby would evaluate the SQL that
+ * {@code Filters} generate, i.e. comparisons of a variable to a value, joined by {@code AND}, which
+ * binds tighter than {@code OR}.
+ */
+class FileAggregator extends AbstractAggregator implements Flushable {
+    private static final String AGGREGATED_COLUMN = "AGGREGATED_COLUMN";
+    private static final String UTF8 = "UTF-8";
+    private static final List<DataType<?>> PREDEFINED_TYPES = Arrays.<DataType<?>>asList(
+            DataTypes.SMALL_STRING, DataTypes.MED_STRING, DataTypes.LONG_STRING, DataTypes.INTEGER,
+            DataTypes.LONG, DataTypes.SHORT, DataTypes.DOUBLE, DataTypes.FLOAT, DataTypes.TIMESTAMP);
+
+    private final File file;
+    private final Schema schema;
+    private final Aggregator forward;
+    private final List<Record> records = Lists.newArrayList();
+    private final List<Record> unflushed = Lists.newArrayList();
+    private Writer out;
+
+    private FileAggregator(File file, Schema schema, Aggregator forward) {
+        super(file.getName().replaceFirst("\\.csv$", ""));
+        this.file = file;
+        this.schema = schema;
+        this.forward = forward;
+    }
+
+    /**
+     * Creates (or overwrites) the file of a new aggregator, writing the header of the schema.
+     *
+     * @param forward an aggregator that all records are forwarded to, upon each flush, or {@code null}
+     */
+    static FileAggregator create(File file, Schema schema, Aggregator forward) throws IOException {
+        FileAggregator aggr = new FileAggregator(file, schema, forward);
+        aggr.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF8));
+        List<String> header = Lists.newArrayList();
+        for (String var : schema.getVariables()) {
+            header.add(var + ":" + schema.getTypeOf(var).getSqlDefinition());
+        }
+        aggr.writeLine(header);
+        aggr.out.flush();
+        return aggr;
+    }
+
+    /**
+     * Loads all records of the file of an aggregator into memory; records added afterwards are
+     * appended to the file.
+     */
+    static FileAggregator load(File file) throws IOException {
+        Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8));
+        try {
+            List<String> header = readLine(in);
+            Preconditions.checkArgument(header != null, "Empty results file: %s", file);
+            Schema schema = new Schema();
+            for (String column : header) {
+                int colon = column.lastIndexOf(':');
+                schema.add(column.substring(0, colon), typeOf(column.substring(colon + 1)));
+            }
+            FileAggregator aggr = new FileAggregator(file, schema, null);
+            List<String> vars = Lists.newArrayList(schema.getVariables());
+            for (List<String> line; (line = readLine(in)) != null; ) {
+                Record record = new Record();
+                for (int i = 0; i < vars.size() && i < line.size(); i++) {
+                    String value = line.get(i);
+                    if (value != null) {
+                        record.add(vars.get(i), schema.getTypeOf(vars.get(i)).parse(value));
+                    }
+                }
+                aggr.records.add(record);
+            }
+            aggr.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), UTF8));
+            return aggr;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static DataType<?> typeOf(String sqlDefinition) {
+        for (DataType<?> type : PREDEFINED_TYPES) {
+            if (type.getSqlDefinition().equals(sqlDefinition)) {
+                return type;
+            }
+        }
+        if (sqlDefinition.startsWith("VARCHAR(")) {
+            return DataTypes.string(Integer.parseInt(
+                    sqlDefinition.substring("VARCHAR(".length(), sqlDefinition.length() - 1)));
+        }
+        return DataTypes.fromSql(sqlDefinition);
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Adds a record, converting its values to the types of the schema, as if stored to a database.
+     */
+    public synchronized void record(Record record) {
+        Record stored = new Record();
+        List<String> line = Lists.newArrayList();
+        for (String var : schema.getVariables()) {
+            Object value = record.get(var);
+            if (value != null) {
+                value = schema.getTypeOf(var).parse(value.toString());
+                stored.add(var, value);
+            }
+            line.add(value == null ? null : value.toString());
+        }
+        try {
+            writeLine(line);
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        records.add(stored);
+        if (forward != null) {
+            unflushed.add(record);
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file, and forwards them to the forwarding aggregator, if any.
+     */
+    public synchronized void flush() throws IOException {
+        out.flush();
+        for (Record record : unflushed) {
+            forward.record(record);
+        }
+        unflushed.clear();
+    }
+
+    synchronized void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    @Override
+    protected synchronized Records report(Aggregate aggregate, Filter filter, List<Order> orders, Object... vars) {
+        String function = aggregate.toSql().substring(0, aggregate.toSql().indexOf('('));
+        String aggregated = aggregate.getVariableName();
+        Map<List<Object>, Group> groups = Maps.newLinkedHashMap();
+        for (Record record : matching(filter)) {
+            List<Object> key = Lists.newArrayList();
+            for (Object var : vars) {
+                key.add(record.get(var));
+            }
+            Group group = groups.get(key);
+            if (group == null) {
+                groups.put(key, group = new Group());
+            }
+            group.add(function.equals("COUNT") ? Boolean.TRUE : record.get(aggregated));
+        }
+        Class<?> resultType = aggregate.getResultType(schema).getMappedType();
+        List<Record> result = Lists.newArrayList();
+        for (Map.Entry<List<Object>, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+            Object value = function.equals("COUNT") ? toType(group.count, resultType)
+                    : function.equals("SUM") ? toType(group.sum, resultType)
+                    : function.equals("AVG") ? toType(group.sum / group.count, resultType)
+                    : function.equals("MIN") ? group.min
+                    : group.max;
+            Record record = new Record(value);
+            for (int i = 0; i < vars.length; i++) {
+                record.add(vars[i], entry.getKey().get(i));
+            }
+            result.add(record);
+        }
+        Collections.sort(result, comparator(orders, aggregated));
+        return new Records(result, Arrays.asList(vars));
+    }
+
+    /**
+     * The count, sum, minimum and maximum of the (non-null) values of a group of records.
+     */
+    private static class Group {
+        long count;
+        double sum;
+        Comparable<Object> min;
+        Comparable<Object> max;
+
+        @SuppressWarnings("unchecked")
+        void add(Object value) {
+            if (value == null) {
+                return;
+            }
+            count++;
+            if (value instanceof Number) {
+                sum += ((Number)value).doubleValue();
+            }
+            Comparable<Object> comparable = (Comparable<Object>)value;
+            if (min == null || comparable.compareTo(min) < 0) {
+                min = comparable;
+            }
+            if (max == null || comparable.compareTo(max) > 0) {
+                max = comparable;
+            }
+        }
+    }
+
+    private static Object toType(double value, Class<?> type) {
+        if (type == Integer.class) {
+            return (int)value;
+        } else if (type == Long.class) {
+            return (long)value;
+        } else if (type == Short.class) {
+            return (short)value;
+        } else if (type == Float.class) {
+            return (float)value;
+        }
+        return value;
+    }
+
+    @Override
+    protected synchronized <T> List<T> domainOfVariable(Filter filter, List<Order> orders, Object var, Class<T> clazz) {
+        TreeSet<Object> values = new TreeSet<Object>();
+        for (Record record : matching(filter)) {
+            if (record.get(var) != null) {
+                values.add(record.get(var));
+            }
+        }
+        List<Record> distinct = Lists.newArrayList();
+        for (Object value : values) {
+            distinct.add(new Record().add(var, value));
+        }
+        Collections.sort(distinct, comparator(orders, null));
+        List<T> domain = Lists.newArrayList();
+        for (Record record : distinct) {
+            domain.add(clazz.cast(record.get(var)));
+        }
+        return domain;
+    }
+
+    @Override
+    protected synchronized void deleteRecords(Filter filter) {
+        records.removeAll(matching(filter));
+        try {
+            out.close();
+            FileAggregator rewritten = create(file, schema, null);
+            for (Record record : records) {
+                rewritten.writeLine(valuesOf(record));
+            }
+            out = rewritten.out;
+            out.flush();
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private List<String> valuesOf(Record record) {
+        List<String> line = Lists.newArrayList();
+        for (String var : schema.getVariables()) {
+            Object value = record.get(var);
+            line.add(value == null ? null : value.toString());
+        }
+        return line;
+    }
+
+    private List<Record> matching(Filter filter) {
+        FilterExpression expression = new FilterExpression(filter == null ? "0=0" : filter.toSql(schema));
+        List<Record> matching = Lists.newArrayList();
+        for (Record record : records) {
+            if (expression.matches(record)) {
+                matching.add(record);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Returns a comparator of result records by the given orders: each order names a variable, or the
+     * aggregated value (which may also be named after the aggregated variable).
+     */
+    private static Comparator<Record> comparator(final List<Order> orders, final String aggregated) {
+        return new Comparator<Record>() {
+            public int compare(Record r1, Record r2) {
+                for (Order order : orders) {
+                    String var = order.toSql().substring(0, order.toSql().lastIndexOf(' '));
+                    boolean isAggregate = var.equals(AGGREGATED_COLUMN) || var.equals(aggregated);
+                    int c = order.compare(
+                            isAggregate ? r1.getValue() : r1.get(var),
+                            isAggregate ? r2.getValue() : r2.get(var));
+                    if (c != 0) {
+                        return c;
+                    }
+                }
+                return 0;
+            }
+        };
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.length() == 0 || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Reads the values of a line (which may span several lines of text, within quotes), empty
+     * unquoted values being {@code null}, or returns {@code null} at the end of the file.
+     */
+    private static List<String> readLine(Reader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> values = Lists.newArrayList();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (c == '"') {
+                quoted = true;
+                while ((c = in.read()) != -1) {
+                    if (c == '"') {
+                        c = in.read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    value.append((char)c);
+                }
+            }
+            if (c == ',' || c == '\n' || c == -1) {
+                values.add(quoted || value.length() > 0 ? value.toString() : null);
+                if (c != ',') {
+                    return values;
+                }
+                value.setLength(0);
+                quoted = false;
+            } else if (c != '\r') {
+                value.append((char)c);
+            }
+            c = in.read();
+        }
+    }
+
+    /**
+     * A filter, given as the SQL generated by {@code Filters}: comparisons joined by {@code AND} and
+     * {@code OR} (without parentheses), each comparing a variable to a value, or two values.
+     */
+    private class FilterExpression {
+        //a disjunction of conjunctions of comparisons, each as { left, operator, right }
+        private final List<List<String[]>> disjunction = Lists.newArrayList();
+
+        FilterExpression(String sql) {
+            List<String[]> conjunction = Lists.newArrayList();
+            Iterator<String> tokens = tokenize(sql).iterator();
+            while (tokens.hasNext()) {
+                conjunction.add(new String[] { tokens.next(), tokens.next(), tokens.next() });
+                String next = tokens.hasNext() ? tokens.next() : "OR";
+                if (next.equals("OR")) {
+                    disjunction.add(conjunction);
+                    conjunction = Lists.newArrayList();
+                } else {
+                    Preconditions.checkArgument(next.equals("AND"), "Unsupported filter: %s", sql);
+                }
+            }
+        }
+
+        boolean matches(Record record) {
+            for (List<String[]> conjunction : disjunction) {
+                boolean matches = true;
+                for (String[] comparison : conjunction) {
+                    matches &= matches(record, comparison);
+                }
+                if (matches) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean matches(Record record, String[] comparison) {
+            DataType<?> type = typeOf(comparison[0]);
+            if (type == null) {
+                type = typeOf(comparison[2]);
+            }
+            Comparable<Object> left = (Comparable<Object>)valueOf(record, comparison[0], type);
+            Comparable<Object> right = (Comparable<Object>)valueOf(record, comparison[2], type);
+            if (left == null || right == null) {
+                return false;
+            }
+            int c = left.compareTo(right);
+            String operator = comparison[1];
+            return operator.equals("=") ? c == 0
+                    : operator.equals("<>") ? c != 0
+                    : operator.equals("<") ? c < 0
+                    : operator.equals("<=") ? c <= 0
+                    : operator.equals(">") ? c > 0
+                    : c >= 0;
+        }
+
+        private DataType<?> typeOf(String operand) {
+            return operand.startsWith("'") || !schema.getVariables().contains(operand)
+                    ? null : schema.getTypeOf(operand);
+        }
+
+        private Object valueOf(Record record, String operand, DataType<?> type) {
+            if (typeOf(operand) != null) {
+                return record.get(operand);
+            }
+            String literal = operand.startsWith("'") ? operand.substring(1, operand.length() - 1) : operand;
+            return type == null ? literal : type.parse(literal);
+        }
+
+        private List<String> tokenize(String sql) {
+            List<String> tokens = Lists.newArrayList();
+            int i = 0;
+            while (i < sql.length()) {
+                char c = sql.charAt(i);
+                int start = i;
+                if (c == ' ') {
+                    i++;
+                    continue;
+                } else if (c == '\'') {
+                    i = sql.indexOf('\'', i + 1) + 1;
+                    if (i == 0) {
+                        i = sql.length();
+                    }
+                } else if ("<>=".indexOf(c) >= 0) {
+                    while (i < sql.length() && "<>=".indexOf(sql.charAt(i)) >= 0) i++;
+                } else {
+                    while (i < sql.length() && " <>='".indexOf(sql.charAt(i)) < 0) i++;
+                }
+                tokens.add(sql.substring(start, i));
+            }
+            return tokens;
+        }
+    }
+}
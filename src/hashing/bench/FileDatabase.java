@@ -0,0 +1,100 @@
+package hashing.bench;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Maps;
+import gr.forth.ics.jbenchy.Aggregator;
+import gr.forth.ics.jbenchy.Database;
+import gr.forth.ics.jbenchy.Schema;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A {@code Database} whose aggregators are {@link FileAggregator}s, each stored as a CSV file
+ * ({@code <name>.csv}) in a directory, so that benchmarks can record their results without any JDBC
+ * round trips, and analyses can aggregate them without starting Derby. Optionally, all records are
+ * also forwarded, in batches, to the aggregators of the same names of another database.
+ */
+class FileDatabase extends Database {
+    private final File directory;
+    private final Database forward;
+    private final Map<String, FileAggregator> aggregators = Maps.newHashMap();
+
+    /**
+     * @param directory the directory of the files of the aggregators, which is created if needed
+     * @param forward the database that records are forwarded to, or {@code null}
+     */
+    FileDatabase(File directory, Database forward) {
+        Preconditions.checkArgument(directory.isDirectory() || directory.mkdirs(),
+                "Cannot create directory: %s", directory);
+        this.directory = directory;
+        this.forward = forward;
+    }
+
+    private File fileOf(String name) {
+        return new File(directory, name + ".csv");
+    }
+
+    @Override
+    public synchronized boolean delete(String name) {
+        FileAggregator aggr = aggregators.remove(name);
+        try {
+            if (aggr != null) {
+                aggr.close();
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        if (forward != null) {
+            forward.delete(name);
+        }
+        return fileOf(name).delete();
+    }
+
+    @Override
+    public synchronized Aggregator get(String name) {
+        FileAggregator aggr = aggregators.get(name);
+        if (aggr == null) {
+            Preconditions.checkArgument(fileOf(name).isFile(), "No results file: %s", fileOf(name));
+            try {
+                aggr = FileAggregator.load(fileOf(name));
+            } catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+            aggregators.put(name, aggr);
+        }
+        return aggr;
+    }
+
+    @Override
+    public synchronized Aggregator create(Schema schema, String name) {
+        Preconditions.checkArgument(!fileOf(name).exists(), "Results file already exists: %s", fileOf(name));
+        try {
+            FileAggregator aggr = FileAggregator.create(fileOf(name), schema,
+                    forward == null ? null : forward.create(schema, name));
+            aggregators.put(name, aggr);
+            return aggr;
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    /**
+     * Flushes and closes the files of all aggregators, and shuts down the forwarding database, if any.
+     */
+    @Override
+    public synchronized void shutDown() {
+        try {
+            for (FileAggregator aggr : aggregators.values()) {
+                aggr.close();
+            }
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+        aggregators.clear();
+        if (forward != null) {
+            forward.shutDown();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package hashing.bench;
 
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import hashing.Dataset;
 import hashing.Datasets;
 import hashing.FakeBloomFilter;
@@ -9,76 +9,158 @@ import hashing.MultiHasherProducer;
 import hashing.MultiHasherProducers;
 import hashing.UniversalHashing;
 import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Searches for the {@code UniversalHashing} family with the fewest false positives in a Bloom filter.
+ * Candidates are drawn in batches and evaluated on all cores; within a batch, successive halving
+ * tests every candidate on a small sample of lookups, keeps the better half, doubles the sample,
+ * and so on, so that only a few candidates per batch pay for the full evaluation.
+ *
+ * <p>Arguments: the wall-clock budget in seconds (default 600) and the maximum number of
+ * candidates (default 100000); the search stops at whichever comes first.
+ */
 public class FindBestUniversalFamily {
-    public static void main(String[] args) {
-        UniversalFamilyProducer producer = new UniversalFamilyProducer();
-        final int repeats = 100000;
-        final int insertions = 10240;
-        final int totalInsertionTests = insertions * 9;
-        int minPositives = Integer.MAX_VALUE;
-        double ratio = 1.0;
-        MultiHasher best = null;
-        for (Dataset dataset : ImmutableSet.of(Datasets.OBJECTS)) {
-            FakeBloomFilter baseline = FakeBloomFilter.createWithCapacity(insertions, 8, MultiHasherProducers.RANDOM);
-            for (int j = 0; j < insertions; j++) {
-                baseline.put(dataset.create(j));
-            }
-            double fp;
-            {
-                int positives = findFPRate(baseline, dataset, insertions, totalInsertionTests);
-                System.out.println("Baseline: " + positives);
-                fp = (double)positives / totalInsertionTests;
-            }
+    private static final int INSERTIONS = 10240;
+    private static final int TESTS = INSERTIONS * 9;
+    private static final int BITS_PER_ELEMENT = 8;
+    /** Candidates per batch */
+    private static final int BATCH = 256;
+    /** Halvings per batch; the first sample has {@code TESTS >> STAGES} lookups */
+    private static final int STAGES = 5;
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        long budget = TimeUnit.SECONDS.toNanos(args.length > 0 ? Long.parseLong(args[0]) : 600);
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        Dataset dataset = Datasets.OBJECTS;
+
+        final Object[] inserted = new Object[INSERTIONS];
+        for (int j = 0; j < INSERTIONS; j++) {
+            inserted[j] = dataset.create(j);
+        }
+        final Object[] tests = new Object[TESTS];
+        for (int j = 0; j < TESTS; j++) {
+            tests[j] = dataset.create(INSERTIONS + j);
+        }
 
-            for (int i = 0; i < repeats; i++) {
-                FakeBloomFilter filter = FakeBloomFilter.createWithCapacity(insertions, 8, producer);
-                for (int j = 0; j < insertions; j++) {
-                    filter.put(dataset.create(j));
+        Candidate baseline = new Candidate(MultiHasherProducers.RANDOM, inserted);
+        baseline.testUpTo(tests, TESTS);
+        System.out.println("Baseline: " + baseline.positives);
+        double fp = baseline.ratio();
+
+        final UniversalFamilyProducer producer = new UniversalFamilyProducer();
+        ExecutorService executor = Executors.newFixedThreadPool(ParallelGrid.DEFAULT_PARALLELISM);
+        long start = System.nanoTime();
+        Candidate best = null;
+        int candidates = 0;
+        try {
+            while (candidates < repeats && System.nanoTime() - start < budget) {
+                List<Callable<Candidate>> creations = Lists.newArrayList();
+                for (int i = 0; i < Math.min(BATCH, repeats - candidates); i++) {
+                    creations.add(new Callable<Candidate>() {
+                        public Candidate call() {
+                            return new Candidate(producer, inserted);
+                        }
+                    });
                 }
+                List<Candidate> survivors = getAll(executor.invokeAll(creations));
+                candidates += survivors.size();
 
-                int positives = findFPRate(filter, dataset, insertions, totalInsertionTests);
-                if (positives < minPositives) {
-                    minPositives = positives;
-                    ratio = (double)minPositives / totalInsertionTests;
-                    best = filter.getMultiHasher();
+                for (int stage = STAGES; stage >= 0; stage--) {
+                    final int sample = TESTS >> stage;
+                    List<Callable<Candidate>> evaluations = Lists.newArrayList();
+                    for (final Candidate candidate : survivors) {
+                        evaluations.add(new Callable<Candidate>() {
+                            public Candidate call() {
+                                candidate.testUpTo(tests, sample);
+                                return candidate;
+                            }
+                        });
+                    }
+                    survivors = getAll(executor.invokeAll(evaluations));
+                    Collections.sort(survivors);
+                    if (stage > 0) {
+                        survivors = survivors.subList(0, Math.max(1, survivors.size() / 2));
+                    }
                 }
-                if (i % (repeats / 100) == 0) {
-                    System.out.println(i / (repeats / 100) + "%");
-                    System.out.println("Current best: " + best);
-                    System.out.println("With f.p. ratio: " + ratio);
-                    System.out.println("Difference to optimal: " + Math.abs(ratio - filter.computeExpectedFalsePositiveRate()));
-                    System.out.println("Difference to baseline: " + (ratio - fp));
-                    System.out.println("positives: " + minPositives + " of " + totalInsertionTests);
+                if (best == null || survivors.get(0).compareTo(best) < 0) {
+                    best = survivors.get(0);
                 }
+
+                System.out.println(candidates + " candidates in " + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + "s");
+                System.out.println("Current best: " + best.filter.getMultiHasher());
+                System.out.println("With f.p. ratio: " + best.ratio());
+                System.out.println("Difference to optimal: " + Math.abs(best.ratio() - best.filter.computeExpectedFalsePositiveRate()));
+                System.out.println("Difference to baseline: " + (best.ratio() - fp));
+                System.out.println("positives: " + best.positives + " of " + TESTS);
             }
-            System.out.println("*** OVERALL Best: " + best);
-            System.out.println("With f.p. ratio: " + ratio);
+        } finally {
+            executor.shutdown();
+        }
+        if (best != null) {
+            System.out.println("*** OVERALL Best: " + best.filter.getMultiHasher());
+            System.out.println("With f.p. ratio: " + best.ratio());
+            System.out.println("After " + candidates + " candidates in "
+                    + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) + "s");
         }
     }
 
-    static int findFPRate(FakeBloomFilter filter, Dataset dataset, int insertions, int tests) {
-        int positives = 0;
-        for (int j = insertions; j < insertions + tests; j++) {
-            if (filter.mightContain(dataset.create(j))) positives++;
+    private static List<Candidate> getAll(List<Future<Candidate>> futures) throws InterruptedException, ExecutionException {
+        List<Candidate> candidates = Lists.newArrayListWithCapacity(futures.size());
+        for (Future<Candidate> future : futures) {
+            candidates.add(future.get());
+        }
+        return candidates;
+    }
+
+    /**
+     * A Bloom filter under evaluation, which remembers how many of the test lookups it has performed
+     * so far, so that each halving stage only performs the additional lookups of its larger sample.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        final FakeBloomFilter filter;
+        int tested;
+        int positives;
+
+        Candidate(MultiHasherProducer producer, Object[] inserted) {
+            this.filter = FakeBloomFilter.createWithCapacity(inserted.length, BITS_PER_ELEMENT, producer);
+            for (Object o : inserted) {
+                filter.put(o);
+            }
+        }
+
+        void testUpTo(Object[] tests, int count) {
+            for (; tested < count; tested++) {
+                if (filter.mightContain(tests[tested])) positives++;
+            }
+        }
+
+        double ratio() {
+            return (double)positives / tested;
+        }
+
+        public int compareTo(Candidate other) {
+            return Double.compare(ratio(), other.ratio());
         }
-        return positives;
     }
 
     static class UniversalFamilyProducer implements MultiHasherProducer {
-        final Random random = new SecureRandom();
+        final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+            @Override protected Random initialValue() {
+                return new SecureRandom();
+            }
+        };
 
         public MultiHasher produce(int k) {
-            int[] a = new int[k];
-            int[] b = new int[k];
-            for (int i = 0; i < k; i++) {
-                do {
-                    a[i] = random.nextInt();
-                } while (a[i] == 0);
-                b[i] = random.nextInt();
-            }
-            return UniversalHashing.create(a, b);
+            return UniversalHashing.create(k, random.get());
         }
     }
 }
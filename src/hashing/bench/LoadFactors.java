@@ -0,0 +1,45 @@
+package hashing.bench;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+
+/**
+ * Checkpoints of load-factor sweeps, which fill a single table once and snapshot its metrics
+ * each time it reaches the next load factor, instead of filling a new table for each load factor.
+ */
+class LoadFactors {
+    private LoadFactors() { }
+
+    /**
+     * Returns the load factors from {@code fromPercent}% to {@code toPercent}% (inclusive),
+     * every {@code stepPercent}%.
+     */
+    static List<Double> range(int fromPercent, int toPercent, int stepPercent) {
+        Preconditions.checkArgument(fromPercent > 0 && stepPercent > 0, "Load factors must be positive");
+        List<Double> loadFactors = Lists.newArrayList();
+        for (int percent = fromPercent; percent <= toPercent; percent += stepPercent) {
+            loadFactors.add(percent / 100.0);
+        }
+        return loadFactors;
+    }
+
+    /**
+     * Returns the number of elements of a table of the given size at each of the given (ascending)
+     * load factors, up to {@code maxElements}.
+     */
+    static int[] elementCounts(Iterable<Double> loadFactors, int tableSize, int maxElements) {
+        List<Integer> counts = Lists.newArrayList();
+        double previous = 0.0;
+        for (double loadFactor : loadFactors) {
+            Preconditions.checkArgument(loadFactor > previous, "Load factors must be positive and ascending");
+            previous = loadFactor;
+            counts.add((int)Math.min(maxElements, (long)(loadFactor * tableSize)));
+        }
+        int[] result = new int[counts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+}
@@ -3,7 +3,6 @@ package hashing.bench;
 import com.google.common.collect.ImmutableList;
 import gr.forth.ics.jbenchy.Aggregator;
 import gr.forth.ics.jbenchy.Database;
-import gr.forth.ics.jbenchy.DbFactories;
 import gr.forth.ics.jbenchy.Filters;
 import gr.forth.ics.jbenchy.Orders;
 import gr.forth.ics.jbenchy.Record;
@@ -17,7 +16,7 @@ import java.io.IOException;
 
 public class OpenHashAnalysis {
     public static void main(String[] args) throws IOException {
-        Database db = DbFactories.localDerby().get(Db.OPENHASH_DB);
+        Database db = Db.open(Db.OPENHASH_DB);
         Aggregator aggr = db.get(Db.OPENHASH_AGGR);
 
         for (Object var : ImmutableList.of(Vars.AVG_PROBES_SUCCESS, Vars.AVG_PROBES_FAIL)) {
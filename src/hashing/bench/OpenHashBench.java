@@ -5,16 +5,27 @@ import com.google.common.collect.Lists;
 import gr.forth.ics.jbenchy.Aggregator;
 import gr.forth.ics.jbenchy.DataTypes;
 import gr.forth.ics.jbenchy.Database;
-import gr.forth.ics.jbenchy.DbFactories;
 import gr.forth.ics.jbenchy.Record;
 import gr.forth.ics.jbenchy.Schema;
+import hashing.CuckooIntMap;
 import hashing.Dataset;
-import hashing.Datasets;
 import hashing.FakeOpenAddressingHashtable;
-import hashing.FakeOpenAddressingHashtable.ProbeCounter;
+import hashing.IntDataset;
+import hashing.IntDatasets;
+import hashing.IntMap;
+import hashing.MultiHasherProducer;
+import hashing.MultiHasherProducers;
+import hashing.OpenAddressingIntMap;
 import hashing.Prober;
 import hashing.Probers;
+import hashing.RobinHoodIntMap;
+import hashing.Scrambler;
+import hashing.Scramblers;
+import hashing.SwissIntMap;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 public class OpenHashBench {
     enum Vars {
@@ -26,59 +37,605 @@ public class OpenHashBench {
         DATASET,
         /** Average probes for successful query */
         AVG_PROBES_SUCCESS,
-        /** Average probes for unsuccessful query when we have a hashCode() collision */
+        /** Average probes for unsuccessful query (colliding with each stored hashCode) */
         AVG_PROBES_FAIL,
+        /** Insertions per second in an OpenAddressingIntMap using the same prober */
+        PUT_OPS,
+        /** Successful lookups per second in an OpenAddressingIntMap using the same prober */
+        GET_HIT_OPS,
+        /** Unsuccessful lookups per second in an OpenAddressingIntMap using the same prober */
+        GET_MISS_OPS,
+        /** Removals per second in an OpenAddressingIntMap using the same prober */
+        REMOVE_OPS,
+        /** The insertion policy: PLAIN (first free position) or ROBIN_HOOD */
+        POLICY,
+        /** The ratio of occupied table positions */
+        LOAD_FACTOR,
+        /** Variance of probes for successful lookups */
+        PROBES_SUCCESS_VARIANCE,
+        /** Maximum probes for a successful lookup */
+        MAX_PROBES_SUCCESS,
+        /** Average probes for lookups of absent keys */
+        AVG_PROBES_MISS,
+        /** Variance of probes for lookups of absent keys */
+        PROBES_MISS_VARIANCE,
+        /** Maximum probes for a lookup of an absent key */
+        MAX_PROBES_MISS,
+        /** The MultiHasherProducer giving the candidate buckets of a cuckoo hashtable */
+        MULTIHASHER,
+        /** The number of candidate buckets of each key (d) */
+        CHOICES,
+        /** The number of slots of each bucket */
+        SLOTS,
+        /** The load factor at the first insertion that exhausted evictions and stash */
+        LOAD_AT_FAILURE,
+        /** Average evictions per insertion, up to the first failure */
+        AVG_EVICTIONS,
+        /** Longest eviction chain of an insertion, up to the first failure */
+        MAX_EVICTIONS,
+        /** Length of the longest cluster of consecutive occupied positions */
+        LONGEST_CLUSTER,
+        /** Average positions scanned from a random position up to an empty one (the linear-probing miss cost) */
+        AVG_CLUSTER_SCAN,
     }
 
+    //the number of stored and of absent hashCodes whose unsuccessful lookups are sampled in the load factor sweep
+    private static final int MISS_SAMPLE_SIZE = 1 << 12;
+
+    private static final int CUCKOO_MAX_EVICTIONS = 500;
+    private static final int CUCKOO_STASH_SIZE = 4;
+
     private static Schema schema() {
         return new Schema().
             add(Vars.PROBER, DataTypes.string(21)).
             add(Vars.N, DataTypes.INTEGER).
             add(Vars.DATASET, DataTypes.SMALL_STRING).
             add(Vars.AVG_PROBES_SUCCESS, DataTypes.DOUBLE).
-            add(Vars.AVG_PROBES_FAIL, DataTypes.DOUBLE);
+            add(Vars.AVG_PROBES_FAIL, DataTypes.DOUBLE).
+            add(Vars.AVG_PROBES_MISS, DataTypes.DOUBLE).
+            add(Vars.PROBES_SUCCESS_VARIANCE, DataTypes.DOUBLE).
+            add(Vars.MAX_PROBES_SUCCESS, DataTypes.INTEGER).
+            add(Vars.PUT_OPS, DataTypes.DOUBLE).
+            add(Vars.GET_HIT_OPS, DataTypes.DOUBLE).
+            add(Vars.GET_MISS_OPS, DataTypes.DOUBLE).
+            add(Vars.REMOVE_OPS, DataTypes.DOUBLE);
+    }
+
+    private static Schema sweepSchema() {
+        return new Schema().
+            add(Vars.PROBER, DataTypes.string(21)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.LOAD_FACTOR, DataTypes.DOUBLE).
+            add(Vars.AVG_PROBES_SUCCESS, DataTypes.DOUBLE).
+            add(Vars.AVG_PROBES_FAIL, DataTypes.DOUBLE).
+            add(Vars.AVG_PROBES_MISS, DataTypes.DOUBLE).
+            add(Vars.PROBES_SUCCESS_VARIANCE, DataTypes.DOUBLE).
+            add(Vars.MAX_PROBES_SUCCESS, DataTypes.INTEGER).
+            add(Vars.LONGEST_CLUSTER, DataTypes.INTEGER).
+            add(Vars.AVG_CLUSTER_SCAN, DataTypes.DOUBLE);
+    }
+
+    private static Schema probeDistanceSchema() {
+        return new Schema().
+            add(Vars.POLICY, DataTypes.SMALL_STRING).
+            add(Vars.PROBER, DataTypes.string(21)).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.LOAD_FACTOR, DataTypes.DOUBLE).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.AVG_PROBES_SUCCESS, DataTypes.DOUBLE).
+            add(Vars.PROBES_SUCCESS_VARIANCE, DataTypes.DOUBLE).
+            add(Vars.MAX_PROBES_SUCCESS, DataTypes.INTEGER).
+            add(Vars.AVG_PROBES_MISS, DataTypes.DOUBLE).
+            add(Vars.PROBES_MISS_VARIANCE, DataTypes.DOUBLE).
+            add(Vars.MAX_PROBES_MISS, DataTypes.INTEGER).
+            add(Vars.GET_HIT_OPS, DataTypes.DOUBLE).
+            add(Vars.GET_MISS_OPS, DataTypes.DOUBLE);
+    }
+
+    private static Schema cuckooSchema() {
+        return new Schema().
+            add(Vars.MULTIHASHER, DataTypes.string(21)).
+            add(Vars.CHOICES, DataTypes.INTEGER).
+            add(Vars.SLOTS, DataTypes.INTEGER).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.DATASET, DataTypes.SMALL_STRING).
+            add(Vars.LOAD_AT_FAILURE, DataTypes.DOUBLE).
+            add(Vars.AVG_EVICTIONS, DataTypes.DOUBLE).
+            add(Vars.MAX_EVICTIONS, DataTypes.INTEGER).
+            add(Vars.AVG_PROBES_SUCCESS, DataTypes.DOUBLE).
+            add(Vars.MAX_PROBES_SUCCESS, DataTypes.INTEGER).
+            add(Vars.AVG_PROBES_MISS, DataTypes.DOUBLE).
+            add(Vars.MAX_PROBES_MISS, DataTypes.INTEGER).
+            add(Vars.GET_HIT_OPS, DataTypes.DOUBLE).
+            add(Vars.GET_MISS_OPS, DataTypes.DOUBLE);
     }
 
     public static void runBenchmark(Aggregator aggr,
             Iterable<Prober> probers,
             Iterable<Integer> bitLengths,
-            Iterable<Dataset> datasets) {
-        for (Prober prober : probers) {
-            for (int bits : bitLengths) {
-                int tableSize = 1 << bits;
-                for (Dataset dataset : datasets) {
-                    int threshold = (tableSize >> 1) - 1; //less than half full
-                    FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, prober);
-                    for (int i = 0; i < threshold; i++) {
-                        Object o = dataset.create(i);
-                        hashtable.put(o);
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final Prober prober : probers) {
+            for (final int bits : bitLengths) {
+                for (final Dataset dataset : datasets) {
+                    //keys for less than half of the table, then as many absent ones
+                    if (!BenchDatasets.hasKeys(dataset, 1L << bits, prober + ", N=" + bits)) {
+                        continue;
+                    }
+                    grid.submit(new Callable<Record>() {
+                        public Record call() {
+                            return runConfiguration(prober, bits, dataset);
+                        }
+                    });
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    private static Record runConfiguration(Prober prober, int bits, Dataset dataset) {
+        int tableSize = 1 << bits;
+        int threshold = (tableSize >> 1) - 1; //less than half full
+        FakeOpenAddressingHashtable hashtable = newFakeHashtable(prober, bits, dataset);
+
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        int[] keys = new int[threshold];
+        int[] missingKeys = new int[threshold];
+        hashCodes.fill(0, keys);
+        hashCodes.fill(threshold, missingKeys);
+        OpenAddressingIntMap map = new OpenAddressingIntMap(tableSize, prober, 0.5);
+
+        return new Record().
+                add(Vars.PROBER, prober).
+                add(Vars.N, bits).
+                add(Vars.DATASET, dataset).
+                add(Vars.AVG_PROBES_SUCCESS, hashtable.getAverageProbesOnSuccess()).
+                add(Vars.AVG_PROBES_FAIL, hashtable.getAverageProbesOnMiss(keys)).
+                add(Vars.AVG_PROBES_MISS, hashtable.getAverageProbesOnMiss(missingKeys)).
+                add(Vars.PROBES_SUCCESS_VARIANCE, hashtable.getProbesOnSuccessVariance()).
+                add(Vars.MAX_PROBES_SUCCESS, hashtable.getMaxProbesOnSuccess()).
+                add(Vars.PUT_OPS, new PutThroughput(map, keys).measure(threshold)).
+                add(Vars.GET_HIT_OPS, new GetThroughput(map, keys, keys).measure(threshold)).
+                add(Vars.GET_MISS_OPS, new GetThroughput(map, keys, missingKeys).measure(threshold)).
+                add(Vars.REMOVE_OPS, new RemoveThroughput(map, keys).measure(threshold));
+    }
+
+    /**
+     * Records the probe statistics of a {@code FakeOpenAddressingHashtable} at each of the given
+     * (ascending) load factors, filling a single table per configuration. No {@code OpenAddressingIntMap}
+     * nor arrays of all the keys are created, so that large tables can be measured; as many configurations
+     * run at once as the tables of the largest bit length fit in half of the heap. Unsuccessful lookups
+     * are sampled: colliding with {@value #MISS_SAMPLE_SIZE} of the stored hashCodes (AVG_PROBES_FAIL),
+     * and of as many absent ones (AVG_PROBES_MISS).
+     */
+    public static void runLoadFactorSweep(Aggregator aggr,
+            Iterable<Prober> probers,
+            Iterable<Integer> bitLengths,
+            final Iterable<Double> loadFactors,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        long tableBytes = 0;
+        for (int bits : bitLengths) {
+            //a cluster link per position, plus the occupancy bits
+            tableBytes = Math.max(tableBytes, (4L << bits) + (1L << bits) / 8);
+        }
+        long maxBytes = Runtime.getRuntime().maxMemory() / 2;
+        ParallelGrid grid = new ParallelGrid(aggr,
+                (int)Math.max(1, Math.min(ParallelGrid.DEFAULT_PARALLELISM, maxBytes / tableBytes)));
+        for (final Prober prober : probers) {
+            for (final int bits : bitLengths) {
+                for (final Dataset dataset : datasets) {
+                    if (!BenchDatasets.hasKeys(dataset, (1L << bits) + missSampleSize(bits), prober + ", N=" + bits)) {
+                        continue;
                     }
+                    grid.submitAll(new Callable<List<Record>>() {
+                        public List<Record> call() {
+                            return runSweepConfiguration(prober, bits, loadFactors, dataset);
+                        }
+                    });
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
 
-                    ProbeCounter probeCounter = hashtable.newProbeCounter();
-                    double avgProbs_success = probeCounter.computeAverageProbesOnSuccess();
-                    double avgProbs_fail = probeCounter.computeAverageProbesOnCollisions();
-
-                    Record record = new Record().
-                            add(Vars.PROBER, prober).
-                            add(Vars.N, bits).
-                            add(Vars.DATASET, dataset).
-                            add(Vars.AVG_PROBES_SUCCESS, avgProbs_success).
-                            add(Vars.AVG_PROBES_FAIL, avgProbs_fail);
-                    System.out.println(record);
-                    aggr.record(record);
+    private static List<Record> runSweepConfiguration(Prober prober, int bits, Iterable<Double> loadFactors,
+            Dataset dataset) {
+        int tableSize = 1 << bits;
+        int[] counts = LoadFactors.elementCounts(loadFactors, tableSize, tableSize - 1);
+        FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, prober);
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        //no element is inserted from index tableSize on, so these stay absent at every load factor
+        int[] missingKeys = new int[missSampleSize(bits)];
+        hashCodes.fill(tableSize, missingKeys);
+        List<Record> records = Lists.newArrayList();
+        int i = 0;
+        int checkpoint = 0;
+        for (double loadFactor : loadFactors) {
+            for (; i < counts[checkpoint]; i++) {
+                hashtable.put(dataset.create(i));
+            }
+            checkpoint++;
+            records.add(new Record().
+                    add(Vars.PROBER, prober).
+                    add(Vars.N, bits).
+                    add(Vars.DATASET, dataset).
+                    add(Vars.LOAD_FACTOR, loadFactor).
+                    add(Vars.AVG_PROBES_SUCCESS, hashtable.getAverageProbesOnSuccess()).
+                    add(Vars.AVG_PROBES_FAIL, hashtable.getAverageProbesOnMiss(storedSample(hashCodes, i))).
+                    add(Vars.AVG_PROBES_MISS, hashtable.getAverageProbesOnMiss(missingKeys)).
+                    add(Vars.PROBES_SUCCESS_VARIANCE, hashtable.getProbesOnSuccessVariance()).
+                    add(Vars.MAX_PROBES_SUCCESS, hashtable.getMaxProbesOnSuccess()).
+                    add(Vars.LONGEST_CLUSTER, hashtable.getLongestCluster()).
+                    add(Vars.AVG_CLUSTER_SCAN, hashtable.getAverageClusterScan()));
+        }
+        return records;
+    }
+
+    private static int missSampleSize(int bits) {
+        return Math.min(MISS_SAMPLE_SIZE, 1 << bits);
+    }
+
+    /**
+     * Returns the hashCodes of up to {@value #MISS_SAMPLE_SIZE} of the first {@code count} elements,
+     * evenly spread over them.
+     */
+    private static int[] storedSample(IntDataset hashCodes, int count) {
+        int[] sample = new int[Math.min(MISS_SAMPLE_SIZE, count)];
+        for (int j = 0; j < sample.length; j++) {
+            sample[j] = hashCodes.get((int)((long)j * count / sample.length));
+        }
+        return sample;
+    }
+
+    /**
+     * Returns a FakeOpenAddressingHashtable of {@code 2^bits} positions, filled to less than half
+     * with the objects of the dataset.
+     */
+    private static FakeOpenAddressingHashtable newFakeHashtable(Prober prober, int bits, Dataset dataset) {
+        int tableSize = 1 << bits;
+        int threshold = (tableSize >> 1) - 1;
+        FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, prober);
+        for (int i = 0; i < threshold; i++) {
+            hashtable.put(dataset.create(i));
+        }
+        return hashtable;
+    }
+
+    /**
+     * Compares the distribution of probes (mean, variance and maximum) in an {@code OpenAddressingIntMap}
+     * (POLICY = PLAIN) and a {@code RobinHoodIntMap} (POLICY = ROBIN_HOOD) with the same prober, filled up
+     * to each load factor, for lookups of present and of absent keys.
+     */
+    public static void runRobinHoodBenchmark(Aggregator aggr,
+            Iterable<Prober> probers,
+            Iterable<Integer> bitLengths,
+            Iterable<Double> loadFactors,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final Prober prober : probers) {
+            for (final int bits : bitLengths) {
+                for (final double loadFactor : loadFactors) {
+                    for (final Dataset dataset : datasets) {
+                        if (!BenchDatasets.hasKeys(dataset, 2L * elementsCount(bits, loadFactor),
+                                prober + ", N=" + bits + ", " + loadFactor)) {
+                            continue;
+                        }
+                        for (final boolean robinHood : new boolean[] { false, true }) {
+                            grid.submit(new Callable<Record>() {
+                                public Record call() {
+                                    return runProbeDistanceConfiguration(robinHood, prober, bits, loadFactor, dataset);
+                                }
+                            });
+                        }
+                    }
                 }
             }
         }
+        grid.awaitCompletion();
     }
 
-    public static void main(String[] args) {
-        Database db = DbFactories.localDerby().getOrCreate(Db.OPENHASH_DB);
+    private static Record runProbeDistanceConfiguration(boolean robinHood, Prober prober, int bits,
+            double loadFactor, Dataset dataset) {
+        int tableSize = 1 << bits;
+        IntMap map = robinHood
+                ? new RobinHoodIntMap(tableSize, prober, loadFactor)
+                : new OpenAddressingIntMap(tableSize, prober, loadFactor);
+        return runProbeDistanceConfiguration(robinHood ? "ROBIN_HOOD" : "PLAIN", prober, map, bits, loadFactor, dataset);
+    }
+
+    /**
+     * Measures a map created with a table size of {@code 2^bits}, filled up to the given load factor.
+     */
+    private static Record runProbeDistanceConfiguration(String policy, Object hashing, IntMap map, int bits,
+            double loadFactor, Dataset dataset) {
+        int count = elementsCount(bits, loadFactor);
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        int[] keys = new int[count];
+        int[] missingKeys = new int[count];
+        hashCodes.fill(0, keys);
+        hashCodes.fill(count, missingKeys);
+        fill(map, keys);
+        ProbeStatistics hits = new ProbeStatistics(map, keys);
+        ProbeStatistics misses = new ProbeStatistics(map, missingKeys);
+
+        return new Record().
+                add(Vars.POLICY, policy).
+                add(Vars.PROBER, hashing).
+                add(Vars.N, bits).
+                add(Vars.LOAD_FACTOR, loadFactor).
+                add(Vars.DATASET, dataset).
+                add(Vars.AVG_PROBES_SUCCESS, hits.mean).
+                add(Vars.PROBES_SUCCESS_VARIANCE, hits.variance).
+                add(Vars.MAX_PROBES_SUCCESS, hits.max).
+                add(Vars.AVG_PROBES_MISS, misses.mean).
+                add(Vars.PROBES_MISS_VARIANCE, misses.variance).
+                add(Vars.MAX_PROBES_MISS, misses.max).
+                add(Vars.GET_HIT_OPS, new GetThroughput(map, keys, keys).measure(count)).
+                add(Vars.GET_MISS_OPS, new GetThroughput(map, keys, missingKeys).measure(count));
+    }
+
+    /**
+     * Returns the number of elements that fill a table of {@code 2^bits} positions up to the load factor
+     * (leaving at least a position empty); as many absent keys are looked up.
+     */
+    private static int elementsCount(int bits, double loadFactor) {
+        int tableSize = 1 << bits;
+        return Math.min(tableSize - 1, (int)(tableSize * loadFactor));
+    }
+
+    /**
+     * Compares a {@code SwissIntMap} (POLICY = SWISS, PROBER = the name of its scrambler), which probes
+     * groups of 16 positions, against {@code OpenAddressingIntMap}s (POLICY = PLAIN) with each prober,
+     * filled up to each load factor. Beware that a probe of the former examines a whole group.
+     */
+    public static void runGroupProbingBenchmark(Aggregator aggr,
+            Iterable<Scrambler> scramblers,
+            Iterable<Prober> probers,
+            Iterable<Integer> bitLengths,
+            Iterable<Double> loadFactors,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final int bits : bitLengths) {
+            for (final double loadFactor : loadFactors) {
+                for (final Dataset dataset : datasets) {
+                    if (!BenchDatasets.hasKeys(dataset, 2L * elementsCount(bits, loadFactor),
+                            "N=" + bits + ", " + loadFactor)) {
+                        continue;
+                    }
+                    for (final Scrambler scrambler : scramblers) {
+                        grid.submit(new Callable<Record>() {
+                            public Record call() {
+                                return runProbeDistanceConfiguration("SWISS", scrambler,
+                                        new SwissIntMap(1 << bits, scrambler, loadFactor), bits, loadFactor, dataset);
+                            }
+                        });
+                    }
+                    for (final Prober prober : probers) {
+                        grid.submit(new Callable<Record>() {
+                            public Record call() {
+                                return runProbeDistanceConfiguration(false, prober, bits, loadFactor, dataset);
+                            }
+                        });
+                    }
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    /**
+     * Fills a {@code CuckooIntMap} with each multihasher, number of choices and slots per bucket until
+     * its first failed insertion, recording the load reached and the eviction chains up to then; then
+     * measures lookups (probes are buckets, plus one for a non-empty stash) at that load. A key file
+     * is inserted up to its first half at most, and skipped if that is less than the table size.
+     */
+    public static void runCuckooBenchmark(Aggregator aggr,
+            Iterable<MultiHasherProducer> producers,
+            Iterable<Integer> choices,
+            Iterable<Integer> slotsPerBucket,
+            Iterable<Integer> bitLengths,
+            Iterable<Dataset> datasets) throws InterruptedException, ExecutionException {
+        ParallelGrid grid = new ParallelGrid(aggr);
+        for (final MultiHasherProducer producer : producers) {
+            for (final int d : choices) {
+                for (final int slots : slotsPerBucket) {
+                    for (final int bits : bitLengths) {
+                        for (final Dataset dataset : datasets) {
+                            if (!BenchDatasets.hasKeys(dataset, 2L << bits,
+                                    producer + ", d=" + d + ", " + slots + " slots, N=" + bits)) {
+                                continue;
+                            }
+                            grid.submit(new Callable<Record>() {
+                                public Record call() {
+                                    return runCuckooConfiguration(producer, d, slots, bits, dataset);
+                                }
+                            });
+                        }
+                    }
+                }
+            }
+        }
+        grid.awaitCompletion();
+    }
+
+    private static Record runCuckooConfiguration(MultiHasherProducer producer, int d, int slots, int bits,
+            Dataset dataset) {
+        int tableSize = 1 << bits;
+        IntDataset hashCodes = IntDatasets.hashCodesOf(dataset);
+        CuckooIntMap map = new CuckooIntMap(tableSize, producer, d, slots, CUCKOO_MAX_EVICTIONS, CUCKOO_STASH_SIZE);
+        //the keys inserted before the first failure (the dataset may repeat some, or never fill the table);
+        //a key file may only fill up to its first half, leaving the other half for the absent keys
+        int maxCount = Math.min(4 * tableSize, BenchDatasets.size(dataset) / 2);
+        int count = 0;
+        while (count < maxCount) {
+            map.put(hashCodes.get(count), count);
+            if (!Double.isNaN(map.getLoadAtFirstFailure())) {
+                break;
+            }
+            count++;
+        }
+        int[] keys = new int[count];
+        int[] missingKeys = new int[count];
+        hashCodes.fill(0, keys);
+        hashCodes.fill(maxCount, missingKeys);
+        double loadAtFailure = Double.isNaN(map.getLoadAtFirstFailure())
+                ? (double)map.size() / tableSize : map.getLoadAtFirstFailure();
+
+        //reproduces the table right before the failure (filling it resets its random walk)
+        CuckooIntMap filled = new CuckooIntMap(tableSize, producer, d, slots, CUCKOO_MAX_EVICTIONS, CUCKOO_STASH_SIZE);
+        fill(filled, keys);
+        ProbeStatistics hits = new ProbeStatistics(filled, keys);
+        ProbeStatistics misses = new ProbeStatistics(filled, missingKeys);
+
+        return new Record().
+                add(Vars.MULTIHASHER, producer).
+                add(Vars.CHOICES, d).
+                add(Vars.SLOTS, slots).
+                add(Vars.N, bits).
+                add(Vars.DATASET, dataset).
+                add(Vars.LOAD_AT_FAILURE, loadAtFailure).
+                add(Vars.AVG_EVICTIONS, map.getAverageEvictions()).
+                add(Vars.MAX_EVICTIONS, map.getLongestEvictionChain()).
+                add(Vars.AVG_PROBES_SUCCESS, hits.mean).
+                add(Vars.MAX_PROBES_SUCCESS, hits.max).
+                add(Vars.AVG_PROBES_MISS, misses.mean).
+                add(Vars.MAX_PROBES_MISS, misses.max).
+                add(Vars.GET_HIT_OPS, new GetThroughput(filled, keys, keys).measure(count)).
+                add(Vars.GET_MISS_OPS, new GetThroughput(filled, keys, missingKeys).measure(count));
+    }
+
+    /**
+     * The mean, variance and maximum of the probes of looking up some keys (present or not).
+     */
+    private static class ProbeStatistics {
+        final double mean;
+        final double variance;
+        final int max;
+
+        ProbeStatistics(IntMap map, int[] lookups) {
+            long sum = 0;
+            long sumOfSquares = 0;
+            int max = 0;
+            for (int key : lookups) {
+                int probes = map.countProbes(key);
+                sum += probes;
+                sumOfSquares += (long)probes * probes;
+                max = Math.max(max, probes);
+            }
+            this.mean = (double)sum / lookups.length;
+            this.variance = (double)sumOfSquares / lookups.length - mean * mean;
+            this.max = max;
+        }
+    }
+
+    private static void fill(IntMap map, int[] keys) {
+        map.clear();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], i);
+        }
+    }
+
+    private static class PutThroughput extends Throughput {
+        private final IntMap map;
+        private final int[] keys;
+
+        PutThroughput(IntMap map, int[] keys) {
+            this.map = map;
+            this.keys = keys;
+        }
+
+        @Override protected void beforeRound() {
+            map.clear();
+        }
+
+        @Override protected long round() {
+            long added = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (map.put(keys[i], i)) added++;
+            }
+            return added;
+        }
+    }
+
+    private static class GetThroughput extends Throughput {
+        private final IntMap map;
+        private final int[] lookups;
+
+        GetThroughput(IntMap map, int[] keys, int[] lookups) {
+            this.map = map;
+            this.lookups = lookups;
+            fill(map, keys);
+        }
+
+        @Override protected long round() {
+            long sum = 0;
+            for (int key : lookups) {
+                sum += map.get(key, -1);
+            }
+            return sum;
+        }
+    }
+
+    private static class RemoveThroughput extends Throughput {
+        private final IntMap map;
+        private final int[] keys;
+
+        RemoveThroughput(IntMap map, int[] keys) {
+            this.map = map;
+            this.keys = keys;
+        }
+
+        @Override protected void beforeRound() {
+            fill(map, keys);
+        }
+
+        @Override protected long round() {
+            long removed = 0;
+            for (int key : keys) {
+                if (map.remove(key)) removed++;
+            }
+            return removed;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Database db = Db.open(Db.OPENHASH_DB);
         Aggregator aggr = db.forceCreate(schema(), Db.OPENHASH_AGGR);
+        List<Dataset> datasets = BenchDatasets.all();
 
         runBenchmark(aggr,
                 Arrays.<Prober>asList(Probers.values()),
                 ImmutableList.of(4, 8, 12, 16),
-                Arrays.<Dataset>asList(Datasets.values()));
+                datasets);
+
+        Aggregator sweepAggr = db.forceCreate(sweepSchema(), Db.OPENHASH_SWEEP_AGGR);
+        runLoadFactorSweep(sweepAggr,
+                Arrays.<Prober>asList(Probers.values()),
+                ImmutableList.of(20, 26),
+                LoadFactors.range(50, 95, 5),
+                datasets);
+
+        runRobinHoodBenchmark(db.forceCreate(probeDistanceSchema(), Db.OPENHASH_ROBINHOOD_AGGR),
+                Arrays.<Prober>asList(Probers.values()),
+                ImmutableList.of(8, 12, 16),
+                ImmutableList.of(0.5, 0.75, 0.9),
+                datasets);
+
+        runGroupProbingBenchmark(db.forceCreate(probeDistanceSchema(), Db.OPENHASH_SWISS_AGGR),
+                ImmutableList.<Scrambler>of(Scramblers.WANG, Scramblers.JENKINS),
+                ImmutableList.<Prober>of(Probers.LINEAR, Probers.QUADRATIC, Probers.DBL_HASHMAP,
+                        Probers.DBL_WANG, Probers.DBL_JENKINS),
+                ImmutableList.of(8, 12, 16),
+                ImmutableList.of(0.5, 0.625, 0.75, 0.875),
+                datasets);
+
+        runCuckooBenchmark(db.forceCreate(cuckooSchema(), Db.OPENHASH_CUCKOO_AGGR),
+                Arrays.<MultiHasherProducer>asList(MultiHasherProducers.values()),
+                ImmutableList.of(2, 3, 4),
+                ImmutableList.of(1, 4),
+                ImmutableList.of(12, 16),
+                datasets);
         db.shutDown();
     }
 }
@@ -0,0 +1,142 @@
+package hashing.bench;
+
+import com.google.common.collect.Lists;
+import gr.forth.ics.jbenchy.Aggregator;
+import gr.forth.ics.jbenchy.Record;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Runs independent benchmark configurations (each yielding a {@code Record}) on a pool of
+ * worker threads, and funnels the resulting records to an {@code Aggregator} in batches,
+ * from a single writer thread, which also echoes them to the console, and flushes the
+ * aggregator after each batch if it is {@code Flushable} (e.g. a {@link FileAggregator}).
+ * Usage: {@link #submit(Callable) submit} every configuration of a parameter grid, then
+ * {@link #awaitCompletion() await} them. Configurations run in parallel, except while one of
+ * them measures a {@link Throughput}: then the others wait.
+ */
+class ParallelGrid {
+    static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Held for reading by each running configuration, and for writing by each measurement of a
+     * {@code Throughput}, which thus waits for the running configurations and holds off the rest.
+     */
+    static final ReentrantReadWriteLock timingLock = new ReentrantReadWriteLock();
+
+    private final ExecutorService workers;
+    private final BlockingQueue<Record> records = new LinkedBlockingQueue<Record>();
+    private final Record endOfRecords = new Record();
+    private final List<Future<?>> results = Lists.newArrayList();
+    private final Thread writer;
+    private volatile RuntimeException writerFailure;
+
+    ParallelGrid(Aggregator aggr) {
+        this(aggr, DEFAULT_PARALLELISM);
+    }
+
+    ParallelGrid(final Aggregator aggr, int parallelism) {
+        this.workers = Executors.newFixedThreadPool(parallelism);
+        this.writer = new Thread("record-writer") {
+            @Override public void run() {
+                List<Record> batch = Lists.newArrayListWithCapacity(BATCH_SIZE);
+                StringBuilder console = new StringBuilder();
+                try {
+                    boolean done = false;
+                    while (!done) {
+                        batch.add(records.take());
+                        records.drainTo(batch, BATCH_SIZE - 1);
+                        for (Record record : batch) {
+                            if (record == endOfRecords) {
+                                done = true;
+                                break;
+                            }
+                            console.append(record).append('\n');
+                            aggr.record(record);
+                        }
+                        if (aggr instanceof Flushable) {
+                            ((Flushable)aggr).flush();
+                        }
+                        System.out.print(console);
+                        console.setLength(0);
+                        batch.clear();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    writerFailure = new RuntimeException(e);
+                } catch (RuntimeException e) {
+                    writerFailure = e;
+                }
+            }
+        };
+        writer.start();
+    }
+
+    /**
+     * Schedules a configuration, whose record will be written to the aggregator once computed.
+     */
+    void submit(final Callable<Record> configuration) {
+        results.add(workers.submit(new Callable<Void>() {
+            public Void call() throws Exception {
+                records.put(callUntimed(configuration));
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Schedules a configuration that yields several records (e.g. snapshots of the same table at
+     * increasing loads), which will be written to the aggregator once all of them are computed.
+     */
+    void submitAll(final Callable<? extends Iterable<Record>> configuration) {
+        results.add(workers.submit(new Callable<Void>() {
+            public Void call() throws Exception {
+                for (Record record : callUntimed(configuration)) {
+                    records.put(record);
+                }
+                return null;
+            }
+        }));
+    }
+
+    private static <T> T callUntimed(Callable<T> configuration) throws Exception {
+        timingLock.readLock().lock();
+        try {
+            return configuration.call();
+        } finally {
+            timingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until all submitted configurations have completed and their records have been written,
+     * then releases the threads of this grid.
+     *
+     * @throws ExecutionException if any configuration failed
+     */
+    void awaitCompletion() throws InterruptedException, ExecutionException {
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            workers.shutdownNow();
+            records.put(endOfRecords);
+            writer.join();
+        }
+        if (writerFailure != null) {
+            throw writerFailure;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package hashing.bench;
+
+import com.google.common.collect.ImmutableList;
+import gr.forth.ics.jbenchy.Aggregator;
+import gr.forth.ics.jbenchy.DataTypes;
+import gr.forth.ics.jbenchy.Database;
+import gr.forth.ics.jbenchy.Record;
+import gr.forth.ics.jbenchy.Schema;
+import hashing.MultiHasher;
+import hashing.MultiHasherProducer;
+import hashing.MultiHasherProducers;
+import hashing.Scrambler;
+import hashing.Scramblers;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures the cost (rather than the quality) of each {@code Scrambler} and {@code MultiHasher}.
+ * Throughput is measured over independent invocations, while the average time of an invocation
+ * is measured over a dependent chain (each input depends on the previous result), so that
+ * it cannot be hidden by instruction-level parallelism.
+ */
+public class SpeedBench {
+    enum Vars {
+        /** The scrambling function (which scrambles the hashCode) */
+        SCRAMBLER,
+        /** The multihasher */
+        MULTIHASHER,
+        /** The number of hashes per element */
+        K,
+        /** The table size that hashes are mapped to */
+        TABLE_SIZE,
+        /** Invocations per second */
+        OPS_PER_SEC,
+        /** Average time (in nanoseconds) of an invocation */
+        NANOS_PER_OP,
+    }
+
+    private static final int INPUTS = 1 << 12;
+
+    private static Schema scramblerSchema() {
+        return new Schema().
+            add(Vars.SCRAMBLER, DataTypes.string(20)).
+            add(Vars.OPS_PER_SEC, DataTypes.DOUBLE).
+            add(Vars.NANOS_PER_OP, DataTypes.DOUBLE);
+    }
+
+    private static Schema multihasherSchema() {
+        return new Schema().
+            add(Vars.MULTIHASHER, DataTypes.string(20)).
+            add(Vars.K, DataTypes.INTEGER).
+            add(Vars.TABLE_SIZE, DataTypes.INTEGER).
+            add(Vars.OPS_PER_SEC, DataTypes.DOUBLE).
+            add(Vars.NANOS_PER_OP, DataTypes.DOUBLE);
+    }
+
+    private static int[] randomInputs() {
+        Random random = new Random(0);
+        int[] inputs = new int[INPUTS];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = random.nextInt();
+        }
+        return inputs;
+    }
+
+    public static void runScramblerBenchmark(Aggregator aggr, Iterable<Scrambler> scramblers) {
+        final int[] inputs = randomInputs();
+        for (final Scrambler scrambler : scramblers) {
+            double throughput = new Throughput() {
+                @Override protected long round() {
+                    int result = 0;
+                    for (int input : inputs) {
+                        result += scrambler.scramble(input);
+                    }
+                    return result;
+                }
+            }.measure(INPUTS);
+            double latency = new Throughput() {
+                @Override protected long round() {
+                    int result = 0;
+                    for (int input : inputs) {
+                        result = scrambler.scramble(input ^ result);
+                    }
+                    return result;
+                }
+            }.measure(INPUTS);
+
+            Record record = new Record().
+                    add(Vars.SCRAMBLER, scrambler).
+                    add(Vars.OPS_PER_SEC, throughput).
+                    add(Vars.NANOS_PER_OP, 1e9 / latency);
+            System.out.println(record);
+            aggr.record(record);
+        }
+    }
+
+    public static void runMultiHasherBenchmark(Aggregator aggr,
+            Iterable<MultiHasherProducer> multihasherProducers,
+            Iterable<Integer> hashesCounts,
+            Iterable<Integer> tableSizes) {
+        int[] ints = randomInputs();
+        final Object[] inputs = new Object[INPUTS];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = ints[i];
+        }
+        for (MultiHasherProducer multihasherProducer : multihasherProducers) {
+            for (int k : hashesCounts) {
+                final MultiHasher multiHasher = multihasherProducer.produce(k);
+                final int[] output = new int[k];
+                for (final int tableSize : tableSizes) {
+                    double throughput = new Throughput() {
+                        @Override protected long round() {
+                            long result = 0;
+                            for (Object input : inputs) {
+                                multiHasher.multihash(input, output, tableSize);
+                                result += output[output.length - 1];
+                            }
+                            return result;
+                        }
+                    }.measure(INPUTS);
+                    double latency = new Throughput() {
+                        @Override protected long round() {
+                            int next = 0;
+                            for (int i = 0; i < INPUTS; i++) {
+                                multiHasher.multihash(inputs[(next + i) & (INPUTS - 1)], output, tableSize);
+                                next = output[output.length - 1];
+                            }
+                            return next;
+                        }
+                    }.measure(INPUTS);
+
+                    Record record = new Record().
+                            add(Vars.MULTIHASHER, multihasherProducer).
+                            add(Vars.K, k).
+                            add(Vars.TABLE_SIZE, tableSize).
+                            add(Vars.OPS_PER_SEC, throughput).
+                            add(Vars.NANOS_PER_OP, 1e9 / latency);
+                    System.out.println(record);
+                    aggr.record(record);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        Database db = Db.open(Db.SPEED_DB);
+
+        runScramblerBenchmark(db.forceCreate(scramblerSchema(), Db.SCRAMBLER_SPEED_AGGR),
+                Arrays.<Scrambler>asList(Scramblers.values()));
+        runMultiHasherBenchmark(db.forceCreate(multihasherSchema(), Db.MULTIHASHER_SPEED_AGGR),
+                Arrays.<MultiHasherProducer>asList(MultiHasherProducers.values()),
+                ImmutableList.of(1, 3, 6),
+                ImmutableList.of(1 << 10, 1 << 16, 1 << 24));
+        db.shutDown();
+    }
+}
@@ -0,0 +1,67 @@
+package hashing.bench;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Measures the throughput of a benchmarked operation. Subclasses define one round of
+ * operations (say, one lookup per key of a dataset) and, optionally, an untimed preparation
+ * before each round. Rounds are repeated for a fixed time budget, after an equally long warm-up.
+ * Measurements hold the {@link ParallelGrid#timingLock} for writing, so that no other
+ * configuration of a grid runs at all (not even untimed work, such as filling a table, which
+ * would compete for caches and memory bandwidth) while operations are timed.
+ */
+abstract class Throughput {
+    private static final long BUDGET_NANOS = 50L * 1000 * 1000;
+
+    /**
+     * Results of measured rounds end up here, so that the JIT cannot eliminate them as dead code.
+     */
+    static volatile long sink;
+
+    /**
+     * Performs one round of the measured operations, returning a value that depends on their results.
+     */
+    protected abstract long round();
+
+    /**
+     * Prepares the next round; not included in the measured time.
+     */
+    protected void beforeRound() { }
+
+    /**
+     * Returns the number of operations per second, given the number of operations per round.
+     */
+    public double measure(int opsPerRound) {
+        //the read lock of a running configuration cannot be upgraded, so it is released meanwhile
+        ReentrantReadWriteLock lock = ParallelGrid.timingLock;
+        int readHolds = lock.getReadHoldCount();
+        for (int i = 0; i < readHolds; i++) {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            run(opsPerRound); //warm-up
+            return run(opsPerRound);
+        } finally {
+            lock.writeLock().unlock();
+            for (int i = 0; i < readHolds; i++) {
+                lock.readLock().lock();
+            }
+        }
+    }
+
+    private double run(int opsPerRound) {
+        long result = 0;
+        long rounds = 0;
+        long elapsed = 0;
+        while (elapsed < BUDGET_NANOS) {
+            beforeRound();
+            long start = System.nanoTime();
+            result += round();
+            elapsed += System.nanoTime() - start;
+            rounds++;
+        }
+        sink = result;
+        return rounds * opsPerRound * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,63 @@
+package hashing;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class AvalancheStatisticsTest {
+    @Test
+    public void testIdentityFlipsOnlyTheSameBit() throws Exception {
+        AvalancheStatistics statistics = AvalancheStatistics.measure(Scramblers.IDENTITY, 10, true, 2);
+        assertEquals(1 << 10, statistics.getInputCount());
+        for (int i = 0; i < 32; i++) {
+            for (int j = 0; j < 32; j++) {
+                assertEquals(i == j ? 1.0 : 0.0, statistics.getFlipProbability(i, j), 0.0);
+            }
+        }
+        assertEquals(0.5, statistics.getMaxAvalancheBias(), 0.0);
+        assertEquals(0.5, statistics.getAverageAvalancheBias(), 0.0);
+        assertEquals(1.0, statistics.getMaxIndependenceCorrelation(), 0.0);
+    }
+
+    @Test
+    public void testFixedLowBitIsBiased() throws Exception {
+        AvalancheStatistics statistics = AvalancheStatistics.measure(Scramblers.IDENTITYHASHMAP, 12, false, 1);
+        assertEquals(0.5, statistics.getOutputBias(0), 0.0);
+        assertEquals(0.0, statistics.getFlipProbability(31, 0), 0.0);
+    }
+
+    @Test
+    public void testAgreesWithDirectCounting() throws Exception {
+        int inputBits = 10;
+        AvalancheStatistics statistics = AvalancheStatistics.measure(Scramblers.WANG, inputBits, true, 3);
+        assertEquals(statistics.getFlipProbability(5, 7),
+                AvalancheStatistics.measure(Scramblers.WANG, inputBits, false, 1).getFlipProbability(5, 7), 0.0);
+        //pairs of output bits at distances below, exactly and above 16
+        int[][] pairs = { { 3, 10 }, { 2, 18 }, { 4, 30 }, { 30, 4 } };
+        for (int[] pair : pairs) {
+            int inputBit = 9;
+            long flips1 = 0, flips2 = 0, joint = 0, ones = 0;
+            for (int k = 0; k < 1 << inputBits; k++) {
+                int x = k * 0x9E3779B9;
+                int h = Scramblers.WANG.scramble(x);
+                int d = h ^ Scramblers.WANG.scramble(x ^ (1 << inputBit));
+                int bit1 = (d >>> pair[0]) & 1;
+                int bit2 = (d >>> pair[1]) & 1;
+                flips1 += bit1;
+                flips2 += bit2;
+                joint += bit1 & bit2;
+                ones += (h >>> pair[0]) & 1;
+            }
+            double n = 1 << inputBits;
+            double p1 = flips1 / n, p2 = flips2 / n;
+            double correlation = (joint / n - p1 * p2) / Math.sqrt(p1 * (1 - p1) * p2 * (1 - p2));
+            assertEquals(p1, statistics.getFlipProbability(inputBit, pair[0]), 0.0);
+            assertEquals(Math.abs(ones / n - 0.5), statistics.getOutputBias(pair[0]), 0.0);
+            assertEquals(correlation, statistics.getIndependenceCorrelation(inputBit, pair[0], pair[1]), 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testIndependenceMustBeMeasured() throws Exception {
+        AvalancheStatistics.measure(Scramblers.WANG, 8, false, 1).getMaxIndependenceCorrelation();
+    }
+}
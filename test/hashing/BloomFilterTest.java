@@ -0,0 +1,61 @@
+package hashing;
+
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class BloomFilterTest {
+    @DataPoints
+    public static final BloomFilterFactory[] filterFactories = BloomFilterFactories.values();
+
+    @DataPoints
+    public static final MultiHasherProducer[] multiHasherProducers = MultiHasherProducers.values();
+
+    @DataPoints
+    public static final int[] bitsPerElement = { 4, 6, 8 };
+
+    @Theory
+    public void testNoFalseNegatives(BloomFilterFactory filterFactory,
+            MultiHasherProducer multiHasherProducer, int bitsPerElement) {
+        BloomFilter filter = filterFactory.create(1000, bitsPerElement, multiHasherProducer);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(Datasets.STRINGS.create(i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain(Datasets.STRINGS.create(i)));
+        }
+    }
+
+    @Theory
+    public void testHashCodesAgreeWithElements(BloomFilterFactory filterFactory,
+            MultiHasherProducer multiHasherProducer, int bitsPerElement) {
+        BloomFilter byElement = filterFactory.create(1000, bitsPerElement, multiHasherProducer);
+        BloomFilter byHashCode = filterFactory.create(1000, bitsPerElement, multiHasherProducer);
+        for (int i = 0; i < 1000; i++) {
+            byElement.put(Datasets.STRINGS.create(i));
+            byHashCode.putHash(Datasets.STRINGS.create(i).hashCode());
+        }
+        for (int i = 0; i < 10000; i++) {
+            Object o = Datasets.STRINGS.create(i);
+            assertEquals(byElement.mightContain(o), byHashCode.mightContainHash(o.hashCode()));
+            assertEquals(byElement.mightContain(o), byHashCode.mightContain(o));
+        }
+    }
+
+    @Theory
+    public void testFalsePositiveRateIsBounded(BloomFilterFactory filterFactory,
+            MultiHasherProducer multiHasherProducer, int bitsPerElement) {
+        BloomFilter filter = filterFactory.create(1000, bitsPerElement, multiHasherProducer);
+        assertEquals(0.0, filter.computeFalsePositiveRate(), 0.0);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(Datasets.INTEGERS.create(i));
+        }
+        double expected = filter.computeExpectedFalsePositiveRate();
+        assertTrue(expected > 0.0 && expected < 1.0);
+        double estimated = filter.computeFalsePositiveRate();
+        assertTrue(estimated > 0.0 && estimated < 1.0);
+    }
+}
@@ -0,0 +1,66 @@
+package hashing;
+
+import hashing.BucketUniformity.Bits;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BucketUniformityTest {
+    @Test
+    public void testConsecutiveIntegersFillLowBitsEvenly() throws Exception {
+        int keys = 1 << 16;
+        BucketUniformity uniformity = BucketUniformity.measure(Scramblers.IDENTITY, Datasets.INTEGERS, keys,
+                new int[] { 4, 8 }, 2);
+        assertEquals(keys, uniformity.getKeyCount());
+        assertEquals(0.0, uniformity.getChiSquare(8, Bits.LOW), 0.0);
+        assertEquals(1.0, uniformity.getPValue(8, Bits.LOW), 0.0);
+        assertEquals(keys >> 4, uniformity.getBucketCount(4, Bits.LOW, 3));
+
+        //all keys are below 2^16, so their high bits are all 0
+        assertEquals(keys, uniformity.getBucketCount(4, Bits.HIGH, 0));
+        assertEquals(15.0 * keys, uniformity.getChiSquare(4, Bits.HIGH), 1e-6);
+        assertEquals(0.0, uniformity.getPValue(4, Bits.HIGH), 1e-12);
+    }
+
+    @Test
+    public void testMixingScramblerLooksUniform() throws Exception {
+        BucketUniformity uniformity = BucketUniformity.measure(Scramblers.WANG, Datasets.RND_INTEGERS, 1 << 18,
+                new int[] { 6, 10 }, 3);
+        for (int bits : new int[] { 6, 10 }) {
+            for (Bits selection : Bits.values()) {
+                assertTrue(uniformity.getPValue(bits, selection) > 1e-4);
+                assertTrue(Math.abs(uniformity.getZScore(bits, selection)) < 5.0);
+            }
+        }
+    }
+
+    @Test
+    public void testAgreesAcrossParallelism() throws Exception {
+        int[] bucketBits = { 3, 7 };
+        BucketUniformity single = BucketUniformity.measure(Scramblers.HASHMAP, Datasets.STRINGS, 5000,
+                bucketBits, 1);
+        BucketUniformity parallel = BucketUniformity.measure(Scramblers.HASHMAP, Datasets.STRINGS, 5000,
+                bucketBits, 4);
+        for (int bucket = 0; bucket < 1 << 7; bucket++) {
+            for (Bits selection : Bits.values()) {
+                assertEquals(single.getBucketCount(7, selection, bucket),
+                        parallel.getBucketCount(7, selection, bucket));
+            }
+        }
+        assertEquals(single.getChiSquare(3, Bits.HIGH), parallel.getChiSquare(3, Bits.HIGH), 0.0);
+    }
+
+    @Test
+    public void testChiSquareUpperTail() {
+        //critical values of the chi-square distribution
+        assertEquals(0.05, BucketUniformity.chiSquareUpperTail(18.307, 10), 1e-3);
+        assertEquals(0.01, BucketUniformity.chiSquareUpperTail(135.807, 100), 1e-4);
+        assertEquals(0.05, BucketUniformity.chiSquareUpperTail(1074.679, 1000), 1e-5);
+        assertEquals(1.0, BucketUniformity.chiSquareUpperTail(0.0, 255), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnmeasuredBucketBits() throws Exception {
+        BucketUniformity.measure(Scramblers.IDENTITY, Datasets.INTEGERS, 100, new int[] { 4 }, 1)
+                .getChiSquare(5, Bits.LOW);
+    }
+}
@@ -0,0 +1,87 @@
+package hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class ByteHasherTest {
+    @DataPoints
+    public static final ByteHasher[] hashers = ByteHashers.values();
+
+    private static final String[] MESSAGES = {
+        "", "a", "abc", "message digest", "abcdefghijklmnopqrstuvwxyz",
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789",
+        "12345678901234567890123456789012345678901234567890123456789012345678901234567890"
+    };
+
+    private static final ByteHashers.ByteAccess ARRAY = ByteHashers.ByteAccess.ARRAY;
+
+    private static byte[] ascii(String s) throws Exception {
+        return s.getBytes("US-ASCII");
+    }
+
+    @Test
+    public void testReferenceVectors() throws Exception {
+        assertEquals(0x00000000, ByteHashers.murmur3_32(ARRAY, ascii(""), 0, 0, 0));
+        assertEquals(0x3c2569b2, ByteHashers.murmur3_32(ARRAY, ascii("a"), 0, 1, 0));
+        assertEquals(0xb3dd93fa, ByteHashers.murmur3_32(ARRAY, ascii("abc"), 0, 3, 0));
+
+        assertEquals(0x02cc5d05, ByteHashers.xxHash32(ARRAY, ascii(""), 0, 0, 0));
+        assertEquals(0x550d7456, ByteHashers.xxHash32(ARRAY, ascii("a"), 0, 1, 0));
+        assertEquals(0x32d153ff, ByteHashers.xxHash32(ARRAY, ascii("abc"), 0, 3, 0));
+
+        assertEquals(0xef46db3751d8e999L, ByteHashers.xxHash64(ARRAY, ascii(""), 0, 0, 0));
+        assertEquals(0xd24ec4f1a98c6e5bL, ByteHashers.xxHash64(ARRAY, ascii("a"), 0, 1, 0));
+        assertEquals(0x44bc2cf5ad770999L, ByteHashers.xxHash64(ARRAY, ascii("abc"), 0, 3, 0));
+
+        //the test vectors of wyhash hash the i-th message with seed i
+        long[] wyhash = { 0x93228a4de0eec5a2L, 0xc5bac3db178713c4L, 0xa97f2f7b1d9b3314L, 0x786d1f1df3801df4L,
+                0xdca5a8138ad37c87L, 0xb9e734f117cfaf70L, 0x6cc5eab49a92d617L };
+        for (int i = 0; i < MESSAGES.length; i++) {
+            assertEquals(wyhash[i], ByteHashers.wyhash(ARRAY, ascii(MESSAGES[i]), 0, MESSAGES[i].length(), i));
+        }
+    }
+
+    @Theory
+    public void testIndependentOfBufferKind(ByteHasher hasher) {
+        Random random = new Random(0);
+        for (int length = 0; length < 200; length++) {
+            byte[] bytes = new byte[length + 7];
+            random.nextBytes(bytes);
+            long expected = hasher.hash(bytes, 3, length);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+            direct.put(bytes);
+            assertEquals(expected, hasher.hash(direct, 3, length));
+            direct.order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(expected, hasher.hash(direct, 3, length));
+            assertEquals(bytes.length, direct.position());
+            assertEquals(expected, hasher.hash(ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice(), 2, length));
+            assertEquals(expected, hasher.hash(ByteBuffer.wrap(bytes).asReadOnlyBuffer(), 3, length));
+
+            byte[] copy = new byte[length];
+            System.arraycopy(bytes, 3, copy, 0, length);
+            assertEquals(expected, hasher.hash(copy, 0, length));
+        }
+    }
+
+    @Theory
+    public void testByteKeysEqualByContentAndHasher(ByteHasher hasher) {
+        ByteKey key = (ByteKey)Datasets.BYTES_WYHASH.create(1234);
+        ByteKey other = new ByteKey(new byte[] { 'x', '1', '2', '3', '4' }, 1, 4, hasher);
+        assertEquals("1234", key.toString());
+        assertEquals(hasher == ByteHashers.WYHASH, key.equals(other));
+        assertEquals(hasher == ByteHashers.WYHASH, other.equals(key));
+        ByteKey same = new ByteKey("1234".getBytes(), 0, 4, hasher);
+        assertEquals(other, same);
+        assertEquals(other.hashCode(), same.hashCode());
+        assertFalse(key.equals(Datasets.BYTES_WYHASH.create(123)));
+    }
+}
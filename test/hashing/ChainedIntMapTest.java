@@ -0,0 +1,45 @@
+package hashing;
+
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class ChainedIntMapTest {
+    @DataPoints
+    public static final Scrambler[] scramblers = Scramblers.values();
+
+    @Theory
+    public void testAgreesWithHashMap(Scrambler scrambler) {
+        IntMapAssert.assertAgreesWithHashMap(new ChainedIntMap(1, scrambler, 0.75));
+    }
+
+    @Theory
+    public void testGrowsBeyondInitialTableSize(Scrambler scrambler) {
+        ChainedIntMap map = new ChainedIntMap(1, scrambler, 0.75);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31, i);
+        }
+        assertEquals(1000, map.size());
+        assertTrue(map.size() <= map.getTableSize() * 0.75);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 31, -1));
+        }
+    }
+
+    @Test
+    public void testCountsComparedChainNodes() {
+        //with the identity scrambler, these keys share bucket 0; each put becomes the head of its chain
+        ChainedIntMap map = new ChainedIntMap(4, Scramblers.IDENTITY, 4.0);
+        map.put(0, 0);
+        map.put(4, 1);
+        map.put(8, 2);
+        assertEquals(1, map.countProbes(8));
+        assertEquals(3, map.countProbes(0));
+        assertEquals(3, map.countProbes(12));
+        assertEquals(0, map.countProbes(1));
+    }
+}
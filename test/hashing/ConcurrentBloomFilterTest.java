@@ -0,0 +1,45 @@
+package hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class ConcurrentBloomFilterTest {
+    @DataPoints
+    public static final MultiHasherProducer[] multiHasherProducers = MultiHasherProducers.values();
+
+    @Theory
+    public void testConcurrentPutsAreNotLost(MultiHasherProducer multiHasherProducer) throws InterruptedException {
+        final int threads = 4;
+        final int perThread = 5000;
+        final ConcurrentBloomFilter filter = ConcurrentBloomFilter.createWithCapacity(
+                threads * perThread, 8, multiHasherProducer);
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final int from = t * perThread;
+            workers.add(new Thread() {
+                @Override public void run() {
+                    for (int i = from; i < from + perThread; i++) {
+                        filter.put(Datasets.STRINGS.create(i));
+                    }
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, filter.getInsertions());
+        for (int i = 0; i < threads * perThread; i++) {
+            assertTrue(filter.mightContain(Datasets.STRINGS.create(i)));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package hashing;
+
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class CountingBloomFilterTest {
+    @DataPoints
+    public static final MultiHasherProducer[] multiHasherProducers = MultiHasherProducers.values();
+
+    @Theory
+    public void testRemovalsKeepOtherElements(MultiHasherProducer multiHasherProducer) {
+        CountingBloomFilter filter = CountingBloomFilter.createWithCapacity(1000, 8, multiHasherProducer);
+        for (int i = 0; i < 2000; i++) {
+            filter.put(Datasets.STRINGS.create(i));
+        }
+        for (int i = 0; i < 2000; i += 2) {
+            filter.remove(Datasets.STRINGS.create(i));
+        }
+        for (int i = 1; i < 2000; i += 2) {
+            assertTrue(filter.mightContain(Datasets.STRINGS.create(i)));
+        }
+        int deletedPositives = 0;
+        for (int i = 0; i < 2000; i += 2) {
+            if (filter.mightContain(Datasets.STRINGS.create(i))) deletedPositives++;
+        }
+        assertTrue(deletedPositives < 100);
+    }
+
+    @Theory
+    public void testRemovingEverythingEmptiesTheFilter(MultiHasherProducer multiHasherProducer) {
+        CountingBloomFilter filter = CountingBloomFilter.createWithCapacity(1000, 4, multiHasherProducer);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(Datasets.INTEGERS.create(i));
+        }
+        assertTrue(filter.computeFalsePositiveRate() > 0.0);
+        for (int i = 0; i < 1000; i++) {
+            filter.remove(Datasets.INTEGERS.create(i));
+        }
+        assertEquals(0.0, filter.computeFalsePositiveRate(), 0.0);
+        assertEquals(0.0, filter.computeExpectedFalsePositiveRate(), 0.0);
+    }
+
+    @Theory
+    public void testSaturatedCountersAreNeverDecremented(MultiHasherProducer multiHasherProducer) {
+        CountingBloomFilter filter = CountingBloomFilter.createWithCapacity(10, 4, multiHasherProducer);
+        for (int i = 0; i < 20; i++) {
+            filter.put("x");
+        }
+        for (int i = 0; i < 19; i++) {
+            filter.remove("x");
+        }
+        assertTrue(filter.mightContain("x"));
+    }
+}
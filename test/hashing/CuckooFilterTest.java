@@ -0,0 +1,71 @@
+package hashing;
+
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class CuckooFilterTest {
+    @DataPoints
+    public static final Scrambler[] scramblers = { Scramblers.WANG, Scramblers.JENKINS, Scramblers.CONCURRENTHASHMAP };
+
+    @Theory
+    public void testNoFalseNegatives(Scrambler scrambler) {
+        CuckooFilter filter = CuckooFilter.createWithCapacity(1000, 12, scrambler);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(Datasets.STRINGS.create(i));
+        }
+        assertEquals(1000, filter.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain(Datasets.STRINGS.create(i)));
+        }
+        int positives = 0;
+        for (int i = 1000; i < 11000; i++) {
+            if (filter.mightContain(Datasets.STRINGS.create(i))) positives++;
+        }
+        assertTrue(positives < 100);
+    }
+
+    @Theory
+    public void testNoFalseNegativesWithManyBuckets(Scrambler scrambler) {
+        //a bucket count that is not a power of two, where the alternate bucket must not overflow
+        CuckooFilter filter = CuckooFilter.createWithCapacity(1 << 20, 16, scrambler);
+        for (int i = 0; i < 1 << 20; i++) {
+            filter.putHash(i);
+        }
+        for (int i = 0; i < 1 << 20; i++) {
+            assertTrue(filter.mightContainHash(i));
+        }
+    }
+
+    @Theory
+    public void testRemove(Scrambler scrambler) {
+        CuckooFilter filter = CuckooFilter.createWithCapacity(1000, 16, scrambler);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(Datasets.INTEGERS.create(i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(filter.remove(Datasets.INTEGERS.create(i)));
+        }
+        assertEquals(500, filter.size());
+        for (int i = 1; i < 1000; i += 2) {
+            assertTrue(filter.mightContain(Datasets.INTEGERS.create(i)));
+        }
+    }
+
+    @Theory
+    public void testFillsUpGracefully(Scrambler scrambler) {
+        CuckooFilter filter = CuckooFilter.createWithCapacity(1000, 8, scrambler);
+        int added = 0;
+        while (filter.add(Datasets.INTEGERS.create(added))) {
+            added++;
+        }
+        assertTrue(filter.getLoad() > 0.8 && filter.getLoad() <= 1.0);
+        assertFalse(filter.add(Datasets.INTEGERS.create(added)));
+        for (int i = 0; i < added; i++) {
+            assertTrue(filter.mightContain(Datasets.INTEGERS.create(i)));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package hashing;
+
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class CuckooIntMapTest {
+    @DataPoints
+    public static final MultiHasherProducer[] producers = MultiHasherProducers.values();
+
+    @DataPoints
+    public static final int[] slotsPerBucket = { 1, 4 };
+
+    @Theory
+    public void testAgreesWithHashMap(MultiHasherProducer producer, int slots) {
+        IntMapAssert.assertAgreesWithHashMap(new CuckooIntMap(4, producer, 3, slots, 50, 4));
+    }
+
+    @Theory
+    public void testLookupsProbeAtMostDPlusOneBuckets(MultiHasherProducer producer, int slots) {
+        CuckooIntMap map = new CuckooIntMap(1 << 10, producer, 2, slots, 100, 4);
+        for (int i = 0; i < 2000; i++) {
+            map.put(i * 31, i);
+        }
+        for (int i = 0; i < 4000; i++) {
+            assertTrue(map.countProbes(i * 31) <= 3);
+            assertEquals(i < 2000 ? i : -1, map.get(i * 31, -1));
+        }
+    }
+
+    @Test
+    public void testRecordsLoadAtFirstFailure() {
+        //with 2 choices of a single slot, insertions start failing at about half load
+        CuckooIntMap map = new CuckooIntMap(1 << 12, MultiHasherProducers.RANDOM, 2, 1, 100, 0);
+        int i = 0;
+        while (Double.isNaN(map.getLoadAtFirstFailure())) {
+            map.put(i++, 0);
+        }
+        assertEquals(0.5, map.getLoadAtFirstFailure(), 0.1);
+        assertEquals(1 << 13, map.getTableSize());
+        assertEquals(100, map.getLongestEvictionChain());
+        assertTrue(map.getAverageEvictions() > 0.0);
+        for (int j = 0; j < i; j++) {
+            assertTrue(map.containsKey(j));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package hashing;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DatasetTest {
+    @Test
+    public void testFillAgreesWithGet() {
+        for (IntDataset dataset : IntDatasets.values()) {
+            int[] out = new int[100];
+            dataset.fill(-50, out);
+            for (int i = 0; i < out.length; i++) {
+                assertEquals(dataset.get(-50 + i), out[i]);
+            }
+        }
+        for (LongDataset dataset : LongDatasets.values()) {
+            long[] out = new long[100];
+            dataset.fill(1000, out);
+            for (int i = 0; i < out.length; i++) {
+                assertEquals(dataset.get(1000 + i), out[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomDatasetsFollowSplitMix64() {
+        //the first outputs of the reference splitmix64 generator, seeded with 0
+        long[] known = { 0xE220A8397B1DCDAFL, 0x6E789E6AA1B965F4L, 0x06C45D188009454FL,
+                0xF88BB8A8724C81ECL, 0x1B39896A51A8749BL };
+        for (int i = 0; i < known.length; i++) {
+            assertEquals(known[i], LongDatasets.RND_LONGS.get(i));
+        }
+        long state = 0;
+        for (int i = 0; i < 1000; i++) {
+            long expected = splitMix64(state += 0x9E3779B97F4A7C15L);
+            assertEquals(expected, LongDatasets.RND_LONGS.get(i));
+            assertEquals((int)(expected >>> 32), IntDatasets.RND_INTEGERS.get(i));
+            assertEquals(Integer.valueOf((int)(expected >>> 32)), Datasets.RND_INTEGERS.create(i));
+        }
+    }
+
+    private static long splitMix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Test
+    public void testHashCodesOf() {
+        assertSame(IntDatasets.INTEGERS, IntDatasets.hashCodesOf(Datasets.INTEGERS));
+        IntDataset strings = IntDatasets.hashCodesOf(Datasets.STRINGS);
+        int[] out = new int[10];
+        strings.fill(5, out);
+        for (int i = 0; i < out.length; i++) {
+            assertEquals(Integer.toString(5 + i).hashCode(), out[i]);
+            assertEquals(out[i], strings.get(5 + i));
+        }
+    }
+
+    @Test
+    public void testHashesOf() {
+        LongDataset keys = LongDatasets.hashesOf(Datasets.BYTES_XXHASH64);
+        long[] out = new long[10];
+        keys.fill(5, out);
+        boolean beyondInt = false;
+        for (int i = 0; i < out.length; i++) {
+            assertEquals(((ByteKey)Datasets.BYTES_XXHASH64.create(5 + i)).hash64(), out[i]);
+            assertEquals(out[i], keys.get(5 + i));
+            beyondInt |= out[i] != (int)out[i];
+        }
+        assertTrue(beyondInt);
+        assertEquals("-3".hashCode(), LongDatasets.hashesOf(Datasets.STRINGS).get(-3));
+        assertEquals("BYTES_XXHASH64", keys.toString());
+    }
+}
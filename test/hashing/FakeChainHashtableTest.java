@@ -0,0 +1,41 @@
+package hashing;
+
+import hashing.FakeChainHashtable.Histogram;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FakeChainHashtableTest {
+    @Test
+    public void testHistogram() {
+        FakeChainHashtable hashtable = new FakeChainHashtable(8, Scramblers.IDENTITY);
+        //chains of lengths 3, 1, 2 and 0 in the other buckets
+        for (int key : new int[] { 0, 8, 16, 1, 2, 10 }) {
+            hashtable.put(key);
+        }
+        Histogram histogram = hashtable.computeHistogram();
+        assertEquals(5, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(3));
+        assertEquals(0, histogram.getBucketCount(4));
+        assertEquals(5.0 / 8, histogram.getEmptyFraction(), 1e-9);
+        assertEquals(2.0, histogram.getAverageChainLength(), 1e-9);
+        assertEquals(Math.sqrt(2.0 / 3), histogram.getChainLengthStddev(), 1e-9);
+        assertEquals(2, histogram.getChainLengthPercentile(0.5));
+        assertEquals(3, histogram.getChainLengthPercentile(0.99));
+        assertEquals(3, histogram.getMaxChainLength());
+        //(1 + 2 + 3) + 1 + (1 + 2) comparisons for 6 elements
+        assertEquals(10.0 / 6, histogram.getExpectedProbesOnSuccess(), 1e-9);
+    }
+
+    @Test
+    public void testCountersWidenBeyond16Bits() {
+        FakeChainHashtable hashtable = new FakeChainHashtable(2, Scramblers.IDENTITY);
+        for (int i = 0; i < 70000; i++) {
+            hashtable.put(0);
+        }
+        hashtable.put(1);
+        Histogram histogram = hashtable.computeHistogram();
+        assertEquals(70000, histogram.getMaxChainLength());
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(70001 / 2.0, histogram.getAverageChainLength(), 1e-9);
+    }
+}
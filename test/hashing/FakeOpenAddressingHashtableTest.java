@@ -0,0 +1,128 @@
+package hashing;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class FakeOpenAddressingHashtableTest {
+    @DataPoints
+    public static final Prober[] probers = Probers.values();
+
+    @Theory
+    public void testProbesOnSuccessAgreeWithLookups(Prober prober) {
+        int tableSize = 256;
+        FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, prober);
+        ProbeCursor cursor = prober.newProbeCursor(tableSize);
+        BitSet occupied = new BitSet(tableSize);
+        Random random = new Random(0);
+        long totalProbes = 0;
+        int maxProbes = 0;
+        for (int i = 0; i < 200; i++) {
+            int hashCode = random.nextInt();
+            hashtable.put(hashCode);
+            cursor.reset(hashCode);
+            int probes = 1;
+            int position;
+            while (occupied.get(position = cursor.next())) {
+                probes++;
+            }
+            occupied.set(position);
+            totalProbes += probes;
+            maxProbes = Math.max(maxProbes, probes);
+        }
+        assertEquals((double)totalProbes / 200, hashtable.getAverageProbesOnSuccess(), 1e-9);
+        assertEquals(maxProbes, hashtable.getMaxProbesOnSuccess());
+        assertEquals(totalProbes - 200, hashtable.getCollisionCount());
+        long elements = 0;
+        for (int probes = 1; probes <= maxProbes; probes++) {
+            elements += hashtable.getElementCountByProbes(probes);
+        }
+        assertEquals(200, elements);
+        assertEquals(0, hashtable.getElementCountByProbes(maxProbes + 1));
+    }
+
+    @Theory
+    public void testProbesOnMissAgreeWithLookups(Prober prober) {
+        int tableSize = 256;
+        FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, prober);
+        ProbeCursor cursor = prober.newProbeCursor(tableSize);
+        BitSet occupied = new BitSet(tableSize);
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++) {
+            int hashCode = random.nextInt();
+            hashtable.put(hashCode);
+            cursor.reset(hashCode);
+            int position;
+            while (occupied.get(position = cursor.next()));
+            occupied.set(position);
+        }
+        int[] absent = new int[100];
+        long totalProbes = 0;
+        for (int i = 0; i < absent.length; i++) {
+            absent[i] = random.nextInt();
+            cursor.reset(absent[i]);
+            totalProbes++;
+            while (occupied.get(cursor.next())) {
+                totalProbes++;
+            }
+        }
+        assertEquals((double)totalProbes / absent.length, hashtable.getAverageProbesOnMiss(absent), 1e-9);
+    }
+
+    @Test
+    public void testClusterScanAgreesWithLinearScans() {
+        int tableSize = 128;
+        FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, Probers.LINEAR);
+        BitSet occupied = new BitSet(tableSize);
+        Random random = new Random(0);
+        int[] allPositions = new int[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            allPositions[i] = i;
+        }
+        for (int i = 0; i < tableSize - 1; i++) {
+            int hashCode = random.nextInt(tableSize);
+            hashtable.put(hashCode);
+            int position = hashCode;
+            while (occupied.get(position)) {
+                position = (position + 1) % tableSize;
+            }
+            occupied.set(position);
+
+            long totalProbes = 0;
+            int longestCluster = 0;
+            for (int start = 0; start < tableSize; start++) {
+                int probes = 1;
+                while (occupied.get((start + probes - 1) % tableSize)) {
+                    probes++;
+                }
+                totalProbes += probes;
+                longestCluster = Math.max(longestCluster, probes - 1);
+            }
+            assertEquals((double)totalProbes / tableSize, hashtable.getAverageClusterScan(), 1e-9);
+            assertEquals(hashtable.getAverageClusterScan(), hashtable.getAverageProbesOnMiss(allPositions), 1e-9);
+            assertEquals(longestCluster, hashtable.getLongestCluster());
+        }
+        hashtable.put(0);
+        assertEquals(tableSize, hashtable.getLongestCluster());
+    }
+
+    @Test
+    public void testSequentialFillMergesClusters() {
+        int tableSize = 1 << 16;
+        FakeOpenAddressingHashtable hashtable = new FakeOpenAddressingHashtable(tableSize, Probers.LINEAR);
+        //a single cluster, growing from the middle in both directions until it covers the table
+        for (int i = 0; i < tableSize / 2; i++) {
+            hashtable.put(tableSize / 2 + i);
+            hashtable.put(tableSize / 2 - 1 - i);
+        }
+        assertEquals(tableSize, hashtable.size());
+        assertEquals(tableSize, hashtable.getLongestCluster());
+        assertEquals(1, hashtable.getMaxProbesOnSuccess());
+    }
+}
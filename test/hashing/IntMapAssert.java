@@ -0,0 +1,86 @@
+package hashing;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+
+/**
+ * Assertions shared by the tests of the {@link IntMap} implementations (and of
+ * {@link OpenAddressingLongMap}, through an {@code IntMap} view of it).
+ */
+class IntMapAssert {
+    private IntMapAssert() { }
+
+    /**
+     * Asserts that the (empty) map agrees with a {@code HashMap} over a random sequence of puts,
+     * removals and lookups of a few hundred keys, which makes it grow and reuse removed positions.
+     */
+    static void assertAgreesWithHashMap(IntMap map) {
+        Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(300);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(!expected.containsKey(key), map.put(key, i));
+                    expected.put(key, i);
+                    break;
+                case 1:
+                    assertEquals(expected.containsKey(key), map.remove(key));
+                    expected.remove(key);
+                    break;
+                default:
+                    Integer value = expected.get(key);
+                    assertEquals(value == null ? -1 : value.intValue(), map.get(key, -1));
+                    assertEquals(value != null, map.containsKey(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+    }
+
+    /**
+     * Asserts that the (empty) map agrees with a {@code HashMap} over the same sequence of operations,
+     * where each key spreads over both halves of a {@code long}, so that many distinct keys (those whose
+     * halves have the same xor) share a hashCode.
+     */
+    static void assertAgreesWithHashMap(final OpenAddressingLongMap map) {
+        assertAgreesWithHashMap(new IntMap() {
+            public boolean put(int key, int value) {
+                return map.put(longKey(key), value);
+            }
+
+            public int get(int key, int defaultValue) {
+                return (int)map.get(longKey(key), defaultValue);
+            }
+
+            public boolean containsKey(int key) {
+                return map.containsKey(longKey(key));
+            }
+
+            public boolean remove(int key) {
+                return map.remove(longKey(key));
+            }
+
+            public int countProbes(int key) {
+                return map.countProbes(longKey(key));
+            }
+
+            public void clear() {
+                map.clear();
+            }
+
+            public int size() {
+                return map.size();
+            }
+
+            public int getTableSize() {
+                return map.getTableSize();
+            }
+        });
+    }
+
+    private static long longKey(int key) {
+        return ((long)(key / 20) << 32) | (key % 20);
+    }
+}
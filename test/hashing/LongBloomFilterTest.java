@@ -0,0 +1,87 @@
+package hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LongBloomFilterTest {
+    @Test
+    public void testSplitMix64MatchesReferenceOutput() {
+        //first output of SplitMix64 seeded with 0
+        assertEquals(0xE220A8397B1DCDAFL, LongScramblers.SPLITMIX64.scramble(0));
+    }
+
+    @Test
+    public void testHashesBeyondIntRange() {
+        long tableSize = (1L << 35) + 7;
+        long[] hashes = new long[8];
+        boolean beyondInt = false;
+        for (LongMultiHasherProducer producer : LongMultiHasherProducers.values()) {
+            LongMultiHasher multiHasher = producer.produce(hashes.length);
+            for (int i = 0; i < 1000; i++) {
+                multiHasher.multihash(i, hashes, tableSize);
+                for (long hash : hashes) {
+                    assertTrue(hash >= 0 && hash < tableSize);
+                    beyondInt |= hash > Integer.MAX_VALUE;
+                }
+            }
+        }
+        assertTrue(beyondInt);
+    }
+
+    @Test
+    public void testHash64TellsApartEqualHashCodes() {
+        long tableSize = 1L << 40;
+        long[] hashes = new long[4];
+        long[] extended = new long[4];
+        for (LongMultiHasherProducer producer : LongMultiHasherProducers.values()) {
+            LongMultiHasher multiHasher = producer.produce(hashes.length);
+            multiHasher.multihash(-7, hashes, tableSize);
+            multiHasher.multihash64(-7L, extended, tableSize);
+            assertArrayEquals(hashes, extended);
+
+            //these differ only in the high-end half, which hashCodes would drop (or fold into a few values)
+            Set<Long> firstHashes = new HashSet<Long>();
+            for (long i = 0; i < 1000; i++) {
+                multiHasher.multihash64(i << 32, hashes, tableSize);
+                firstHashes.add(hashes[0]);
+            }
+            assertEquals(1000, firstHashes.size());
+        }
+    }
+
+    @Test
+    public void testNoFalseNegativesByHash64() {
+        for (LongMultiHasherProducer producer : LongMultiHasherProducers.values()) {
+            LongBloomFilter filter = LongBloomFilter.createWithCapacity(1000, 8, producer);
+            for (long i = 0; i < 1000; i++) {
+                filter.putHash64(i << 32);
+            }
+            for (long i = 0; i < 1000; i++) {
+                assertTrue(filter.mightContainHash64(i << 32));
+            }
+            assertTrue(filter.computeFalsePositiveRate() < 0.1);
+        }
+    }
+
+    @Test
+    public void testNoFalseNegatives() {
+        for (LongMultiHasherProducer producer : LongMultiHasherProducers.values()) {
+            LongBloomFilter filter = LongBloomFilter.createWithCapacity(1000, 8, producer);
+            for (int i = 0; i < 1000; i++) {
+                filter.put(Datasets.STRINGS.create(i));
+            }
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(filter.mightContain(Datasets.STRINGS.create(i)));
+            }
+            double estimated = filter.computeFalsePositiveRate();
+            assertTrue(estimated > 0.0 && estimated < 0.1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIntFiltersRejectOverflowingSizes() {
+        FakeBloomFilter.createWithCapacity(1 << 28, 16, MultiHasherProducers.RANDOM);
+    }
+}
@@ -0,0 +1,89 @@
+package hashing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MappedBloomFilterTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("bloom", ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testReopenedFilterKeepsElements() throws IOException {
+        for (MultiHasherProducers producer : MultiHasherProducers.values()) {
+            MappedBloomFilter filter = MappedBloomFilter.create(file, 1000, 8, producer);
+            for (int i = 0; i < 1000; i++) {
+                filter.put(Datasets.STRINGS.create(i));
+            }
+            filter.force();
+
+            MappedBloomFilter reopened = MappedBloomFilter.open(file, true);
+            assertEquals(producer, reopened.getMultiHasherProducer());
+            assertEquals(filter.getHashesCount(), reopened.getHashesCount());
+            assertEquals(filter.computeExpectedFalsePositiveRate(), reopened.computeExpectedFalsePositiveRate(), 0.0);
+            assertEquals(filter.computeFalsePositiveRate(), reopened.computeFalsePositiveRate(), 0.0);
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(reopened.mightContain(Datasets.STRINGS.create(i)));
+            }
+            for (int i = 1000; i < 2000; i++) {
+                assertEquals(filter.mightContain(Datasets.STRINGS.create(i)), reopened.mightContain(Datasets.STRINGS.create(i)));
+            }
+        }
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnlyFilterRejectsPuts() throws IOException {
+        MappedBloomFilter.create(file, 100, 8, MultiHasherProducers.RANDOM).force();
+        MappedBloomFilter.open(file, true).put("x");
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[128]);
+        out.close();
+        MappedBloomFilter.open(file, true);
+    }
+
+    @Test
+    public void testRejectsCorruptHeaders() throws IOException {
+        //the fields are in native byte order, so these values read the same in either
+        assertRejectsCorruptHeader(24, new byte[] { (byte)0x80 }); //the length of the producer name
+        assertRejectsCorruptHeader(8, new byte[] { -1, -1, -1, -1 }); //the number of hashes: -1
+        assertRejectsCorruptHeader(8, new byte[] { 0, 0, 0, 0 });
+        assertRejectsCorruptHeader(8, new byte[] { 0x7F, 0x7F, 0x7F, 0x7F });
+        assertRejectsCorruptHeader(16, new byte[] { -1, -1, -1, -1, -1, -1, -1, -1 }); //the insertions: -1
+    }
+
+    private void assertRejectsCorruptHeader(int offset, byte[] bytes) throws IOException {
+        MappedBloomFilter.create(file, 100, 8, MultiHasherProducers.RANDOM).force();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(offset);
+        raf.write(bytes);
+        raf.close();
+        try {
+            MappedBloomFilter.open(file, true);
+            fail("Opened a corrupt file");
+        } catch (IOException expected) { }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTooManyHashes() throws IOException {
+        MappedBloomFilter.create(file, 100, 100, MultiHasherProducers.RANDOM);
+    }
+}
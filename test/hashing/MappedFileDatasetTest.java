@@ -0,0 +1,113 @@
+package hashing;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MappedFileDatasetTest {
+    private static final int KEYS = 1000;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("keys", ".txt");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static String key(int i) {
+        return i % 7 == 0 ? "" : "tenant-" + (i % 13) + "/" + Integer.toHexString(i * 0x9E3779B9);
+    }
+
+    private void writeNewlineDelimited(boolean crlf, boolean trailingNewline) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        for (int i = 0; i < KEYS; i++) {
+            out.write(key(i).getBytes("UTF-8"));
+            if (i < KEYS - 1 || trailingNewline) {
+                out.write(crlf ? "\r\n".getBytes("UTF-8") : "\n".getBytes("UTF-8"));
+            }
+        }
+        out.close();
+    }
+
+    @Test
+    public void testNewlineDelimited() throws IOException {
+        for (boolean crlf : new boolean[] { false, true }) {
+            for (boolean trailingNewline : new boolean[] { false, true }) {
+                writeNewlineDelimited(crlf, trailingNewline);
+                MappedFileDataset dataset = new MappedFileDataset(file, MappedFileDataset.Format.NEWLINE);
+                for (int i = 0; i < KEYS; i++) {
+                    assertEquals(key(i), dataset.create(i));
+                }
+                assertEquals(KEYS, dataset.size());
+            }
+        }
+    }
+
+    @Test
+    public void testLengthPrefixedAsByteKeys() throws IOException {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        for (int i = 0; i < KEYS; i++) {
+            byte[] bytes = key(i).getBytes("UTF-8");
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.close();
+        MappedFileDataset dataset = new MappedFileDataset(file, MappedFileDataset.Format.LENGTH_PREFIXED,
+                ByteHashers.XXHASH64);
+        assertEquals(KEYS, dataset.size());
+        for (int i = KEYS - 1; i >= 0; i--) {
+            byte[] bytes = key(i).getBytes("UTF-8");
+            ByteKey expected = new ByteKey(bytes, 0, bytes.length, ByteHashers.XXHASH64);
+            assertEquals(expected, dataset.create(i));
+            assertEquals(expected.hashCode(), dataset.create(i).hashCode());
+        }
+    }
+
+    @Test
+    public void testRandomAccessFromSeveralThreads() throws Exception {
+        writeNewlineDelimited(false, true);
+        final MappedFileDataset dataset = new MappedFileDataset(file, MappedFileDataset.Format.NEWLINE);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for (int t = 0; t < 4; t++) {
+            final long seed = t;
+            results.add(executor.submit(new Callable<Void>() {
+                public Void call() {
+                    Random random = new Random(seed);
+                    for (int j = 0; j < 2000; j++) {
+                        int i = random.nextBoolean() ? random.nextInt(KEYS) : j % KEYS;
+                        assertEquals(key(i), dataset.create(i));
+                    }
+                    return null;
+                }
+            }));
+        }
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRejectsIndicesBeyondTheLastKey() throws IOException {
+        writeNewlineDelimited(false, true);
+        new MappedFileDataset(file, MappedFileDataset.Format.NEWLINE).create(KEYS);
+    }
+}
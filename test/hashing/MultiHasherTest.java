@@ -2,6 +2,7 @@ package hashing;
 
 import java.security.SecureRandom;
 import java.util.List;
+import java.util.Random;
 import org.junit.experimental.theories.Theories;
 import org.junit.runner.RunWith;
 import com.google.common.primitives.Ints;
@@ -38,4 +39,40 @@ public class MultiHasherTest {
             }
         }
     }
+
+    @Theory
+    public void testHashCursorAgreesWithMultihash(MultiHasherProducer multiHasherProducer, Dataset dataset, int tableSize) {
+        for (int k = 1; k < 6; k++) {
+            MultiHasher multiHasher = multiHasherProducer.produce(k);
+            if (!(multiHasher instanceof LazyMultiHasher)) {
+                continue;
+            }
+            HashCursor cursor = ((LazyMultiHasher)multiHasher).newHashCursor(tableSize);
+
+            int[] out = new int[k];
+            for (int i = 0; i < 1000; i++) {
+                Object o = dataset.create(i);
+                multiHasher.multihash(o, out, tableSize);
+                cursor.reset(o);
+                for (int hash : out) {
+                    assertTrue(hash >= 0 && hash < tableSize);
+                    assertEquals(hash, cursor.next());
+                }
+            }
+        }
+    }
+
+    @Theory
+    public void testRandomMatchesJavaUtilRandom(Dataset dataset, int tableSize) {
+        MultiHasher multiHasher = MultiHasherProducers.RANDOM.produce(5);
+        int[] out = new int[5];
+        for (int i = 0; i < 1000; i++) {
+            Object o = dataset.create(i);
+            multiHasher.multihash(o, out, tableSize);
+            Random random = new Random(o.hashCode());
+            for (int hash : out) {
+                assertEquals(Modulo.mod(random.nextInt(), tableSize), hash);
+            }
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package hashing;
+
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class OpenAddressingIntMapTest {
+    @DataPoints
+    public static final Prober[] probers = Probers.values();
+
+    @DataPoints
+    public static final double[] loadFactors = { 0.25, 0.5, 0.9 };
+
+    @Theory
+    public void testAgreesWithHashMap(Prober prober, double loadFactor) {
+        IntMapAssert.assertAgreesWithHashMap(new OpenAddressingIntMap(2, prober, loadFactor));
+    }
+
+    @Theory
+    public void testGrowsBeyondInitialTableSize(Prober prober, double loadFactor) {
+        OpenAddressingIntMap map = new OpenAddressingIntMap(1, prober, loadFactor);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31, i);
+        }
+        assertEquals(1000, map.size());
+        assertTrue(map.size() <= map.getTableSize() * loadFactor);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 31, -1));
+        }
+    }
+}
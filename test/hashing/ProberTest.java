@@ -1,6 +1,5 @@
 package hashing;
 
-import java.util.Iterator;
 import java.util.BitSet;
 import org.junit.experimental.theories.Theory;
 import org.junit.experimental.theories.DataPoints;
@@ -18,13 +17,14 @@ public class ProberTest {
 
     @Theory
     public void testProbeAllPositions(Prober prober, int tableSize) {
+        ProbeCursor cursor = prober.newProbeCursor(tableSize);
         for (int h = 0; h < 10; h++) {
             BitSet bitSet = new BitSet(tableSize);
             bitSet.set(0, tableSize);
-            Iterator<Integer> seq = prober.probeSequence(h, tableSize);
+            cursor.reset(h);
 
             for (int i = 0; i < tableSize; i++) {
-                bitSet.set(seq.next(), false);
+                bitSet.set(cursor.next(), false);
             }
             assertEquals(0, bitSet.cardinality()); //all positions have been probed
         }
@@ -32,12 +32,28 @@ public class ProberTest {
 
     @Theory public void testProbeConsistently(Prober prober, int tableSize) {
         for (int h = 0; h < 10; h++) {
-            Iterator<Integer> seq1 = prober.probeSequence(h, tableSize);
-            Iterator<Integer> seq2 = prober.probeSequence(h, tableSize);
+            ProbeCursor seq1 = prober.newProbeCursor(tableSize);
+            ProbeCursor seq2 = prober.newProbeCursor(tableSize);
+            seq1.reset(h);
+            seq2.reset(h);
 
             for (int i = 0; i < tableSize; i++) {
                 assertEquals(seq1.next(), seq2.next());
             }
         }
     }
+
+    @Theory public void testResetRestartsSequence(Prober prober, int tableSize) {
+        ProbeCursor reused = prober.newProbeCursor(tableSize);
+        for (int h = 0; h < 10; h++) {
+            ProbeCursor fresh = prober.newProbeCursor(tableSize);
+            reused.reset(h);
+            fresh.reset(h);
+
+            for (int i = 0; i < tableSize; i++) {
+                assertEquals(fresh.next(), reused.next());
+            }
+            reused.next(); //leave the reused cursor mid-sequence before the next reset
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package hashing;
+
+import java.util.Random;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class RobinHoodIntMapTest {
+    @DataPoints
+    public static final Prober[] probers = Probers.values();
+
+    @DataPoints
+    public static final double[] loadFactors = { 0.25, 0.5, 0.9 };
+
+    @Theory
+    public void testAgreesWithHashMap(Prober prober, double loadFactor) {
+        IntMapAssert.assertAgreesWithHashMap(new RobinHoodIntMap(2, prober, loadFactor));
+    }
+
+    @Theory
+    public void testTailIsNoWorseThanPlainLinearProbing(double loadFactor) {
+        Prober prober = Probers.LINEAR;
+        RobinHoodIntMap robinHood = new RobinHoodIntMap(1 << 10, prober, loadFactor);
+        OpenAddressingIntMap plain = new OpenAddressingIntMap(1 << 10, prober, loadFactor);
+        Random random = new Random(0);
+        int[] keys = new int[(int)((1 << 10) * loadFactor)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt();
+            robinHood.put(keys[i], i);
+            plain.put(keys[i], i);
+        }
+        assertEquals(plain.getTableSize(), robinHood.getTableSize());
+        long robinHoodTotal = 0;
+        long plainTotal = 0;
+        int robinHoodMax = 0;
+        int plainMax = 0;
+        for (int key : keys) {
+            robinHoodTotal += robinHood.countProbes(key);
+            plainTotal += plain.countProbes(key);
+            robinHoodMax = Math.max(robinHoodMax, robinHood.countProbes(key));
+            plainMax = Math.max(plainMax, plain.countProbes(key));
+        }
+        //displacements only redistribute probes, the total is the same for any insertion order
+        assertEquals(plainTotal, robinHoodTotal);
+        assertTrue(robinHoodMax <= plainMax);
+    }
+}
@@ -0,0 +1,47 @@
+package hashing;
+
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(Theories.class)
+public class SwissIntMapTest {
+    @DataPoints
+    public static final Scrambler[] scramblers = Scramblers.values();
+
+    @DataPoints
+    public static final double[] loadFactors = { 0.25, 0.5, 0.875 };
+
+    @Theory
+    public void testAgreesWithHashMap(Scrambler scrambler, double loadFactor) {
+        IntMapAssert.assertAgreesWithHashMap(new SwissIntMap(2, scrambler, loadFactor));
+    }
+
+    @Theory
+    public void testGrowsBeyondInitialTableSize(Scrambler scrambler, double loadFactor) {
+        SwissIntMap map = new SwissIntMap(1, scrambler, loadFactor);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31, i);
+        }
+        assertEquals(1000, map.size());
+        assertTrue(map.size() <= map.getTableSize() * loadFactor);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.get(i * 31, -1));
+        }
+    }
+
+    @Theory
+    public void testKeysSharingControlBits(double loadFactor) {
+        //all keys have the same low-end 7 bits, thus the same control byte
+        SwissIntMap map = new SwissIntMap(16, Scramblers.IDENTITY, loadFactor);
+        for (int i = 0; i < 200; i++) {
+            map.put(i << 7, i);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, map.get(i << 7, -1));
+            assertFalse(map.containsKey((i << 7) | 1));
+        }
+    }
+}
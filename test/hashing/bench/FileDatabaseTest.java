@@ -0,0 +1,85 @@
+package hashing.bench;
+
+import gr.forth.ics.jbenchy.Aggregator;
+import gr.forth.ics.jbenchy.DataTypes;
+import gr.forth.ics.jbenchy.Database;
+import gr.forth.ics.jbenchy.Filters;
+import gr.forth.ics.jbenchy.Orders;
+import gr.forth.ics.jbenchy.Record;
+import gr.forth.ics.jbenchy.Records;
+import gr.forth.ics.jbenchy.Schema;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FileDatabaseTest {
+    enum Vars { NAME, N, VALUE }
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = File.createTempFile("results", "");
+        directory.delete();
+    }
+
+    @After
+    public void deleteDirectory() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private static Schema schema() {
+        return new Schema().
+            add(Vars.NAME, DataTypes.SMALL_STRING).
+            add(Vars.N, DataTypes.INTEGER).
+            add(Vars.VALUE, DataTypes.DOUBLE);
+    }
+
+    private void recordAll(Aggregator aggr) {
+        aggr.record(new Record().add(Vars.NAME, "plain").add(Vars.N, 8).add(Vars.VALUE, 1.5));
+        aggr.record(new Record().add(Vars.NAME, "plain").add(Vars.N, 8).add(Vars.VALUE, 2.5));
+        aggr.record(new Record().add(Vars.NAME, "a, \"quoted\"\nname").add(Vars.N, 16).add(Vars.VALUE, 4.0));
+        aggr.record(new Record().add(Vars.NAME, "plain").add(Vars.N, 16));
+    }
+
+    @Test
+    public void testReloadsRecords() {
+        Database db = new FileDatabase(directory, null);
+        recordAll(db.forceCreate(schema(), "results"));
+        db.shutDown();
+
+        Aggregator aggr = new FileDatabase(directory, null).get("results");
+        assertEquals(schema().toString(), aggr.getSchema().toString());
+        assertEquals(Arrays.asList("a, \"quoted\"\nname", "plain"), aggr.domainOf(Vars.NAME, String.class));
+        assertEquals(Arrays.asList(16, 8), aggr.ordered(Orders.desc(Vars.N)).domainOf(Vars.N, Integer.class));
+        assertEquals(4, aggr.count().per().list().get(0).getValue());
+    }
+
+    @Test
+    public void testReports() {
+        Aggregator aggr = new FileDatabase(directory, null).forceCreate(schema(), "results");
+        recordAll(aggr);
+
+        List<Record> averages = aggr.ordered(Orders.asc(Vars.N)).averageOf(Vars.VALUE).per(Vars.N).list();
+        assertEquals(2, averages.size());
+        assertEquals(8, averages.get(0).get(Vars.N));
+        assertEquals(2.0, (Double)averages.get(0).getValue(), 0.0);
+        assertEquals(4.0, (Double)averages.get(1).getValue(), 0.0); //missing values are ignored
+
+        Records max = aggr.filtered(Filters.eq(Vars.NAME, "plain")).maxOf(Vars.VALUE).per(Vars.NAME);
+        assertEquals(2.5, max.list().get(0).getValue());
+
+        //AND binds tighter than OR
+        Records count = aggr.filtered(Filters.and(Filters.eq(Vars.N, 16),
+                Filters.or(Filters.eq(Vars.NAME, "plain"), Filters.lt(Vars.VALUE, 2.0)))).count().per();
+        assertEquals(2, count.list().get(0).getValue());
+    }
+}